@@ -0,0 +1,57 @@
+package algorithm;
+
+import java.util.Random;
+
+/**
+ * Fixed-seed synthetic instances, the same for every run so results are comparable between commits
+ */
+final class BenchmarkInstances {
+
+    static final long SEED = 20210417L;
+    private static final double AREA = 10_000.0;
+
+    private BenchmarkInstances() { }
+
+    /**
+     * @return uniformly distributed points in square area
+     */
+    static CoordinateDistances randomPoints(int cities){
+        Random random = new Random(SEED + cities);
+        double[] x = new double[cities];
+        double[] y = new double[cities];
+
+        for(int i = 0; i < cities; i++){
+            x[i] = random.nextDouble() * AREA;
+            y[i] = random.nextDouble() * AREA;
+        }
+
+        return new CoordinateDistances(x, y);
+    }
+
+    /**
+     * @return population of random routes starting and ending with point 0, lengths are evaluated
+     */
+    static Population randomPopulation(DistanceProvider distances, int populationSize, RandomSource random){
+        int cities = distances.size();
+        Population population = new Population(populationSize, cities + 1);
+
+        for(int i = 0; i < populationSize; i++){
+            int offset = population.offset(i);
+            for(int j = 0; j < cities; j++){
+                population.genes[offset + j] = j;
+            }
+            for(int j = cities - 1; j > 1; j--){
+                int other = random.nextInt(j) + 1;
+                int temp = population.genes[offset + j];
+                population.genes[offset + j] = population.genes[offset + other];
+                population.genes[offset + other] = temp;
+            }
+            population.genes[offset + cities] = 0;
+        }
+
+        population.size = populationSize;
+        new SequentialEvaluator().evaluate(distances, population.genes, population.genesLength,
+                population.lengths, 0, populationSize);
+        return population;
+    }
+}
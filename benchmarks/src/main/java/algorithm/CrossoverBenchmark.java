@@ -0,0 +1,65 @@
+package algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One descendant of every crossover strategy from random parents, time per descendant
+ * Quality per CPU-second depends on the whole run, eg. solver with fixed seed and time limit
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossoverBenchmark {
+
+    private static final int PARENTS = 64;
+
+    @Param({"1000", "10000"})
+    public int cities;
+
+    @Param({"ONE_POINT", "ORDER", "PARTIALLY_MAPPED", "EDGE_RECOMBINATION", "EDGE_ASSEMBLY"})
+    public CrossoverStrategy strategy;
+
+    private DistanceProvider distances;
+    private CandidateNeighbours neighbours;
+    private Population parents;
+    private Population descendants;
+    private CrossoverScratch scratch;
+    private RandomSource random;
+    private int individual;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        random = new Xoshiro256(BenchmarkInstances.SEED);
+        CoordinateDistances points = BenchmarkInstances.randomPoints(cities);
+        distances = points;
+        neighbours = CandidateNeighbours.nearest(points, 8, 0);
+        parents = BenchmarkInstances.randomPopulation(distances, PARENTS, random);
+        descendants = new Population(1, cities + 1);
+        scratch = new CrossoverScratch();
+    }
+
+    @Benchmark
+    public int[] cross(){
+        individual = (individual + 1) % PARENTS;
+        int second = (individual + 1) % PARENTS;
+        Crossover.cross(strategy, distances, neighbours, parents.genes, parents.offset(individual),
+                parents.offset(second), descendants.genes, 0, parents.genesLength, scratch, random);
+        return descendants.genes;
+    }
+}
@@ -0,0 +1,67 @@
+package algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole generation and its selection step on solver with fixed-seed instance
+ * nextGeneration       - breed, mutation, evaluation and selection
+ * selection            - roulette selection of descendants of the last generation
+ * getIndividualByBound - binary search of the roulette bounds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int cities;
+
+    @Param({"100", "1000"})
+    public int populationSize;
+
+    private TSPSolver solver;
+    private RandomSource random;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        random = new Xoshiro256(BenchmarkInstances.SEED);
+        solver = new TSPSolver(BenchmarkInstances.randomPoints(cities), 0, populationSize, 0, 0.5, 0.1);
+        solver.setEvaluator(new SequentialEvaluator());
+        solver.setSeed(BenchmarkInstances.SEED);
+        // inits solver and leaves descendants of one generation for selection benchmarks
+        solver.evolve(1, IslandModel.NO_DEADLINE, null);
+    }
+
+    @Benchmark
+    public TSPSolver nextGeneration(){
+        solver.nextGeneration();
+        return solver;
+    }
+
+    @Benchmark
+    public TSPSolver selection(){
+        solver.selection();
+        return solver;
+    }
+
+    @Benchmark
+    public int getIndividualByBound(){
+        return solver.getIndividualByBound(random.nextDouble());
+    }
+}
@@ -0,0 +1,95 @@
+package algorithm;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single genetic operators on flat population arrays
+ * mutate       - swap of two genes with O(1) length delta
+ * breed        - crossover of two parents into descendant slot
+ * routeLength  - full route length of one individual
+ * evaluate*    - lengths of the whole population, sequentially and with fork/join
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int cities;
+
+    @Param({"100", "1000"})
+    public int populationSize;
+
+    private DistanceProvider distances;
+    private Population population;
+    private Population descendants;
+    private boolean[] visited;
+    private RandomSource random;
+    private FitnessEvaluator sequentialEvaluator;
+    private FitnessEvaluator forkJoinEvaluator;
+    private int individual;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        random = new Xoshiro256(BenchmarkInstances.SEED);
+        distances = BenchmarkInstances.randomPoints(cities);
+        population = BenchmarkInstances.randomPopulation(distances, populationSize, random);
+        descendants = new Population(populationSize, cities + 1);
+        visited = new boolean[cities + 1];
+        sequentialEvaluator = new SequentialEvaluator();
+        forkJoinEvaluator = new ForkJoinEvaluator();
+    }
+
+    @Benchmark
+    public double mutate(){
+        individual = (individual + 1) % populationSize;
+        return GeneticOperators.mutate(population.genes, population.offset(individual), population.genesLength,
+                distances, random);
+    }
+
+    @Benchmark
+    public int[] breed(){
+        individual = (individual + 1) % populationSize;
+        int second = (individual + 1) % populationSize;
+        GeneticOperators.breed(population.genes, population.offset(individual), population.offset(second),
+                descendants.genes, descendants.offset(individual), population.genesLength, visited, random);
+        return descendants.genes;
+    }
+
+    @Benchmark
+    public double routeLength(){
+        individual = (individual + 1) % populationSize;
+        return FitnessEvaluator.routeLength(distances, population.genes, population.offset(individual),
+                population.genesLength);
+    }
+
+    @Benchmark
+    public double[] evaluateSequential(){
+        sequentialEvaluator.evaluate(distances, population.genes, population.genesLength, population.lengths,
+                0, populationSize);
+        return population.lengths;
+    }
+
+    @Benchmark
+    public double[] evaluateForkJoin(){
+        forkJoinEvaluator.evaluate(distances, population.genes, population.genesLength, population.lengths,
+                0, populationSize);
+        return population.lengths;
+    }
+}
@@ -0,0 +1,106 @@
+package algorithm;
+
+import java.util.function.Consumer;
+
+/**
+ * One instance solved by BatchSolver with its parameters and time budget
+ * Defaults: population 100, crossing pick probability 0.5, mutation pick probability 0.1, time budget 1000 ms
+ */
+public class BatchJob {
+
+    private final DistanceProvider distances;
+    private final int startIndex;
+    private int populationSize = 100;
+    private double crossingPickProbability = 0.5;
+    private double mutationPickProbability = 0.1;
+    private int timeBudget = 1000;
+    private StopCriterion stopCriterion;
+    private Consumer<TSPSolver> configuration;
+
+    public BatchJob(double[][] distances, int startIndex) {
+        this(new MatrixDistances(distances), startIndex);
+    }
+
+    public BatchJob(DistanceProvider distances, int startIndex) {
+        if(distances == null){
+            throw new IllegalArgumentException("Distances can't be null");
+        }
+        if(startIndex < 0 || startIndex > distances.size() - 1){
+            throw new IllegalArgumentException("Start index is out of bounds");
+        }
+
+        this.distances = distances;
+        this.startIndex = startIndex;
+    }
+
+    public void setPopulationSize(int populationSize) {
+        if(populationSize < 1){
+            throw new IllegalArgumentException("Population size has to be positive");
+        }
+        this.populationSize = populationSize;
+    }
+
+    public void setCrossingPickProbability(double crossingPickProbability) {
+        this.crossingPickProbability = crossingPickProbability;
+    }
+
+    public void setMutationPickProbability(double mutationPickProbability) {
+        this.mutationPickProbability = mutationPickProbability;
+    }
+
+    /**
+     * Sets max time of the job in milliseconds, it applies also when stop criterion is set
+     */
+    public void setTimeBudget(int timeBudget) {
+        if(timeBudget < 0){
+            throw new IllegalArgumentException("Time budget can't be negative");
+        }
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Sets criterion which can end the job before its time budget, every job needs its own instance
+     */
+    public void setStopCriterion(StopCriterion stopCriterion) {
+        this.stopCriterion = stopCriterion;
+    }
+
+    /**
+     * Sets action applied to solver before run, eg. to set local search or seeding
+     */
+    public void setConfiguration(Consumer<TSPSolver> configuration) {
+        this.configuration = configuration;
+    }
+
+    public DistanceProvider getDistances() {
+        return distances;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public double getCrossingPickProbability() {
+        return crossingPickProbability;
+    }
+
+    public double getMutationPickProbability() {
+        return mutationPickProbability;
+    }
+
+    public int getTimeBudget() {
+        return timeBudget;
+    }
+
+    public StopCriterion getStopCriterion() {
+        return stopCriterion;
+    }
+
+    public Consumer<TSPSolver> getConfiguration() {
+        return configuration;
+    }
+}
@@ -0,0 +1,37 @@
+package algorithm;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of all jobs of one BatchSolver.solveAll() call, in order of jobs
+ */
+public class BatchReport {
+
+    private final List<BatchResult> results;
+    private final long elapsedTime;
+
+    BatchReport(List<BatchResult> results, long elapsedTime) {
+        this.results = Collections.unmodifiableList(results);
+        this.elapsedTime = elapsedTime;
+    }
+
+    public List<BatchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @return time of the whole batch in nanoseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    public double getInstancesPerSecond() {
+        return (elapsedTime == 0) ? 0.0 : results.size() * 1e9 / elapsedTime;
+    }
+
+    public long getFailedCount() {
+        return results.stream().filter(result -> !result.isSuccessful()).count();
+    }
+}
@@ -0,0 +1,64 @@
+package algorithm;
+
+/**
+ * Result of one BatchJob, contains error instead of individual if the job failed
+ */
+public class BatchResult {
+
+    private final int index;
+    private final BatchJob job;
+    private final Individual bestIndividual;
+    private final long generations;
+    private final long elapsedTime;
+    private final RuntimeException error;
+
+    BatchResult(int index, BatchJob job, Individual bestIndividual, long generations, long elapsedTime,
+                RuntimeException error) {
+        this.index = index;
+        this.job = job;
+        this.bestIndividual = bestIndividual;
+        this.generations = generations;
+        this.elapsedTime = elapsedTime;
+        this.error = error;
+    }
+
+    /**
+     * @return position of the job in solved list, -1 for submitted job
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    /**
+     * @return the best individual, null if the job failed
+     */
+    public Individual getBestIndividual() {
+        return bestIndividual;
+    }
+
+    public long getGenerations() {
+        return generations;
+    }
+
+    /**
+     * @return time of the job in nanoseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @return error thrown by the job, null if it succeeded
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,148 @@
+package algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves many instances on shared ForkJoinPool
+ * Jobs are split in halves till single jobs, so idle workers steal the rest of the batch from busy ones
+ * Every job runs sequentially on one worker and reuses populations of the previous job of that worker
+ */
+public class BatchSolver implements AutoCloseable {
+
+    private static final FitnessEvaluator SEQUENTIAL_EVALUATOR = new SequentialEvaluator();
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<SolverScratch> scratches = ThreadLocal.withInitial(SolverScratch::new);
+    private final LongAdder solvedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism max amount of jobs solved at once
+     */
+    public BatchSolver(int parallelism) {
+        if(parallelism < 1){
+            throw new IllegalArgumentException("Parallelism has to be positive");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Solves all jobs and waits for them
+     * @return results in order of jobs with throughput of the batch
+     */
+    public BatchReport solveAll(List<BatchJob> jobs) {
+        long start = System.nanoTime();
+        BatchResult[] results = new BatchResult[jobs.size()];
+
+        if(!jobs.isEmpty()){
+            pool.invoke(new BatchTask(jobs, results, 0, jobs.size()));
+        }
+
+        return new BatchReport(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    /**
+     * Schedules single job, useful for jobs coming one by one
+     */
+    public CompletableFuture<BatchResult> submit(BatchJob job) {
+        return CompletableFuture.supplyAsync(() -> solve(-1, job), pool);
+    }
+
+    public long getSolvedCount() {
+        return solvedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stops accepting jobs, already scheduled jobs are finished
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private BatchResult solve(int index, BatchJob job){
+        long start = System.nanoTime();
+        SolverScratch scratch = scratches.get();
+        // worker waiting for a parallel stream can run other job meanwhile, it gets its own buffers
+        boolean ownScratch = !scratch.inUse;
+        if(ownScratch){
+            scratch.inUse = true;
+        }else{
+            scratch = new SolverScratch();
+        }
+
+        try{
+            TSPSolver solver = new TSPSolver(job.getDistances(), job.getStartIndex(), job.getPopulationSize(),
+                    job.getTimeBudget(), job.getCrossingPickProbability(), job.getMutationPickProbability());
+            // jobs are solved in parallel, so every job evaluates sequentially
+            solver.setEvaluator(SEQUENTIAL_EVALUATOR);
+            solver.setScratch(scratch);
+            if(job.getStopCriterion() != null){
+                solver.setStopCriterion(job.getStopCriterion().or(StopCriterion.timeLimit(job.getTimeBudget())));
+            }
+            if(job.getConfiguration() != null){
+                job.getConfiguration().accept(solver);
+            }
+
+            solver.run();
+            solvedCount.increment();
+            return new BatchResult(index, job, solver.getBestIndividual(), solver.getProgress().getGeneration(),
+                    System.nanoTime() - start, null);
+        }catch (RuntimeException e){
+            failedCount.increment();
+            return new BatchResult(index, job, null, 0, System.nanoTime() - start, e);
+        }finally {
+            if(ownScratch){
+                scratch.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * Splits range of jobs in halves, single job is solved
+     */
+    private class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<BatchJob> jobs;
+        private final BatchResult[] results;
+        private final int from;
+        private final int to;
+
+        BatchTask(List<BatchJob> jobs, BatchResult[] results, int from, int to) {
+            this.jobs = jobs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1){
+                results[from] = solve(from, jobs.get(from));
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(jobs, results, from, middle), new BatchTask(jobs, results, middle, to));
+        }
+    }
+}
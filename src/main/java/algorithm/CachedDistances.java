@@ -0,0 +1,62 @@
+package algorithm;
+
+/**
+ * Keeps precomputed distances of hot edges, eg. edges to candidate neighbours of every point
+ * Other distances are read from the wrapped provider
+ * Useful when computing distance is expensive, cache takes points * neighbours doubles
+ */
+public class CachedDistances implements DistanceProvider {
+
+    private final DistanceProvider distances;
+    private final int[] neighbours;
+    private final int neighboursCount;
+    private final double[] cache;
+
+    public CachedDistances(DistanceProvider distances, CandidateNeighbours neighbours) {
+        this(distances, neighbours.getNeighbours(), neighbours.getCount());
+    }
+
+    /**
+     * @param distances wrapped provider
+     * @param neighbours flat array, neighbours of point i are stored in
+     *                   [i * neighboursCount, (i + 1) * neighboursCount)
+     * @param neighboursCount amount of neighbours of every point
+     */
+    public CachedDistances(DistanceProvider distances, int[] neighbours, int neighboursCount) {
+        if(neighbours.length != distances.size() * neighboursCount){
+            throw new IllegalArgumentException("Incorrect data size");
+        }
+
+        this.distances = distances;
+        this.neighbours = neighbours;
+        this.neighboursCount = neighboursCount;
+
+        cache = new double[neighbours.length];
+        for(int i = 0; i < neighbours.length; i++){
+            cache[i] = distances.distance(i / neighboursCount, neighbours[i]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return distances.size();
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return distances.isSymmetric();
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        int offset = from * neighboursCount;
+
+        for(int i = offset; i < offset + neighboursCount; i++){
+            if(neighbours[i] == to){
+                return cache[i];
+            }
+        }
+
+        return distances.distance(from, to);
+    }
+}
@@ -0,0 +1,108 @@
+package algorithm;
+
+import java.util.stream.IntStream;
+
+/**
+ * Lists of the nearest points of every point, sorted from the nearest one
+ * Stored in one flat array, neighbours of point i are in [i * count, (i + 1) * count)
+ */
+public class CandidateNeighbours {
+
+    private final int[] neighbours;
+    private final int count;
+
+    /**
+     * @param neighbours flat array of neighbours
+     * @param count amount of neighbours of every point
+     */
+    public CandidateNeighbours(int[] neighbours, int count) {
+        if(count < 1 || neighbours.length % count != 0){
+            throw new IllegalArgumentException("Incorrect data size");
+        }
+
+        this.neighbours = neighbours;
+        this.count = count;
+    }
+
+    /**
+     * Finds neighbours of every point with KdTree in O(n log n), used for instances with coordinates
+     * GEO coordinates are latitude and longitude, their planar distance isn't in order of GEO distance,
+     * so they are checked by all distances
+     * @param quadrantCount amount of the nearest neighbours taken from every quadrant around point first,
+     *                      helps with clustered points, 0 = only the nearest points, ignored for GEO
+     */
+    public static CandidateNeighbours nearest(CoordinateDistances coordinates, int count, int quadrantCount){
+        if(coordinates.getMetric() == CoordinateDistances.Metric.GEO){
+            return nearest((DistanceProvider) coordinates, count);
+        }
+        return new KdTree(coordinates).candidateNeighbours(count, quadrantCount);
+    }
+
+    /**
+     * Finds count nearest points of every point by checking all distances, O(n^2)
+     * Points are processed in parallel
+     */
+    public static CandidateNeighbours nearest(DistanceProvider distances, int count){
+        int size = distances.size();
+        count = Math.min(count, size - 1);
+        int[] neighbours = new int[size * count];
+        int neighboursCount = count;
+
+        IntStream.range(0, size).parallel().forEach(point -> {
+            double[] nearestDistances = new double[neighboursCount];
+            int offset = point * neighboursCount;
+            int found = 0;
+
+            for(int other = 0; other < size; other++){
+                if(other == point){
+                    continue;
+                }
+
+                double distance = distances.distance(point, other);
+                if(found == neighboursCount && distance >= nearestDistances[found - 1]){
+                    continue;
+                }
+
+                // insertion into sorted list
+                int i = (found == neighboursCount) ? found - 1 : found++;
+                while(i > 0 && nearestDistances[i - 1] > distance){
+                    nearestDistances[i] = nearestDistances[i - 1];
+                    neighbours[offset + i] = neighbours[offset + i - 1];
+                    i--;
+                }
+                nearestDistances[i] = distance;
+                neighbours[offset + i] = other;
+            }
+        });
+
+        return new CandidateNeighbours(neighbours, neighboursCount);
+    }
+
+    /**
+     * @return i-th nearest neighbour of point
+     */
+    public int get(int point, int i) {
+        return neighbours[point * count + i];
+    }
+
+    /**
+     * @return amount of neighbours of every point
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return amount of points
+     */
+    public int size() {
+        return neighbours.length / count;
+    }
+
+    /**
+     * @return flat array of neighbours, it shouldn't be modified
+     */
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+}
@@ -0,0 +1,442 @@
+package algorithm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Snapshot of solver state: parameters, population, the best individual and random generator
+ *
+ * File format, big endian:
+ * int magic "TSPC", int version, int cities, int population capacity, int population size, int start index,
+ * double crossing and mutation pick probability, double best length, int length and bytes of serialized RandomSource,
+ * int bytes per gene, the best route packed without the closing start gene, population lengths,
+ * int amount of blocks and blocks of individuals
+ *
+ * Individual is stored as difference from the best route: cities which successor is different and their successors,
+ * routes of converged population differ from the best one by a few edges, so they take a few bytes.
+ * Individual which difference would be bigger is stored as packed successors of all cities.
+ * Blocks of individuals are encoded and decoded in parallel
+ */
+final class Checkpoint {
+
+    private static final int MAGIC = 0x54535043;
+    private static final int VERSION = 3;
+    // version 2 has no individuals stored as packed successors
+    private static final int MIN_VERSION = 2;
+    // amount of differences of individual stored as packed successors
+    private static final int PACKED = -1;
+    // bytes of header till length of serialized RandomSource including it
+    private static final int HEADER_BYTES = 52;
+    // the biggest possible size of block of individuals
+    private static final int BLOCK_BYTES = 4 << 20;
+
+    int cities;
+    int capacity;
+    int size;
+    int startIndex;
+    double crossingPickProbability;
+    double mutationPickProbability;
+    double bestLength;
+    byte[] random;
+    int[] bestGenes;
+    // flat genes of population, genesLength = cities + 1
+    int[] genes;
+    double[] lengths;
+
+    /**
+     * Copies solver state, reuses arrays of the previous capture
+     */
+    void capture(Population population, int[] bestGenes, double bestLength, RandomSource random, int startIndex,
+                 double crossingPickProbability, double mutationPickProbability){
+        int genesCount = population.size * population.genesLength;
+
+        cities = population.genesLength - 1;
+        capacity = population.capacity;
+        size = population.size;
+        this.startIndex = startIndex;
+        this.crossingPickProbability = crossingPickProbability;
+        this.mutationPickProbability = mutationPickProbability;
+        this.bestLength = bestLength;
+        this.random = serialize(random);
+
+        if(this.bestGenes == null || this.bestGenes.length != bestGenes.length){
+            this.bestGenes = new int[bestGenes.length];
+        }
+        if(genes == null || genes.length < genesCount){
+            genes = new int[genesCount];
+        }
+        if(lengths == null || lengths.length < size){
+            lengths = new double[size];
+        }
+
+        System.arraycopy(bestGenes, 0, this.bestGenes, 0, bestGenes.length);
+        System.arraycopy(population.genes, 0, genes, 0, genesCount);
+        System.arraycopy(population.lengths, 0, lengths, 0, size);
+    }
+
+    /**
+     * Copies population from snapshot
+     */
+    void restore(Population population){
+        System.arraycopy(genes, 0, population.genes, 0, size * population.genesLength);
+        System.arraycopy(lengths, 0, population.lengths, 0, size);
+        population.size = size;
+    }
+
+    RandomSource getRandom() throws IOException {
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(random))){
+            return (RandomSource) input.readObject();
+        }catch (ClassNotFoundException | ClassCastException e){
+            throw new IOException("Unknown random generator in checkpoint", e);
+        }
+    }
+
+    /**
+     * Writes snapshot to temporary file and moves it to path atomically,
+     * so path always contains complete checkpoint
+     */
+    void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        try{
+            try(OutputStream file = Files.newOutputStream(temp);
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))){
+                writeTo(output);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeTo(DataOutputStream output) throws IOException {
+        int bytesPerGene = bytesPerGene(cities);
+        int genesLength = cities + 1;
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(cities);
+        output.writeInt(capacity);
+        output.writeInt(size);
+        output.writeInt(startIndex);
+        output.writeDouble(crossingPickProbability);
+        output.writeDouble(mutationPickProbability);
+        output.writeDouble(bestLength);
+        output.writeInt(random.length);
+        output.write(random);
+        output.writeInt(bytesPerGene);
+
+        byte[] packedBest = new byte[cities * bytesPerGene];
+        for(int i = 0; i < cities; i++){
+            pack(packedBest, i * bytesPerGene, bytesPerGene, bestGenes[i]);
+        }
+        output.write(packedBest);
+
+        for(int i = 0; i < size; i++){
+            output.writeDouble(lengths[i]);
+        }
+
+        int[] bestSuccessors = successors(bestGenes, 0, cities);
+        int blockIndividuals = Math.max(1, BLOCK_BYTES / maxEncodedLength(cities, bytesPerGene));
+        int blockCount = (size + blockIndividuals - 1) / blockIndividuals;
+
+        byte[][] blocks = IntStream.range(0, blockCount).parallel()
+                .mapToObj(block -> encodeBlock(block * blockIndividuals,
+                        Math.min(size, (block + 1) * blockIndividuals), genesLength, bytesPerGene, bestSuccessors))
+                .toArray(byte[][]::new);
+
+        output.writeInt(blockCount);
+        for(int block = 0; block < blockCount; block++){
+            int individuals = Math.min(size, (block + 1) * blockIndividuals) - block * blockIndividuals;
+            output.writeInt(individuals);
+            output.writeInt(blocks[block].length);
+            output.write(blocks[block]);
+        }
+    }
+
+    /**
+     * Encodes individuals as int amount of differences and for every city with successor different
+     * than in the best route: varint gap from previous such city and packed successor,
+     * or as PACKED and packed successors of all cities when it's shorter
+     */
+    private byte[] encodeBlock(int from, int to, int genesLength, int bytesPerGene, int[] bestSuccessors){
+        byte[] bytes = new byte[(to - from) * maxEncodedLength(cities, bytesPerGene)];
+        int[] successors = new int[cities];
+        int position = 0;
+
+        for(int i = from; i < to; i++){
+            successors(genes, i * genesLength, cities, successors);
+
+            // amount of differences is written when it's known
+            int countPosition = position;
+            position += 4;
+            int differences = 0;
+            int previous = 0;
+            for(int city = 0; city < cities; city++){
+                if(successors[city] != bestSuccessors[city]){
+                    position = writeVarInt(bytes, position, city - previous);
+                    pack(bytes, position, bytesPerGene, successors[city]);
+                    position += bytesPerGene;
+                    previous = city;
+                    differences++;
+                }
+            }
+
+            if(position - countPosition - 4 > cities * bytesPerGene){
+                position = countPosition + 4;
+                differences = PACKED;
+                for(int city = 0; city < cities; city++){
+                    pack(bytes, position, bytesPerGene, successors[city]);
+                    position += bytesPerGene;
+                }
+            }
+            pack(bytes, countPosition, 4, differences);
+        }
+
+        return Arrays.copyOf(bytes, position);
+    }
+
+    /**
+     * Reads checkpoint written by write()
+     * throws IOException if file isn't a checkpoint or is corrupted
+     */
+    static Checkpoint read(Path path) throws IOException {
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))){
+            return readFrom(input, Files.size(path));
+        }
+    }
+
+    /**
+     * Lengths of arrays are checked against remaining bytes of the file before allocation
+     */
+    private static Checkpoint readFrom(DataInputStream input, long fileSize) throws IOException {
+        if(input.readInt() != MAGIC){
+            throw new IOException("Not a solver checkpoint");
+        }
+        int version = input.readInt();
+        if(version < MIN_VERSION || version > VERSION){
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.cities = input.readInt();
+        checkpoint.capacity = input.readInt();
+        checkpoint.size = input.readInt();
+        checkpoint.startIndex = input.readInt();
+        checkpoint.crossingPickProbability = input.readDouble();
+        checkpoint.mutationPickProbability = input.readDouble();
+        checkpoint.bestLength = input.readDouble();
+        long remaining = fileSize - HEADER_BYTES;
+        checkpoint.random = new byte[readLength(input, remaining)];
+        input.readFully(checkpoint.random);
+        remaining -= checkpoint.random.length + 4L;
+
+        int cities = checkpoint.cities;
+        int genesLength = cities + 1;
+        int bytesPerGene = input.readInt();
+        // every individual takes at least 4 bytes, genes of population have to fit into one array
+        if(cities < 1 || checkpoint.size < 0 || checkpoint.size > checkpoint.capacity
+                || bytesPerGene != bytesPerGene(cities)
+                || (long) cities * bytesPerGene + checkpoint.size * 12L > remaining
+                || (long) checkpoint.size * genesLength > Integer.MAX_VALUE - 8){
+            throw new IOException("Corrupted checkpoint header");
+        }
+
+        byte[] packedBest = new byte[cities * bytesPerGene];
+        input.readFully(packedBest);
+        remaining -= packedBest.length;
+        checkpoint.bestGenes = new int[genesLength];
+        boolean[] visited = new boolean[cities];
+        for(int i = 0; i < cities; i++){
+            int city = unpack(packedBest, i * bytesPerGene, bytesPerGene);
+            if(city < 0 || city >= cities || visited[city]){
+                throw new IOException("Corrupted route in checkpoint");
+            }
+            visited[city] = true;
+            checkpoint.bestGenes[i] = city;
+        }
+        checkpoint.bestGenes[cities] = checkpoint.bestGenes[0];
+        int[] bestSuccessors = successors(checkpoint.bestGenes, 0, cities);
+
+        checkpoint.lengths = new double[checkpoint.size];
+        for(int i = 0; i < checkpoint.size; i++){
+            checkpoint.lengths[i] = input.readDouble();
+        }
+        remaining -= checkpoint.size * 8L + 4;
+
+        int blockCount = readLength(input, remaining / 8);
+        int[] blockStarts = new int[blockCount + 1];
+        byte[][] blocks = new byte[blockCount][];
+        for(int block = 0; block < blockCount; block++){
+            blockStarts[block + 1] = blockStarts[block] + readLength(input, checkpoint.size - blockStarts[block]);
+            remaining -= 8;
+            blocks[block] = new byte[readLength(input, remaining)];
+            input.readFully(blocks[block]);
+            remaining -= blocks[block].length;
+        }
+        if(blockStarts[blockCount] != checkpoint.size){
+            throw new IOException("Corrupted checkpoint blocks");
+        }
+
+        checkpoint.genes = new int[checkpoint.size * genesLength];
+        try{
+            IntStream.range(0, blockCount).parallel().forEach(block ->
+                    checkpoint.decodeBlock(blocks[block], blockStarts[block], blockStarts[block + 1],
+                            bytesPerGene, bestSuccessors));
+        }catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+
+        return checkpoint;
+    }
+
+    private void decodeBlock(byte[] block, int from, int to, int bytesPerGene, int[] bestSuccessors){
+        int genesLength = cities + 1;
+        int start = bestGenes[0];
+        int[] successors = new int[cities];
+        boolean[] visited = new boolean[cities];
+        int[] position = new int[1];
+
+        try{
+            for(int i = from; i < to; i++){
+                System.arraycopy(bestSuccessors, 0, successors, 0, cities);
+
+                int differences = unpack(block, position[0], 4);
+                position[0] += 4;
+                if(differences < PACKED || differences > cities){
+                    throw new UncheckedIOException(new IOException("Corrupted checkpoint block"));
+                }
+                int city = 0;
+                if(differences == PACKED){
+                    for(city = 0; city < cities; city++){
+                        successors[city] = unpack(block, position[0], bytesPerGene);
+                        position[0] += bytesPerGene;
+                    }
+                }
+                for(int k = 0; k < differences; k++){
+                    city += readVarInt(block, position);
+                    successors[city] = unpack(block, position[0], bytesPerGene);
+                    position[0] += bytesPerGene;
+                }
+
+                int offset = i * genesLength;
+                Arrays.fill(visited, false);
+                city = start;
+                for(int j = 0; j < cities; j++){
+                    if(city < 0 || city >= cities || visited[city]){
+                        throw new UncheckedIOException(new IOException("Corrupted route in checkpoint"));
+                    }
+                    visited[city] = true;
+                    genes[offset + j] = city;
+                    city = successors[city];
+                }
+                genes[offset + cities] = start;
+            }
+        }catch (ArrayIndexOutOfBoundsException e){
+            throw new UncheckedIOException(new IOException("Corrupted checkpoint block", e));
+        }
+    }
+
+    /**
+     * throws IOException if length is negative or bigger than max
+     */
+    private static int readLength(DataInputStream input, long max) throws IOException {
+        int length = input.readInt();
+        if(length < 0 || length > max){
+            throw new IOException("Corrupted checkpoint length " + length);
+        }
+        return length;
+    }
+
+    private static int maxEncodedLength(int cities, int bytesPerGene){
+        return 4 + cities * (5 + bytesPerGene);
+    }
+
+    private static int writeVarInt(byte[] bytes, int position, int value){
+        while((value & ~0x7F) != 0){
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position){
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7){
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if(b >= 0){
+                return value;
+            }
+        }
+        throw new ArrayIndexOutOfBoundsException("Too long varint");
+    }
+
+    /**
+     * @return successor of every city in route
+     */
+    private static int[] successors(int[] genes, int offset, int cities){
+        int[] successors = new int[cities];
+        successors(genes, offset, cities, successors);
+        return successors;
+    }
+
+    private static void successors(int[] genes, int offset, int cities, int[] successors){
+        for(int i = 0; i < cities; i++){
+            successors[genes[offset + i]] = genes[offset + i + 1];
+        }
+    }
+
+    private static int bytesPerGene(int cities){
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, cities - 1));
+        return (bits + 7) / 8;
+    }
+
+    private static void pack(byte[] bytes, int position, int bytesPerGene, int value){
+        for(int i = 0; i < bytesPerGene; i++){
+            bytes[position + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static int unpack(byte[] bytes, int position, int bytesPerGene){
+        int value = 0;
+        for(int i = 0; i < bytesPerGene; i++){
+            value |= (bytes[position + i] & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * throws IllegalStateException() if random source isn't Serializable
+     */
+    private static byte[] serialize(RandomSource random){
+        if(!(random instanceof Serializable)){
+            throw new IllegalStateException("Random source " + random.getClass().getName() + " isn't Serializable");
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try(ObjectOutputStream output = new ObjectOutputStream(bytes)){
+            output.writeObject(random);
+        }catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package algorithm;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes checkpoints of solver on background thread
+ * Solver thread only copies its state, encoding, compression and file writing run in the background,
+ * checkpoint is skipped if the previous one is still being written
+ */
+final class CheckpointWriter {
+
+    private final Path path;
+    private final Checkpoint checkpoint = new Checkpoint();
+    private Thread writer;
+    private volatile IOException error;
+
+    CheckpointWriter(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    boolean isBusy() {
+        return writer != null && writer.isAlive();
+    }
+
+    /**
+     * Copies state and starts writing it
+     * @return false if the previous checkpoint is still being written
+     */
+    boolean write(Population population, int[] bestGenes, double bestLength, RandomSource random, int startIndex,
+                  double crossingPickProbability, double mutationPickProbability){
+        if(isBusy()){
+            return false;
+        }
+
+        checkpoint.capture(population, bestGenes, bestLength, random, startIndex,
+                crossingPickProbability, mutationPickProbability);
+
+        writer = new Thread(() -> {
+            try{
+                checkpoint.write(path);
+                error = null;
+            }catch (IOException e){
+                error = e;
+            }
+        }, "tsp-checkpoint");
+        writer.setDaemon(true);
+        writer.start();
+        return true;
+    }
+
+    /**
+     * Waits till the current checkpoint is written
+     */
+    void await() {
+        if(writer == null){
+            return;
+        }
+
+        try{
+            writer.join();
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return error of the last write, null if it succeeded
+     */
+    IOException getError() {
+        return error;
+    }
+}
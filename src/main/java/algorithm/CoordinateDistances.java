@@ -0,0 +1,130 @@
+package algorithm;
+
+/**
+ * Distances computed on demand from point coordinates
+ * Memory grows with amount of points, not with its square like distances matrix
+ */
+public class CoordinateDistances implements DistanceProvider {
+
+    private static final double EARTH_RADIUS = 6378.388;
+    private static final double PI = 3.141592;
+
+    /**
+     * EUCLIDEAN - exact euclidean distance
+     * EUC_2D, CEIL_2D, ATT, GEO - distances defined by TSPLIB
+     */
+    public enum Metric {
+        EUCLIDEAN,
+        EUC_2D,
+        CEIL_2D,
+        ATT,
+        GEO
+    }
+
+    private final double[] x;
+    private final double[] y;
+    private final Metric metric;
+    // latitude and longitude in radians, used only by GEO metric
+    private final double[] latitude;
+    private final double[] longitude;
+
+    /**
+     * @param x x coordinate of every point
+     * @param y y coordinate of every point
+     */
+    public CoordinateDistances(double[] x, double[] y) {
+        this(x, y, Metric.EUCLIDEAN);
+    }
+
+    /**
+     * @param x x coordinate of every point, latitude for GEO metric
+     * @param y y coordinate of every point, longitude for GEO metric
+     * @param metric function of distance
+     */
+    public CoordinateDistances(double[] x, double[] y, Metric metric) {
+        if(x.length != y.length){
+            throw new IllegalArgumentException("Incorrect data size");
+        }
+
+        this.x = x;
+        this.y = y;
+        this.metric = metric;
+
+        if(metric == Metric.GEO){
+            latitude = new double[x.length];
+            longitude = new double[y.length];
+            for(int i = 0; i < x.length; i++){
+                latitude[i] = toRadians(x[i]);
+                longitude[i] = toRadians(y[i]);
+            }
+        }else{
+            latitude = null;
+            longitude = null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return x.length;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        double dx = x[to] - x[from];
+        double dy = y[to] - y[from];
+
+        switch (metric){
+            case EUC_2D:
+                return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+            case CEIL_2D:
+                return Math.ceil(Math.sqrt(dx * dx + dy * dy));
+            case ATT:
+                double distance = Math.sqrt((dx * dx + dy * dy) / 10.0);
+                int roundedDistance = (int) (distance + 0.5);
+                return (roundedDistance < distance) ? roundedDistance + 1 : roundedDistance;
+            case GEO:
+                return geoDistance(from, to);
+            default:
+                return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return true;
+    }
+
+    private double geoDistance(int from, int to){
+        if(from == to){
+            return 0.0;
+        }
+
+        double q1 = Math.cos(longitude[from] - longitude[to]);
+        double q2 = Math.cos(latitude[from] - latitude[to]);
+        double q3 = Math.cos(latitude[from] + latitude[to]);
+
+        return (int) (EARTH_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+    }
+
+    /**
+     * TSPLIB GEO coordinates are DDD.MM - degrees and minutes
+     */
+    private static double toRadians(double coordinate){
+        int degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    public double getX(int point) {
+        return x[point];
+    }
+
+    public double getY(int point) {
+        return y[point];
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+}
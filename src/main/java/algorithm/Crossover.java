@@ -0,0 +1,622 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Crossover operators of CrossoverStrategy working on flat gene arrays
+ * Both parents start and end with the start point, descendant keeps it on the first and the last position
+ * Operators use only buffers of CrossoverScratch and don't allocate memory
+ */
+final class Crossover {
+
+    // EAX and ERX need at least that many points, smaller routes use order crossover
+    private static final int MIN_EDGE_CITIES = 5;
+
+    private Crossover() { }
+
+    /**
+     * Writes descendant of first and second parent to newGenes from newOffset
+     * @param neighbours candidate neighbours used by edge based strategies, can be null
+     */
+    static void cross(CrossoverStrategy strategy, DistanceProvider distances, CandidateNeighbours neighbours,
+                      int[] genes, int firstOffset, int secondOffset, int[] newGenes, int newOffset, int genesLength,
+                      CrossoverScratch scratch, RandomSource random){
+        int cities = genesLength - 1;
+        if(cities < 3){
+            System.arraycopy(genes, firstOffset, newGenes, newOffset, genesLength);
+            return;
+        }
+
+        switch (strategy){
+            case ORDER:
+                order(genes, firstOffset, secondOffset, newGenes, newOffset, genesLength, scratch, random);
+                break;
+            case PARTIALLY_MAPPED:
+                partiallyMapped(genes, firstOffset, secondOffset, newGenes, newOffset, genesLength, scratch, random);
+                break;
+            case EDGE_RECOMBINATION:
+                if(cities < MIN_EDGE_CITIES){
+                    order(genes, firstOffset, secondOffset, newGenes, newOffset, genesLength, scratch, random);
+                    break;
+                }
+                edgeRecombination(distances, neighbours, genes, firstOffset, secondOffset, newGenes, newOffset,
+                        genesLength, scratch, random);
+                break;
+            case EDGE_ASSEMBLY:
+                if(cities < MIN_EDGE_CITIES){
+                    order(genes, firstOffset, secondOffset, newGenes, newOffset, genesLength, scratch, random);
+                    break;
+                }
+                edgeAssembly(distances, neighbours, genes, firstOffset, secondOffset, newGenes, newOffset,
+                        genesLength, scratch, random);
+                break;
+            default:
+                scratch.prepareVisited(genesLength);
+                GeneticOperators.breed(genes, firstOffset, secondOffset, newGenes, newOffset, genesLength,
+                        scratch.visited, random);
+        }
+    }
+
+    /**
+     * OX:
+     *   segment: positions 2 - 3
+     *   first parent:   0 1 |2 3| 4 5 0
+     *   second parent:  0 4 |3 5| 1 2 0
+     *   descendant:     0 5 |2 3| 1 4 0  <- 1 4 5 taken from the second parent after the segment
+     */
+    static void order(int[] genes, int firstOffset, int secondOffset, int[] newGenes, int newOffset, int genesLength,
+                      CrossoverScratch scratch, RandomSource random){
+        int cities = genesLength - 1;
+        scratch.prepareVisited(genesLength);
+        boolean[] visited = scratch.visited;
+
+        int from = random.nextInt(cities - 1) + 1;
+        int to = random.nextInt(cities - 1) + 1;
+        if(from > to){
+            int temp = from;
+            from = to;
+            to = temp;
+        }
+
+        int start = genes[firstOffset];
+        newGenes[newOffset] = newGenes[newOffset + cities] = start;
+        visited[start] = true;
+        for(int i = from; i <= to; i++){
+            newGenes[newOffset + i] = genes[firstOffset + i];
+            visited[genes[firstOffset + i]] = true;
+        }
+
+        // positions 1 .. cities - 1 are cyclic, filling starts after the segment
+        int write = (to == cities - 1) ? 1 : to + 1;
+        int read = write;
+        for(int i = 1; i < cities; i++){
+            int gene = genes[secondOffset + read];
+            if(!visited[gene]){
+                newGenes[newOffset + write] = gene;
+                write = (write == cities - 1) ? 1 : write + 1;
+            }
+            read = (read == cities - 1) ? 1 : read + 1;
+        }
+
+        visited[start] = false;
+        for(int i = from; i <= to; i++){
+            visited[genes[firstOffset + i]] = false;
+        }
+    }
+
+    /**
+     * PMX:
+     *   segment: positions 2 - 3
+     *   first parent:   0 1 |2 3| 4 5 0
+     *   second parent:  0 4 |3 5| 1 2 0
+     *   descendant:     0 4 |2 3| 1 5 0  <- 2 from the second parent is in the segment, 2 -> 3 -> 5
+     */
+    static void partiallyMapped(int[] genes, int firstOffset, int secondOffset, int[] newGenes, int newOffset,
+                                int genesLength, CrossoverScratch scratch, RandomSource random){
+        int cities = genesLength - 1;
+        scratch.preparePositions(cities);
+        int[] positions = scratch.positions;
+
+        int from = random.nextInt(cities - 1) + 1;
+        int to = random.nextInt(cities - 1) + 1;
+        if(from > to){
+            int temp = from;
+            from = to;
+            to = temp;
+        }
+
+        for(int i = 0; i < cities; i++){
+            positions[genes[firstOffset + i]] = i;
+        }
+
+        newGenes[newOffset] = newGenes[newOffset + cities] = genes[firstOffset];
+        for(int i = 1; i < cities; i++){
+            if(i >= from && i <= to){
+                newGenes[newOffset + i] = genes[firstOffset + i];
+                continue;
+            }
+
+            int gene = genes[secondOffset + i];
+            while(positions[gene] >= from && positions[gene] <= to){
+                gene = genes[secondOffset + positions[gene]];
+            }
+            newGenes[newOffset + i] = gene;
+        }
+    }
+
+    /**
+     * ERX, every point has up to 4 neighbours from edges of both parents
+     * Visited point is removed from neighbour lists and its index of not visited points is set to -1,
+     * the next point is the neighbour with the fewest remaining neighbours ( the shorter edge on tie ),
+     * without neighbours it's the nearest not visited candidate neighbour or random not visited point
+     */
+    static void edgeRecombination(DistanceProvider distances, CandidateNeighbours neighbours, int[] genes,
+                                  int firstOffset, int secondOffset, int[] newGenes, int newOffset, int genesLength,
+                                  CrossoverScratch scratch, RandomSource random){
+        int cities = genesLength - 1;
+        scratch.prepareEdgeRecombination(cities);
+        int[] adjacency = scratch.adjacency;
+        int[] degrees = scratch.degrees;
+        int[] unvisited = scratch.unvisited;
+        int[] unvisitedIndexes = scratch.unvisitedIndexes;
+
+        Arrays.fill(degrees, 0, cities, 0);
+        for(int i = 0; i < cities; i++){
+            addEdge(adjacency, degrees, genes[firstOffset + i], genes[firstOffset + i + 1]);
+            addEdge(adjacency, degrees, genes[secondOffset + i], genes[secondOffset + i + 1]);
+        }
+        for(int i = 0; i < cities; i++){
+            unvisited[i] = i;
+            unvisitedIndexes[i] = i;
+        }
+        int unvisitedCount = cities;
+
+        int current = genes[firstOffset];
+        newGenes[newOffset] = newGenes[newOffset + cities] = current;
+
+        for(int i = 1; ; i++){
+            // removes current point from lists of its neighbours and from not visited points
+            for(int j = 0; j < degrees[current]; j++){
+                removeEdge(adjacency, degrees, adjacency[4 * current + j], current);
+            }
+            int index = unvisitedIndexes[current];
+            int last = unvisited[--unvisitedCount];
+            unvisited[index] = last;
+            unvisitedIndexes[last] = index;
+            unvisitedIndexes[current] = -1;
+
+            if(i == cities){
+                break;
+            }
+
+            int next = -1;
+            int nextDegree = Integer.MAX_VALUE;
+            double nextDistance = Double.POSITIVE_INFINITY;
+            for(int j = 0; j < degrees[current]; j++){
+                int candidate = adjacency[4 * current + j];
+                double distance = distances.distance(current, candidate);
+                if(degrees[candidate] < nextDegree || (degrees[candidate] == nextDegree && distance < nextDistance)){
+                    next = candidate;
+                    nextDegree = degrees[candidate];
+                    nextDistance = distance;
+                }
+            }
+
+            if(next == -1){
+                next = nearestUnvisited(neighbours, current, unvisitedIndexes);
+            }
+            if(next == -1){
+                next = unvisited[random.nextInt(unvisitedCount)];
+            }
+
+            newGenes[newOffset + i] = next;
+            current = next;
+        }
+    }
+
+    private static void addEdge(int[] adjacency, int[] degrees, int first, int second){
+        addNeighbour(adjacency, degrees, first, second);
+        addNeighbour(adjacency, degrees, second, first);
+    }
+
+    private static void addNeighbour(int[] adjacency, int[] degrees, int point, int neighbour){
+        for(int i = 0; i < degrees[point]; i++){
+            if(adjacency[4 * point + i] == neighbour){
+                return;
+            }
+        }
+        adjacency[4 * point + degrees[point]++] = neighbour;
+    }
+
+    private static void removeEdge(int[] adjacency, int[] degrees, int point, int neighbour){
+        for(int i = 0; i < degrees[point]; i++){
+            if(adjacency[4 * point + i] == neighbour){
+                adjacency[4 * point + i] = adjacency[4 * point + --degrees[point]];
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the nearest candidate neighbour of point which isn't visited, -1 if there is none
+     */
+    private static int nearestUnvisited(CandidateNeighbours neighbours, int point, int[] unvisitedIndexes){
+        if(neighbours == null){
+            return -1;
+        }
+
+        for(int i = 0; i < neighbours.getCount(); i++){
+            int neighbour = neighbours.get(point, i);
+            if(unvisitedIndexes[neighbour] >= 0){
+                return neighbour;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Simplified EAX with single AB-cycle:
+     * edges which are only in parent A or only in parent B are split into AB-cycles alternating A and B edges,
+     * AB-cycle shortening A the most is applied to A ( its A edges removed, B edges added ), which splits A
+     * into subtours, then the smallest subtour is repeatedly joined to other one by exchange of 2 edges
+     * with the lowest cost, searched between candidate neighbours
+     */
+    static void edgeAssembly(DistanceProvider distances, CandidateNeighbours neighbours, int[] genes,
+                             int firstOffset, int secondOffset, int[] newGenes, int newOffset, int genesLength,
+                             CrossoverScratch scratch, RandomSource random){
+        int cities = genesLength - 1;
+        scratch.prepareEdgeAssembly(cities);
+        int[] successorsA = scratch.successorsA;
+        int[] predecessorsA = scratch.predecessorsA;
+        int[] successorsB = scratch.successorsB;
+        int[] predecessorsB = scratch.predecessorsB;
+
+        for(int i = 0; i < cities; i++){
+            int pointA = genes[firstOffset + i];
+            int nextA = genes[firstOffset + i + 1];
+            successorsA[pointA] = nextA;
+            predecessorsA[nextA] = pointA;
+            int pointB = genes[secondOffset + i];
+            int nextB = genes[secondOffset + i + 1];
+            successorsB[pointB] = nextB;
+            predecessorsB[nextB] = pointB;
+        }
+
+        int cycles = buildCycles(cities, scratch, random);
+        if(cycles == 0){
+            System.arraycopy(genes, firstOffset, newGenes, newOffset, genesLength);
+            return;
+        }
+
+        int[] links = scratch.links;
+        for(int point = 0; point < cities; point++){
+            links[2 * point] = predecessorsA[point];
+            links[2 * point + 1] = successorsA[point];
+        }
+        applyCycle(scratch, bestCycle(distances, scratch, cycles));
+        joinSubtours(distances, neighbours, cities, scratch);
+
+        // descendant follows direction of A from the start point if the first edge of A is kept
+        int start = genes[firstOffset];
+        int previous = start;
+        int current = (links[2 * start] == successorsA[start] || links[2 * start + 1] == successorsA[start])
+                ? successorsA[start] : links[2 * start + 1];
+        newGenes[newOffset] = newGenes[newOffset + cities] = start;
+        for(int i = 1; i < cities; i++){
+            newGenes[newOffset + i] = current;
+            int next = (links[2 * current] == previous) ? links[2 * current + 1] : links[2 * current];
+            previous = current;
+            current = next;
+        }
+    }
+
+    /**
+     * Splits edges of only one parent into AB-cycles, walk alternates A and B edges and cuts a cycle
+     * whenever it comes back to a point of the walk with the right parity
+     * @return amount of cycles stored in cycleVertices from cycleStarts, the first edge of every cycle is from A
+     */
+    private static int buildCycles(int cities, CrossoverScratch scratch, RandomSource random){
+        int[] successorsA = scratch.successorsA;
+        int[] predecessorsA = scratch.predecessorsA;
+        int[] successorsB = scratch.successorsB;
+        int[] predecessorsB = scratch.predecessorsB;
+        int[] remainingA = scratch.remainingA;
+        int[] remainingB = scratch.remainingB;
+        int[] path = scratch.path;
+        int[] evenPositions = scratch.evenPositions;
+        int[] oddPositions = scratch.oddPositions;
+        int[] cycleVertices = scratch.cycleVertices;
+        int[] cycleStarts = scratch.cycleStarts;
+
+        Arrays.fill(remainingA, 0, 2 * cities, -1);
+        Arrays.fill(remainingB, 0, 2 * cities, -1);
+        Arrays.fill(evenPositions, 0, cities, -1);
+        Arrays.fill(oddPositions, 0, cities, -1);
+
+        for(int point = 0; point < cities; point++){
+            int nextA = successorsA[point];
+            if(successorsB[point] != nextA && predecessorsB[point] != nextA){
+                addRemaining(remainingA, point, nextA);
+                addRemaining(remainingA, nextA, point);
+            }
+            int nextB = successorsB[point];
+            if(successorsA[point] != nextB && predecessorsA[point] != nextB){
+                addRemaining(remainingB, point, nextB);
+                addRemaining(remainingB, nextB, point);
+            }
+        }
+
+        int cycles = 0;
+        int stored = 0;
+        int first = random.nextInt(cities);
+        for(int i = 0; i < cities; i++){
+            int start = (first + i) % cities;
+
+            int length = 0;
+            path[0] = start;
+            evenPositions[start] = 0;
+            int current = start;
+
+            while(true){
+                int[] remaining = (length % 2 == 0) ? remainingA : remainingB;
+                int next = takeRemaining(remaining, current, random);
+                if(next == -1){
+                    break;
+                }
+                removeRemaining(remaining, next, current);
+
+                path[++length] = next;
+                int[] positions = (length % 2 == 0) ? evenPositions : oddPositions;
+                int cycleStart = positions[next];
+
+                if(cycleStart < 0){
+                    positions[next] = length;
+                    current = next;
+                    continue;
+                }
+
+                // path from cycleStart to length is alternating cycle, it's stored starting with A edge
+                cycleStarts[cycles++] = stored;
+                if(cycleStart % 2 == 0){
+                    for(int j = cycleStart; j <= length; j++){
+                        cycleVertices[stored++] = path[j];
+                    }
+                }else{
+                    for(int j = length; j >= cycleStart; j--){
+                        cycleVertices[stored++] = path[j];
+                    }
+                }
+                for(int j = cycleStart + 1; j < length; j++){
+                    ((j % 2 == 0) ? evenPositions : oddPositions)[path[j]] = -1;
+                }
+                length = cycleStart;
+                current = next;
+            }
+
+            for(int j = 0; j <= length; j++){
+                ((j % 2 == 0) ? evenPositions : oddPositions)[path[j]] = -1;
+            }
+        }
+
+        cycleStarts[cycles] = stored;
+        return cycles;
+    }
+
+    private static void addRemaining(int[] remaining, int point, int neighbour){
+        remaining[(remaining[2 * point] == -1) ? 2 * point : 2 * point + 1] = neighbour;
+    }
+
+    private static int takeRemaining(int[] remaining, int point, RandomSource random){
+        int first = remaining[2 * point];
+        int second = remaining[2 * point + 1];
+        if(first == -1 && second == -1){
+            return -1;
+        }
+
+        int slot;
+        if(first == -1){
+            slot = 2 * point + 1;
+        }else if(second == -1){
+            slot = 2 * point;
+        }else{
+            slot = 2 * point + random.nextInt(2);
+        }
+
+        int neighbour = remaining[slot];
+        remaining[slot] = -1;
+        return neighbour;
+    }
+
+    private static void removeRemaining(int[] remaining, int point, int neighbour){
+        if(remaining[2 * point] == neighbour){
+            remaining[2 * point] = -1;
+        }else if(remaining[2 * point + 1] == neighbour){
+            remaining[2 * point + 1] = -1;
+        }
+    }
+
+    /**
+     * @return cycle which shortens A the most, length of its B edges - length of its A edges is the lowest
+     */
+    private static int bestCycle(DistanceProvider distances, CrossoverScratch scratch, int cycles){
+        int[] cycleVertices = scratch.cycleVertices;
+        int best = 0;
+        double bestDelta = Double.POSITIVE_INFINITY;
+
+        for(int cycle = 0; cycle < cycles; cycle++){
+            int from = scratch.cycleStarts[cycle];
+            int to = scratch.cycleStarts[cycle + 1] - 1;
+
+            double delta = 0.0;
+            for(int i = from; i < to; i++){
+                double distance = distances.distance(cycleVertices[i], cycleVertices[i + 1]);
+                delta += ((i - from) % 2 == 0) ? -distance : distance;
+            }
+
+            if(delta < bestDelta){
+                bestDelta = delta;
+                best = cycle;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Removes A edges of the cycle from links and adds its B edges
+     */
+    private static void applyCycle(CrossoverScratch scratch, int cycle){
+        int[] links = scratch.links;
+        int[] cycleVertices = scratch.cycleVertices;
+        int from = scratch.cycleStarts[cycle];
+        int to = scratch.cycleStarts[cycle + 1] - 1;
+
+        for(int i = from; i < to; i += 2){
+            replaceLink(links, cycleVertices[i], cycleVertices[i + 1], -1);
+            replaceLink(links, cycleVertices[i + 1], cycleVertices[i], -1);
+        }
+        for(int i = from + 1; i < to; i += 2){
+            replaceLink(links, cycleVertices[i], -1, cycleVertices[i + 1]);
+            replaceLink(links, cycleVertices[i + 1], -1, cycleVertices[i]);
+        }
+    }
+
+    private static void replaceLink(int[] links, int point, int oldNeighbour, int newNeighbour){
+        if(links[2 * point] == oldNeighbour){
+            links[2 * point] = newNeighbour;
+        }else{
+            links[2 * point + 1] = newNeighbour;
+        }
+    }
+
+    /**
+     * Finds subtours of links and joins them, the smallest subtour first
+     */
+    private static void joinSubtours(DistanceProvider distances, CandidateNeighbours neighbours, int cities,
+                                     CrossoverScratch scratch){
+        int[] links = scratch.links;
+        int[] tourIds = scratch.tourIds;
+        int[] tourSizes = scratch.tourSizes;
+        int[] tourHeads = scratch.tourHeads;
+        int[] activeTours = scratch.activeTours;
+        int[] members = scratch.members;
+
+        Arrays.fill(tourIds, 0, cities, -1);
+        int tours = 0;
+        for(int point = 0; point < cities; point++){
+            if(tourIds[point] != -1){
+                continue;
+            }
+
+            int size = walk(links, point, members);
+            for(int i = 0; i < size; i++){
+                tourIds[members[i]] = tours;
+            }
+            tourSizes[tours] = size;
+            tourHeads[tours] = point;
+            activeTours[tours] = tours;
+            tours++;
+        }
+
+        int active = tours;
+        while(active > 1){
+            int smallestIndex = 0;
+            for(int i = 1; i < active; i++){
+                if(tourSizes[activeTours[i]] < tourSizes[activeTours[smallestIndex]]){
+                    smallestIndex = i;
+                }
+            }
+            int tour = activeTours[smallestIndex];
+            int size = walk(links, tourHeads[tour], members);
+
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestPoint = -1;
+            int bestPointNeighbour = -1;
+            int bestOther = -1;
+            int bestOtherNeighbour = -1;
+
+            int count = (neighbours == null) ? 0 : neighbours.getCount();
+            for(int i = 0; i < size; i++){
+                int point = members[i];
+                for(int j = 0; j < count; j++){
+                    int other = neighbours.get(point, j);
+                    if(tourIds[other] == tour){
+                        continue;
+                    }
+
+                    for(int k = 0; k < 2; k++){
+                        int pointNeighbour = links[2 * point + k];
+                        for(int l = 0; l < 2; l++){
+                            int otherNeighbour = links[2 * other + l];
+                            double cost = distances.distance(point, other)
+                                    + distances.distance(pointNeighbour, otherNeighbour)
+                                    - distances.distance(point, pointNeighbour)
+                                    - distances.distance(other, otherNeighbour);
+                            if(cost < bestCost){
+                                bestCost = cost;
+                                bestPoint = point;
+                                bestPointNeighbour = pointNeighbour;
+                                bestOther = other;
+                                bestOtherNeighbour = otherNeighbour;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if(bestPoint == -1){
+                // no candidate neighbour is in other subtour, the nearest point of other subtour is searched
+                int point = members[0];
+                for(int other = 0; other < cities; other++){
+                    if(tourIds[other] == tour){
+                        continue;
+                    }
+                    for(int l = 0; l < 2; l++){
+                        int pointNeighbour = links[2 * point];
+                        int otherNeighbour = links[2 * other + l];
+                        double cost = distances.distance(point, other)
+                                + distances.distance(pointNeighbour, otherNeighbour)
+                                - distances.distance(point, pointNeighbour)
+                                - distances.distance(other, otherNeighbour);
+                        if(cost < bestCost){
+                            bestCost = cost;
+                            bestPoint = point;
+                            bestPointNeighbour = pointNeighbour;
+                            bestOther = other;
+                            bestOtherNeighbour = otherNeighbour;
+                        }
+                    }
+                }
+            }
+
+            replaceLink(links, bestPoint, bestPointNeighbour, bestOther);
+            replaceLink(links, bestPointNeighbour, bestPoint, bestOtherNeighbour);
+            replaceLink(links, bestOther, bestOtherNeighbour, bestPoint);
+            replaceLink(links, bestOtherNeighbour, bestOther, bestPointNeighbour);
+
+            int target = tourIds[bestOther];
+            for(int i = 0; i < size; i++){
+                tourIds[members[i]] = target;
+            }
+            tourSizes[target] += size;
+            activeTours[smallestIndex] = activeTours[--active];
+        }
+    }
+
+    /**
+     * Writes points of subtour containing start to members
+     * @return size of the subtour
+     */
+    private static int walk(int[] links, int start, int[] members){
+        int size = 0;
+        int previous = links[2 * start];
+        int current = start;
+        do{
+            members[size++] = current;
+            int next = (links[2 * current] == previous) ? links[2 * current + 1] : links[2 * current];
+            previous = current;
+            current = next;
+        }while(current != start);
+        return size;
+    }
+}
@@ -0,0 +1,81 @@
+package algorithm;
+
+/**
+ * Buffers of crossover operators, allocated on the first use and reused by following calls,
+ * so crossover doesn't allocate memory per descendant
+ * Can be used only by one thread at once
+ */
+final class CrossoverScratch {
+
+    boolean[] visited;
+    int[] positions;
+
+    // edge recombination: up to 4 neighbours of every point and not visited points
+    int[] adjacency;
+    int[] degrees;
+    int[] unvisited;
+    int[] unvisitedIndexes;
+
+    // edge assembly
+    int[] successorsA;
+    int[] predecessorsA;
+    int[] successorsB;
+    int[] predecessorsB;
+    // A-only and B-only edges not used by any AB-cycle yet, 2 slots per point
+    int[] remainingA;
+    int[] remainingB;
+    int[] path;
+    int[] evenPositions;
+    int[] oddPositions;
+    int[] cycleVertices;
+    int[] cycleStarts;
+    // 2 slots per point, neighbours in intermediate solution
+    int[] links;
+    int[] tourIds;
+    int[] tourSizes;
+    int[] tourHeads;
+    int[] activeTours;
+    int[] members;
+
+    void prepareVisited(int genesLength){
+        if(visited == null || visited.length < genesLength){
+            visited = new boolean[genesLength];
+        }
+    }
+
+    void preparePositions(int cities){
+        positions = reuse(positions, cities);
+    }
+
+    void prepareEdgeRecombination(int cities){
+        adjacency = reuse(adjacency, 4 * cities);
+        degrees = reuse(degrees, cities);
+        unvisited = reuse(unvisited, cities);
+        unvisitedIndexes = reuse(unvisitedIndexes, cities);
+    }
+
+    void prepareEdgeAssembly(int cities){
+        successorsA = reuse(successorsA, cities);
+        predecessorsA = reuse(predecessorsA, cities);
+        successorsB = reuse(successorsB, cities);
+        predecessorsB = reuse(predecessorsB, cities);
+        remainingA = reuse(remainingA, 2 * cities);
+        remainingB = reuse(remainingB, 2 * cities);
+        path = reuse(path, 2 * cities + 1);
+        evenPositions = reuse(evenPositions, cities);
+        oddPositions = reuse(oddPositions, cities);
+        // every A-only and B-only edge belongs to one cycle, every cycle repeats its first point
+        cycleVertices = reuse(cycleVertices, 3 * cities);
+        cycleStarts = reuse(cycleStarts, cities + 1);
+        links = reuse(links, 2 * cities);
+        tourIds = reuse(tourIds, cities);
+        tourSizes = reuse(tourSizes, cities);
+        tourHeads = reuse(tourHeads, cities);
+        activeTours = reuse(activeTours, cities);
+        members = reuse(members, cities);
+    }
+
+    private static int[] reuse(int[] array, int length){
+        return (array == null || array.length < length) ? new int[length] : array;
+    }
+}
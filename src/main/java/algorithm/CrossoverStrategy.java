@@ -0,0 +1,22 @@
+package algorithm;
+
+/**
+ * Crossover building descendant of two parents
+ * ONE_POINT          - prefix of the first parent till random point, the rest in order of the second parent
+ * ORDER              - OX, random segment of the first parent stays in place, the rest is filled in order
+ *                      of the second parent starting after the segment
+ * PARTIALLY_MAPPED   - PMX, random segment of the first parent, the rest from the same positions of the second
+ *                      parent, points repeated in the segment are replaced through segment mapping
+ * EDGE_RECOMBINATION - ERX, next point is the neighbour in either parent with the fewest remaining neighbours,
+ *                      ties go to the shorter edge
+ * EDGE_ASSEMBLY      - simplified EAX, the first parent with the most shortening AB-cycle of alternating parent
+ *                      edges applied, subtours are joined by the cheapest 2-edge exchange between candidate neighbours
+ * Edge based strategies keep most edges of parents, they use candidate neighbours and work for symmetric distances
+ */
+public enum CrossoverStrategy {
+    ONE_POINT,
+    ORDER,
+    PARTIALLY_MAPPED,
+    EDGE_RECOMBINATION,
+    EDGE_ASSEMBLY
+}
@@ -0,0 +1,354 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Partition and stitch mode for big instances with coordinates
+ * Points are divided into clusters which are solved in parallel by separate solvers, routes of clusters are joined
+ * in order of a route through cluster centroids and joints are repaired by local search
+ * Every solver keeps only routes of its cluster, so memory and time of generations grow with cluster size
+ * and the whole run with amount of clusters per core, not with size of the instance
+ */
+class Decomposition {
+
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    // part of time budget left for global improvement of the joined route
+    private static final double GLOBAL_IMPROVEMENT_SHARE = 0.2;
+    // generations without improvement ending cluster run when there is no time budget
+    private static final int CLUSTER_STAGNATION = 500;
+    private static final int CENTROID_NEIGHBOURS = 8;
+    private static final FitnessEvaluator SEQUENTIAL_EVALUATOR = new SequentialEvaluator();
+
+    private final TSPSolver solver;
+    private final CoordinateDistances coordinates;
+    private final RandomSource random;
+    private final int clusterSize;
+    private final PartitionStrategy partitionStrategy;
+    private final boolean globalImprovement;
+
+    private long generations;
+    private long evaluationTime;
+    private long cacheLookups;
+    private long cacheHits;
+    private long duplicates;
+
+    /**
+     * @param seed master seed, seeds of clusters are drawn from it in order of clusters,
+     *             so they don't depend on threads
+     */
+    Decomposition(TSPSolver solver, long seed, int clusterSize, PartitionStrategy partitionStrategy,
+                  boolean globalImprovement) {
+        this.solver = solver;
+        this.coordinates = (CoordinateDistances) solver.getDistances();
+        this.random = solver.getRandomFactory().apply(seed);
+        this.clusterSize = clusterSize;
+        this.partitionStrategy = partitionStrategy;
+        this.globalImprovement = globalImprovement;
+    }
+
+    /**
+     * Partitions points, solves clusters, joins their routes and improves joints or the whole route
+     * @param timeLimit time of the whole run in nanoseconds or NO_DEADLINE, clusters get the remaining time
+     *                  in proportion to their size when they start and global improvement gets the rest
+     * @param progress counts generations of all clusters, updated once with the joined route
+     * @param handle handle of async run, cancel ends running clusters, can be null
+     * @return joined route starting at start point of solver
+     */
+    Individual run(long timeLimit, SearchProgress progress, SolveHandle handle){
+        long start = System.nanoTime();
+        long deadline = (timeLimit == NO_DEADLINE) ? NO_DEADLINE : start + timeLimit;
+        progress.start(start, Double.POSITIVE_INFINITY);
+
+        int[][] clusters = Partitioning.partition(partitionStrategy, coordinates, clusterSize);
+        // built before clusters are solved, so its time is taken from the budget of clusters
+        CandidateNeighbours neighbours = solver.getCandidateNeighbours();
+
+        long clustersDeadline = deadline;
+        if(deadline != NO_DEADLINE && globalImprovement){
+            clustersDeadline = System.nanoTime()
+                    + (long) ((deadline - System.nanoTime()) * (1.0 - GLOBAL_IMPROVEMENT_SHARE));
+        }
+        int[][] routes = solveClusters(clusters, clustersDeadline, handle);
+
+        int[] joints = new int[2 * clusters.length];
+        int[] genes = join(routes, joints);
+
+        boolean cancelled = handle != null && handle.isCancelRequested();
+        long remaining = (deadline == NO_DEADLINE) ? 0 : deadline - System.nanoTime();
+        if(!cancelled && (deadline == NO_DEADLINE || remaining > 0)){
+            LocalSearch localSearch = new LocalSearch(coordinates, neighbours);
+            if(globalImprovement){
+                localSearch.improve(genes, 0, remaining);
+            }else{
+                localSearch.improve(genes, 0, remaining, joints, joints.length);
+            }
+        }
+
+        Individual best = new Individual(genes, FitnessEvaluator.routeLength(coordinates, genes, 0, genes.length));
+        progress.update(generations, System.nanoTime(), best.getLength());
+        if(handle != null){
+            handle.publish(best, progress);
+        }
+        return best;
+    }
+
+    /**
+     * Solves clusters on a thread per core, the biggest clusters first
+     * @return route of every cluster as a cycle of point numbers of the instance
+     */
+    private int[][] solveClusters(int[][] clusters, long deadline, SolveHandle handle){
+        int threads = Math.min(clusters.length, Runtime.getRuntime().availableProcessors());
+        AtomicLong unsolvedPoints = new AtomicLong(coordinates.size());
+
+        List<Callable<int[]>> tasks = new ArrayList<>(clusters.length);
+        for(int i = 0; i < clusters.length; i++){
+            int[] cluster = clusters[i];
+            int index = i;
+            long seed = random.nextLong();
+            tasks.add(() -> {
+                // slice is taken from the time left when the cluster starts, so a slow cluster
+                // shortens the following ones instead of the clusters after deadline
+                long points = unsolvedPoints.getAndAdd(-cluster.length);
+                long timeLimit = (deadline == NO_DEADLINE) ? NO_DEADLINE
+                        : (long) ((double) Math.max(0, deadline - System.nanoTime()) * threads * cluster.length
+                                / Math.max(points, cluster.length));
+                return solveCluster(cluster, index, seed, timeLimit, deadline, threads > 1, handle);
+            });
+        }
+
+        Integer[] order = new Integer[clusters.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> clusters[i].length).reversed());
+        List<Callable<int[]>> orderedTasks = new ArrayList<>(tasks.size());
+        for(int i : order){
+            orderedTasks.add(tasks.get(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int[][] routes = new int[clusters.length][];
+        try{
+            List<Future<int[]>> results = executor.invokeAll(orderedTasks);
+            for(int i = 0; i < order.length; i++){
+                routes[order[i]] = results.get(i).get();
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Decomposition interrupted", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Cluster solving failed", e.getCause());
+        }finally {
+            executor.shutdownNow();
+        }
+
+        return routes;
+    }
+
+    /**
+     * Runs new solver with settings of the main one on points of the cluster
+     * @param timeLimit time of the cluster in nanoseconds or NO_DEADLINE to stop on stagnation
+     * @param deadline System.nanoTime() value no cluster runs after
+     */
+    private int[] solveCluster(int[] cluster, int index, long seed, long timeLimit, long deadline,
+                               boolean sequential, SolveHandle handle){
+        // every order of up to 3 points is the same cycle
+        if(cluster.length <= 3){
+            return cluster.clone();
+        }
+
+        double[] x = new double[cluster.length];
+        double[] y = new double[cluster.length];
+        for(int i = 0; i < cluster.length; i++){
+            x[i] = coordinates.getX(cluster[i]);
+            y[i] = coordinates.getY(cluster[i]);
+        }
+
+        TSPSolver clusterSolver = new TSPSolver(new CoordinateDistances(x, y, coordinates.getMetric()), 0,
+                solver.getPopulationSize(), 0, solver.getCrossingPickProbability(),
+                solver.getMutationPickProbability());
+        clusterSolver.copySettings(solver);
+        // cluster with too little time still returns a heuristic route instead of a random one
+        if(Math.round(solver.getSeedingShare() * solver.getPopulationSize()) < 1){
+            clusterSolver.setSeedingShare(1.0 / solver.getPopulationSize());
+        }
+        // clusters already use all cores
+        if(sequential){
+            clusterSolver.setEvaluator(SEQUENTIAL_EVALUATOR);
+        }
+        clusterSolver.setSeed(seed);
+        clusterSolver.shareGenerationListeners(solver, index);
+
+        StopCriterion criterion = (timeLimit == NO_DEADLINE)
+                ? StopCriterion.noImprovementGenerations(CLUSTER_STAGNATION)
+                : StopCriterion.deadline(Math.min(System.nanoTime() + timeLimit, deadline));
+        if(handle != null){
+            criterion = criterion.or(progress -> handle.isCancelRequested());
+        }
+        clusterSolver.setStopCriterion(criterion);
+        clusterSolver.run();
+        collectCounters(clusterSolver);
+
+        int[] genes = clusterSolver.getBestIndividual().getGenes();
+        int[] route = new int[cluster.length];
+        for(int i = 0; i < cluster.length; i++){
+            route[i] = cluster[genes[i]];
+        }
+        return route;
+    }
+
+    private synchronized void collectCounters(TSPSolver clusterSolver){
+        generations += clusterSolver.getProgress().getGeneration();
+        evaluationTime += clusterSolver.getEvaluationTime();
+        cacheLookups += clusterSolver.getCacheLookups();
+        cacheHits += clusterSolver.getCacheHits();
+        duplicates += clusterSolver.getDuplicateCount();
+    }
+
+    /**
+     * Opens every cycle next to the point entered from the previous cluster, in the direction whose last point
+     * is cheaper to connect with the next cluster, next cluster is entered at its point nearest to that last point
+     * @param joints receives the first and the last point of every cluster in the route
+     * @return route of all points starting at start point of solver
+     */
+    private int[] join(int[][] routes, int[] joints){
+        int[] order = clusterOrder(routes);
+        int[] route = new int[coordinates.size()];
+        int size = 0;
+
+        int[] last = routes[order[order.length - 1]];
+        int entry = nearestPoint(routes[order[0]], centroidX(last), centroidY(last));
+        int firstEntry = entry;
+
+        for(int i = 0; i < order.length; i++){
+            int[] cycle = routes[order[i]];
+            int[] next = (i + 1 < order.length) ? routes[order[i + 1]] : null;
+            int entryPosition = indexOf(cycle, entry);
+            int forwardExit = cycle[(entryPosition + cycle.length - 1) % cycle.length];
+            int backwardExit = cycle[(entryPosition + 1) % cycle.length];
+
+            int forwardNext = (next == null) ? firstEntry : nearestPoint(next, forwardExit);
+            int backwardNext = (next == null) ? firstEntry : nearestPoint(next, backwardExit);
+            double forwardCost = coordinates.distance(forwardExit, forwardNext)
+                    - coordinates.distance(entry, forwardExit);
+            double backwardCost = coordinates.distance(backwardExit, backwardNext)
+                    - coordinates.distance(entry, backwardExit);
+            boolean forward = forwardCost <= backwardCost;
+
+            for(int step = 0; step < cycle.length; step++){
+                int position = forward ? entryPosition + step : entryPosition - step + cycle.length;
+                route[size++] = cycle[position % cycle.length];
+            }
+
+            joints[2 * i] = entry;
+            joints[2 * i + 1] = forward ? forwardExit : backwardExit;
+            entry = forward ? forwardNext : backwardNext;
+        }
+
+        int startPosition = indexOf(route, solver.getStartIndex());
+        int[] genes = new int[route.length + 1];
+        for(int i = 0; i < route.length; i++){
+            genes[i] = route[(startPosition + i) % route.length];
+        }
+        genes[route.length] = genes[0];
+        return genes;
+    }
+
+    /**
+     * @return clusters in order of nearest neighbour route through their centroids improved by local search
+     */
+    private int[] clusterOrder(int[][] routes){
+        int[] order = new int[routes.length + 1];
+        Arrays.setAll(order, i -> i % routes.length);
+        if(routes.length <= 3){
+            return Arrays.copyOf(order, routes.length);
+        }
+
+        double[] x = new double[routes.length];
+        double[] y = new double[routes.length];
+        for(int i = 0; i < routes.length; i++){
+            x[i] = centroidX(routes[i]);
+            y[i] = centroidY(routes[i]);
+        }
+
+        CoordinateDistances centroids = new CoordinateDistances(x, y);
+        CandidateNeighbours neighbours = CandidateNeighbours.nearest(centroids, CENTROID_NEIGHBOURS, 0);
+        PopulationSeeding.nearestNeighbour(centroids, neighbours, 0, random, order, 0);
+        new LocalSearch(centroids, neighbours).improve(order, 0, 0);
+
+        return Arrays.copyOf(order, routes.length);
+    }
+
+    private double centroidX(int[] points){
+        double sum = 0.0;
+        for(int point : points){
+            sum += coordinates.getX(point);
+        }
+        return sum / points.length;
+    }
+
+    private double centroidY(int[] points){
+        double sum = 0.0;
+        for(int point : points){
+            sum += coordinates.getY(point);
+        }
+        return sum / points.length;
+    }
+
+    private int nearestPoint(int[] points, int point){
+        return nearestPoint(points, coordinates.getX(point), coordinates.getY(point));
+    }
+
+    /**
+     * @return point nearest to location by coordinates, O(size of points)
+     */
+    private int nearestPoint(int[] points, double x, double y){
+        int nearest = points[0];
+        double nearestDistance = Double.POSITIVE_INFINITY;
+
+        for(int point : points){
+            double dx = coordinates.getX(point) - x;
+            double dy = coordinates.getY(point) - y;
+            double distance = dx * dx + dy * dy;
+            if(distance < nearestDistance){
+                nearest = point;
+                nearestDistance = distance;
+            }
+        }
+
+        return nearest;
+    }
+
+    private static int indexOf(int[] array, int value){
+        for(int i = 0; i < array.length; i++){
+            if(array[i] == value){
+                return i;
+            }
+        }
+        throw new IllegalStateException("Point " + value + " is missing in route");
+    }
+
+    long getEvaluationTime(){
+        return evaluationTime;
+    }
+
+    long getCacheLookups(){
+        return cacheLookups;
+    }
+
+    long getCacheHits(){
+        return cacheHits;
+    }
+
+    long getDuplicates(){
+        return duplicates;
+    }
+}
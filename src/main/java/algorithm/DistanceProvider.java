@@ -0,0 +1,25 @@
+package algorithm;
+
+/**
+ * Source of distances between points read by TSPSolver
+ * Points are numbered from 0 to size() - 1
+ */
+public interface DistanceProvider {
+
+    /**
+     * @return amount of points
+     */
+    int size();
+
+    /**
+     * @return distance from point to other point, it can be different than distance(to, from)
+     */
+    double distance(int from, int to);
+
+    /**
+     * @return true if distance(from, to) always equals distance(to, from)
+     */
+    default boolean isSymmetric() {
+        return false;
+    }
+}
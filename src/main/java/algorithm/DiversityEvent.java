@@ -0,0 +1,42 @@
+package algorithm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event with population diversity, disabled by default
+ * because it costs one pass over the population, enable with algorithm.PopulationDiversity#enabled=true
+ */
+@Name("algorithm.PopulationDiversity")
+@Label("Population Diversity")
+@Category("TSPSolver")
+@Description("Distinct-edge ratio of population after generation")
+@StackTrace(false)
+@Enabled(false)
+class DiversityEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(DiversityEvent.class);
+
+    @Label("Island")
+    int island;
+
+    @Label("Generation")
+    long generation;
+
+    @Label("Diversity")
+    double diversity;
+
+    static void commit(GenerationMetrics metrics){
+        DiversityEvent event = new DiversityEvent();
+        event.island = metrics.island;
+        event.generation = metrics.generation;
+        event.diversity = metrics.getDiversity();
+        event.commit();
+    }
+}
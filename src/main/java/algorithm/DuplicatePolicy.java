@@ -0,0 +1,13 @@
+package algorithm;
+
+/**
+ * Handling of descendants having the same route ( the same TourHash ) as an earlier descendant of the generation
+ * KEEP - clones are evaluated and selected like other descendants
+ * SKIP - clones aren't evaluated and can't be picked by selection, they take the length of the first copy
+ * MUTATE - clones are mutated till their route is unique, clones still repeated after a few mutations are skipped
+ */
+public enum DuplicatePolicy {
+    KEEP,
+    SKIP,
+    MUTATE
+}
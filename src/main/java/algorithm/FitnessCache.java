@@ -0,0 +1,70 @@
+package algorithm;
+
+/**
+ * Bounded cache of route lengths by TourHash of route
+ * Direct-mapped like a transposition table: every hash has one slot and a new route evicts the previous one,
+ * so the cache never grows and doesn't allocate after construction
+ * Can be used only by one solver at once
+ */
+final class FitnessCache {
+
+    // keys of empty slots, hash equal to it is stored as EMPTY_REPLACEMENT
+    private static final long EMPTY = 0L;
+    private static final long EMPTY_REPLACEMENT = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final double[] lengths;
+    private final int mask;
+
+    /**
+     * @param capacity minimum amount of cached routes, rounded up to a power of two
+     */
+    FitnessCache(int capacity) {
+        if(capacity < 1 || capacity > 1 << 30){
+            throw new IllegalArgumentException("Fitness cache size has to be from 1 to 2^30");
+        }
+
+        int slots = Integer.highestOneBit(capacity);
+        if(slots < capacity){
+            slots <<= 1;
+        }
+
+        keys = new long[slots];
+        lengths = new double[slots];
+        mask = slots - 1;
+    }
+
+    /**
+     * @return cached length of route with given hash or NaN if it isn't cached
+     */
+    double get(long hash){
+        long key = key(hash);
+        int slot = slot(key);
+
+        return (keys[slot] == key) ? lengths[slot] : Double.NaN;
+    }
+
+    /**
+     * Stores length of route, evicting route cached in the same slot
+     */
+    void put(long hash, double length){
+        long key = key(hash);
+        int slot = slot(key);
+
+        keys[slot] = key;
+        lengths[slot] = length;
+    }
+
+    int capacity(){
+        return keys.length;
+    }
+
+    private int slot(long key){
+        // high bits of products are mixed better than the low ones, so they are folded in
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static long key(long hash){
+        return (hash == EMPTY) ? EMPTY_REPLACEMENT : hash;
+    }
+}
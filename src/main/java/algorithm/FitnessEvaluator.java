@@ -0,0 +1,39 @@
+package algorithm;
+
+/**
+ * Scores descendants by setting length of their route
+ * Routes are stored one after another in a flat genes array, route i starts at i * genesLength
+ * Implementations have to give the same lengths as sum of distances between following genes
+ */
+public interface FitnessEvaluator {
+
+    /**
+     * Sets lengths[i] for every route i from given range
+     * @param distances distances between points
+     * @param genes flat array of routes
+     * @param genesLength length of one route
+     * @param lengths array receiving lengths
+     * @param from first route to evaluate
+     * @param to route after the last one to evaluate
+     */
+    void evaluate(DistanceProvider distances, int[] genes, int genesLength, double[] lengths, int from, int to);
+
+    /**
+     * Length of the route described by genes
+     * @param distances distances between points
+     * @param genes flat array of routes
+     * @param offset index of the first gene of route
+     * @param genesLength length of route, first and last gene is the start point
+     * @return sum of distances between following genes
+     */
+    static double routeLength(DistanceProvider distances, int[] genes, int offset, int genesLength){
+        double length = 0.0;
+        int end = offset + genesLength - 1;
+
+        for(int i = offset; i < end; i++){
+            length += distances.distance(genes[i], genes[i + 1]);
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,88 @@
+package algorithm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits routes into chunks and evaluates them on a fork-join pool
+ * Generations with less genes than parallelThreshold are evaluated on the calling thread
+ */
+public class ForkJoinEvaluator implements FitnessEvaluator {
+
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public ForkJoinEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param pool pool used to evaluate chunks
+     * @param parallelThreshold minimum amount of genes ( routes * genes length ) in one chunk
+     */
+    public ForkJoinEvaluator(ForkJoinPool pool, int parallelThreshold) {
+        if(parallelThreshold < 1){
+            throw new IllegalArgumentException("Parallel threshold has to be positive");
+        }
+
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public void evaluate(DistanceProvider distances, int[] genes, int genesLength, double[] lengths, int from, int to) {
+        int chunkSize = Math.max(1, parallelThreshold / genesLength);
+
+        if(to - from <= chunkSize){
+            evaluateChunk(distances, genes, genesLength, lengths, from, to);
+            return;
+        }
+
+        pool.invoke(new EvaluationTask(distances, genes, genesLength, lengths, from, to, chunkSize));
+    }
+
+    private static void evaluateChunk(DistanceProvider distances, int[] genes, int genesLength, double[] lengths,
+                                      int from, int to){
+        for(int i = from; i < to; i++){
+            lengths[i] = FitnessEvaluator.routeLength(distances, genes, i * genesLength, genesLength);
+        }
+    }
+
+    private static class EvaluationTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DistanceProvider distances;
+        private final int[] genes;
+        private final int genesLength;
+        private final double[] lengths;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        EvaluationTask(DistanceProvider distances, int[] genes, int genesLength, double[] lengths,
+                       int from, int to, int chunkSize) {
+            this.distances = distances;
+            this.genes = genes;
+            this.genesLength = genesLength;
+            this.lengths = lengths;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= chunkSize){
+                evaluateChunk(distances, genes, genesLength, lengths, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluationTask(distances, genes, genesLength, lengths, from, middle, chunkSize),
+                    new EvaluationTask(distances, genes, genesLength, lengths, middle, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package algorithm;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event committed after every generation while recording is running
+ */
+@Name("algorithm.Generation")
+@Label("Generation")
+@Category("TSPSolver")
+@Description("Phase times and route lengths of one generation")
+@StackTrace(false)
+class GenerationEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(GenerationEvent.class);
+
+    @Label("Island")
+    int island;
+
+    @Label("Generation")
+    long generation;
+
+    @Label("Breed Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long breedTime;
+
+    @Label("Mutation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long mutationTime;
+
+    @Label("Evaluation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaluationTime;
+
+    @Label("Local Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long localSearchTime;
+
+    @Label("Selection Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selectionTime;
+
+    @Label("Generation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long generationTime;
+
+    @Label("Evaluations")
+    int evaluations;
+
+    @Label("Cache Hits")
+    int cacheHits;
+
+    @Label("Duplicates")
+    int duplicates;
+
+    @Label("Best Length")
+    double bestLength;
+
+    @Label("Mean Length")
+    double meanLength;
+
+    @Label("Worst Length")
+    double worstLength;
+
+    static void commit(GenerationMetrics metrics){
+        GenerationEvent event = new GenerationEvent();
+        event.island = metrics.island;
+        event.generation = metrics.generation;
+        event.breedTime = metrics.breedTime;
+        event.mutationTime = metrics.mutationTime;
+        event.evaluationTime = metrics.evaluationTime;
+        event.localSearchTime = metrics.localSearchTime;
+        event.selectionTime = metrics.selectionTime;
+        event.generationTime = metrics.generationTime;
+        event.evaluations = metrics.evaluations;
+        event.cacheHits = metrics.cacheHits;
+        event.duplicates = metrics.duplicates;
+        event.bestLength = metrics.bestLength;
+        event.meanLength = metrics.meanLength;
+        event.worstLength = metrics.worstLength;
+        event.commit();
+    }
+}
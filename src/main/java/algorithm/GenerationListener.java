@@ -0,0 +1,14 @@
+package algorithm;
+
+/**
+ * Receives metrics after every generation, called on solver thread
+ * For multi-island runs it is called by every island, possibly from several threads at once
+ */
+@FunctionalInterface
+public interface GenerationListener {
+
+    /**
+     * @param metrics metrics of the last generation, object is reused so it's valid only during the call
+     */
+    void onGeneration(GenerationMetrics metrics);
+}
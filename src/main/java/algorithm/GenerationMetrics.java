@@ -0,0 +1,217 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Metrics of one generation passed to GenerationListener
+ * Phase times are in nanoseconds, lengths are taken from population after selection
+ * Diversity is computed only when asked for
+ */
+public class GenerationMetrics {
+
+    // cities sampled by diversity, all cities of smaller instances
+    private static final int DIVERSITY_SAMPLE = 256;
+
+    int island;
+    long generation;
+    long breedTime;
+    long mutationTime;
+    long evaluationTime;
+    long localSearchTime;
+    long selectionTime;
+    long generationTime;
+    int evaluations;
+    int cacheHits;
+    int duplicates;
+    double bestLength;
+    double meanLength;
+    double worstLength;
+
+    private Population population;
+    private boolean diversityValid;
+    private double diversity;
+    private int[] sampleSlots;
+    private int[] sampleNeighbours;
+    private int[] stamps;
+
+    /**
+     * Updates population statistics, called by solver after selection
+     */
+    void update(Population population){
+        this.population = population;
+        this.diversityValid = false;
+
+        double best = Double.POSITIVE_INFINITY;
+        double worst = 0.0;
+        double sum = 0.0;
+        for(int i = 0; i < population.size; i++){
+            double length = population.lengths[i];
+            best = Math.min(best, length);
+            worst = Math.max(worst, length);
+            sum += length;
+        }
+
+        bestLength = best;
+        worstLength = worst;
+        meanLength = (population.size == 0) ? 0.0 : sum / population.size;
+    }
+
+    /**
+     * @return island number, 0 for single population
+     */
+    public int getIsland() {
+        return island;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getBreedTime() {
+        return breedTime;
+    }
+
+    public long getMutationTime() {
+        return mutationTime;
+    }
+
+    public long getEvaluationTime() {
+        return evaluationTime;
+    }
+
+    public long getLocalSearchTime() {
+        return localSearchTime;
+    }
+
+    public long getSelectionTime() {
+        return selectionTime;
+    }
+
+    public long getGenerationTime() {
+        return generationTime;
+    }
+
+    /**
+     * @return amount of breed children evaluated in the generation, without cache hits and clones,
+     * mutated descendants get their length by delta and aren't counted
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return amount of breed children which length was taken from fitness cache
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return amount of clones found by duplicate policy
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return (generationTime == 0) ? 0.0 : evaluations * 1e9 / generationTime;
+    }
+
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    public double getMeanLength() {
+        return meanLength;
+    }
+
+    public double getWorstLength() {
+        return worstLength;
+    }
+
+    /**
+     * Distinct-edge ratio, share of distinct edges among edges of all routes at sampled cities
+     * 1 / populationSize when all routes are the same, the highest for random routes of instances much bigger than population
+     * Costs one pass over the population on the first call in generation
+     */
+    public double getDiversity() {
+        if(!diversityValid){
+            diversity = computeDiversity();
+            diversityValid = true;
+        }
+        return diversity;
+    }
+
+    private double computeDiversity(){
+        int cities = population.genesLength - 1;
+        int samples = Math.min(cities, DIVERSITY_SAMPLE);
+        int edgesPerCity = 2 * population.size;
+
+        if(sampleSlots == null || sampleSlots.length != cities){
+            sampleSlots = new int[cities];
+            stamps = new int[cities];
+        }
+        if(sampleNeighbours == null || sampleNeighbours.length < samples * edgesPerCity){
+            sampleNeighbours = new int[samples * edgesPerCity];
+        }
+
+        // evenly spaced cities
+        Arrays.fill(sampleSlots, -1);
+        for(int slot = 0; slot < samples; slot++){
+            sampleSlots[(int) ((long) slot * cities / samples)] = slot;
+        }
+
+        int[] genes = population.genes;
+        for(int i = 0; i < population.size; i++){
+            int offset = population.offset(i);
+            for(int j = 0; j < cities; j++){
+                int slot = sampleSlots[genes[offset + j]];
+                if(slot < 0){
+                    continue;
+                }
+
+                int previous = genes[offset + ((j == 0) ? cities - 1 : j - 1)];
+                int next = genes[offset + j + 1];
+                int neighboursOffset = slot * edgesPerCity + 2 * i;
+                sampleNeighbours[neighboursOffset] = previous;
+                sampleNeighbours[neighboursOffset + 1] = next;
+            }
+        }
+
+        Arrays.fill(stamps, 0);
+        long distinct = 0;
+        for(int slot = 0; slot < samples; slot++){
+            int stamp = slot + 1;
+            int neighboursOffset = slot * edgesPerCity;
+            for(int k = 0; k < edgesPerCity; k++){
+                int neighbour = sampleNeighbours[neighboursOffset + k];
+                if(stamps[neighbour] != stamp){
+                    stamps[neighbour] = stamp;
+                    distinct++;
+                }
+            }
+        }
+
+        return (samples == 0 || edgesPerCity == 0) ? 0.0 : (double) distinct / ((long) samples * edgesPerCity);
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationMetrics{" +
+                "island=" + island +
+                ", generation=" + generation +
+                ", breedTime=" + breedTime +
+                ", mutationTime=" + mutationTime +
+                ", evaluationTime=" + evaluationTime +
+                ", localSearchTime=" + localSearchTime +
+                ", selectionTime=" + selectionTime +
+                ", generationTime=" + generationTime +
+                ", evaluations=" + evaluations +
+                ", cacheHits=" + cacheHits +
+                ", duplicates=" + duplicates +
+                ", bestLength=" + bestLength +
+                ", meanLength=" + meanLength +
+                ", worstLength=" + worstLength +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+package algorithm;
+
+/**
+ * Mutation and breed operators working on flat gene arrays
+ * First and last gene can't be changed
+ */
+final class GeneticOperators {
+
+    private GeneticOperators() { }
+
+    /**
+        * Mutates given route in place
+        * pattern example:
+            * random point from 1 to points size - 1  eg. 1 , 3
+            * before mutation: 1|>2<|0|>4<|5|1
+            * after mutation:  1|>4<|0|>2<|5|1
+        * Only edges around swapped genes are changed ( 4 edges or 3 if genes are neighbours )
+        * so new length = old length + returned delta
+        * @return difference of route length caused by the mutation
+     */
+    static double mutate(int[] genes, int offset, int genesLength, DistanceProvider distances, RandomSource random){
+        return mutate(genes, offset, genesLength, distances, random, null, null, 0);
+    }
+
+    /**
+     * Mutates route like mutate() and updates its hash in O(1) by keys of the changed edges
+     * @param tourHash hash of routes, null = hashes aren't updated
+     * @param hashes hashes of routes, hashes[hashIndex] is updated
+     * @return difference of route length caused by the mutation
+     */
+    static double mutate(int[] genes, int offset, int genesLength, DistanceProvider distances, RandomSource random,
+                         TourHash tourHash, long[] hashes, int hashIndex){
+        int firstGene;
+        int secondGene;
+
+        do{
+            firstGene = random.nextInt(genesLength - 2) + 1;
+            secondGene = random.nextInt(genesLength - 2) + 1;
+        }while (firstGene == secondGene);
+
+        if(firstGene > secondGene){
+            int temp = firstGene;
+            firstGene = secondGene;
+            secondGene = temp;
+        }
+
+        int first = offset + firstGene;
+        int second = offset + secondGene;
+        double before = swapEdgesLength(genes, first, second, distances);
+        if(tourHash != null){
+            hashes[hashIndex] -= tourHash.swapEdges(genes, first, second);
+        }
+
+        int temp = genes[first];
+        genes[first] = genes[second];
+        genes[second] = temp;
+
+        if(tourHash != null){
+            hashes[hashIndex] += tourHash.swapEdges(genes, first, second);
+        }
+        return swapEdgesLength(genes, first, second, distances) - before;
+    }
+
+    /**
+     * Sum of edges starting at first - 1, first, second - 1 and second
+     * Edge first -> second is counted once if genes are neighbours
+     */
+    private static double swapEdgesLength(int[] genes, int first, int second, DistanceProvider distances){
+        double length = distances.distance(genes[first - 1], genes[first])
+                + distances.distance(genes[first], genes[first + 1])
+                + distances.distance(genes[second], genes[second + 1]);
+
+        if(second - 1 != first){
+            length += distances.distance(genes[second - 1], genes[second]);
+        }
+
+        return length;
+    }
+
+    /**
+        * Breed two individuals :
+        * pattern example:
+        *   cross point: 1
+        *   genes of individual :  1 2 << 3 4 5
+        *   genes of crossing individual:  4 1 5 3 2
+        *   fill new individual in order -> genes from this individual till cross point
+        *   rest of missing genes in same order as in crossing individual
+        *   new individual -> 1 2 >> 4 5 3
+        * @param visited scratch array of genesLength, cleared by this method
+    */
+    static void breed(int[] genes, int firstOffset, int secondOffset, int[] newGenes, int newOffset,
+                      int genesLength, boolean[] visited, RandomSource random){
+        int crossPoint = random.nextInt(genesLength - 1) + 2;
+
+        int i;
+        for(i = 0; i < crossPoint; i++){
+            newGenes[newOffset + i] = genes[firstOffset + i];
+            visited[genes[firstOffset + i]] = true;
+        }
+
+        for(int j = 1; i < genesLength - 1; j++){
+            if(!visited[genes[secondOffset + j]]){
+                newGenes[newOffset + i] = genes[secondOffset + j];
+                i++;
+            }
+        }
+        newGenes[newOffset + genesLength - 1] = genes[firstOffset];
+
+        for(int j = 0; j < crossPoint; j++){
+            visited[genes[firstOffset + j]] = false;
+        }
+    }
+}
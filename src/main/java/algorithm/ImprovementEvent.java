@@ -0,0 +1,48 @@
+package algorithm;
+
+/**
+ * Published by SolveHandle after every improvement of the best individual
+ */
+public class ImprovementEvent {
+
+    private final Individual individual;
+    private final long generation;
+    private final long elapsedTime;
+
+    ImprovementEvent(Individual individual, long generation, long elapsedTime) {
+        this.individual = individual;
+        this.generation = generation;
+        this.elapsedTime = elapsedTime;
+    }
+
+    public Individual getIndividual() {
+        return individual;
+    }
+
+    public double getLength() {
+        return individual.getLength();
+    }
+
+    /**
+     * @return generation of the improvement, counted per island for multi-island runs
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return time from start of the run in nanoseconds
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ImprovementEvent{" +
+                "length=" + getLength() +
+                ", generation=" + generation +
+                ", elapsedTime=" + elapsedTime +
+                '}';
+    }
+}
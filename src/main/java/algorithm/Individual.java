@@ -1,89 +1,20 @@
 package algorithm;
 
 import java.util.Arrays;
-import java.util.Random;
 
+/**
+ * Read-only route returned by TSPSolver
+ * First and last gene is the start point
+ */
 public class Individual {
     private final int[] genes;
 
     // length equals the fitness of the individual. less = better
-    private double length;
-    private double reverseLength;
-    private double lowerPickBound;
-    private double upperPickBound;
+    private final double length;
 
-    public Individual(int[] genes) {
-        this.genes = genes;
-    }
-
-    /**
-        * Mutates given route
-        * pattern example:
-            * random point from 1 to points size - 1  eg. 1 , 3
-            * before mutation: 1|>2<|0|>4<|5|1
-            * after mutation:  1|>4<|0|>2<|5|1
-     */
-    public Individual mutate(){
-        Random random = new Random();
-        int firstGene;
-        int secondGene;
-
-        do{
-            firstGene = random.nextInt(genes.length - 2) + 1;
-            secondGene = random.nextInt(genes.length - 2) + 1;
-        }while (firstGene == secondGene);
-
-        int temp = genes[firstGene];
-        genes[firstGene] = genes[secondGene];
-        genes[secondGene] = temp;
-
-        return copy();
-    }
-
-    /**
-        * Breed two individuals :
-        * pattern example:
-        *   cross point: 1
-        *   genes of individual :  1 2 << 3 4 5
-        *   genes of crossing individual:  4 1 5 3 2
-        *   fill new individual in order -> genes from this individual till cross point
-        *   rest of missing genes in same order as in crossing individual
-        *   new individual -> 1 2 >> 4 5 3
-    */
-    public Individual breed(Individual individualToBreed){
-        Random random = new Random();
-        int[] breedGenes = individualToBreed.getGenes();
-        int[] newGenes = new int[genes.length];
-        boolean[] tempArray = new boolean[genes.length];
-
-        int crossPoint = random.nextInt(genes.length - 1) + 2;
-
-        int i;
-        for(i = 0; i < crossPoint; i++){
-            newGenes[i] = genes[i];
-            tempArray[genes[i]] = true;
-        }
-
-        for(int j = 1; i < genes.length - 1; j++){
-            if(!tempArray[breedGenes[j]]){
-                newGenes[i] = breedGenes[j];
-                i++;
-            }
-        }
-        newGenes[genes.length - 1] = genes[0];
-        return new Individual(newGenes);
-    }
-
-    public Individual copy(){
-        int genesLength = this.getGenes().length;
-        int[] newGenes = new int[genesLength];
-
-        System.arraycopy(this.getGenes(), 0, newGenes, 0, genesLength);
-
-        Individual newIndividual = new Individual(newGenes);
-        newIndividual.setLength(this.length);
-
-        return newIndividual;
+    public Individual(int[] genes, double length) {
+        this.genes = genes.clone();
+        this.length = length;
     }
 
     @Override
@@ -101,45 +32,22 @@ public class Individual {
         return Arrays.hashCode(genes);
     }
 
+    /**
+     * @return copy of genes
+     */
     public int[] getGenes() {
-        return genes;
+        return genes.clone();
     }
 
     public double getLength() {
         return length;
     }
 
-    public double getReverseLength() {
-        return reverseLength;
-    }
-
-    public double getLowerPickBound() {
-        return lowerPickBound;
-    }
-
-    public double getUpperPickBound() {
-        return upperPickBound;
-    }
-
-    public void setLength(double length) {
-        this.length = length;
-    }
-
-    public void setReverseLength(double reverseLength) {
-        this.reverseLength = reverseLength;
-    }
-
-    public void setPickBounds(double lowerBound, double upperBound){
-        lowerPickBound = lowerBound;
-        upperPickBound = upperBound;
-    }
-
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
         Arrays.stream(genes).forEach(gene -> sb.append(gene).append(", "));
 
-        return sb.toString() + "length =  " +length + ", reverse length = " +reverseLength
-                +", Lower bound = " +lowerPickBound + ", upper bound = " +upperPickBound;
+        return sb.toString() + "length =  " +length;
     }
 }
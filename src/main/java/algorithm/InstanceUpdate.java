@@ -0,0 +1,114 @@
+package algorithm;
+
+/**
+ * Change of points of running solver: new distances and mapping of current points to new indexes
+ * Routes are repaired in place of a new run, removed points are dropped and added points are put
+ * by cheapest insertion, so the search continues from routes which are already good
+ */
+final class InstanceUpdate {
+
+    final DistanceProvider distances;
+    // mapping[point] = index of current point in new distances or -1 if it's removed
+    final int[] mapping;
+    // points of new distances not mapped from any current point, ascending
+    final int[] addedPoints;
+
+    /**
+     * throws IllegalArgumentException if mapping doesn't match distances
+     */
+    InstanceUpdate(DistanceProvider distances, int[] mapping) {
+        if(distances == null || mapping == null){
+            throw new IllegalArgumentException("Distances and mapping can't be null");
+        }
+        if(distances.size() < 3){
+            throw new IllegalArgumentException("Required minimum 3 points");
+        }
+
+        boolean[] mapped = new boolean[distances.size()];
+        int kept = 0;
+        for(int point : mapping){
+            if(point == -1){
+                continue;
+            }
+            if(point < 0 || point >= mapped.length || mapped[point]){
+                throw new IllegalArgumentException("Incorrect mapping to point " + point);
+            }
+            mapped[point] = true;
+            kept++;
+        }
+
+        addedPoints = new int[mapped.length - kept];
+        for(int point = 0, i = 0; point < mapped.length; point++){
+            if(!mapped[point]){
+                addedPoints[i++] = point;
+            }
+        }
+
+        this.distances = distances;
+        this.mapping = mapping;
+    }
+
+    /**
+     * @return update of current points to points of next update
+     */
+    InstanceUpdate then(InstanceUpdate next){
+        if(next.mapping.length != distances.size()){
+            throw new IllegalArgumentException("Mapping has " + next.mapping.length
+                    + " points, distances have " + distances.size());
+        }
+
+        int[] combined = new int[mapping.length];
+        for(int point = 0; point < mapping.length; point++){
+            combined[point] = (mapping[point] == -1) ? -1 : next.mapping[mapping[point]];
+        }
+
+        return new InstanceUpdate(next.distances, combined);
+    }
+
+    /**
+     * Writes route from offset without removed points, with new indexes and with added points
+     * at the place which makes the route the shortest, O(n) per added point
+     * @param genes routes of current points, first and last gene is the start point which can't be removed
+     * @param target routes of new points, distances.size() + 1 genes are written from targetOffset
+     */
+    void repair(int[] genes, int offset, int genesLength, int[] target, int targetOffset){
+        int size = 0;
+        for(int i = offset; i < offset + genesLength - 1; i++){
+            int point = mapping[genes[i]];
+            if(point != -1){
+                target[targetOffset + size++] = point;
+            }
+        }
+
+        for(int point : addedPoints){
+            int position = cheapestInsertion(target, targetOffset, size, point);
+            System.arraycopy(target, targetOffset + position, target, targetOffset + position + 1, size - position);
+            target[targetOffset + position] = point;
+            size++;
+        }
+
+        target[targetOffset + size] = target[targetOffset];
+    }
+
+    /**
+     * @return index from 1 to size at which point is the cheapest to insert, between route[index - 1] and route[index]
+     */
+    private int cheapestInsertion(int[] route, int offset, int size, int point){
+        int bestPosition = size;
+        double bestCost = Double.POSITIVE_INFINITY;
+
+        for(int i = 1; i <= size; i++){
+            int previous = route[offset + i - 1];
+            int next = route[offset + ((i == size) ? 0 : i)];
+            double cost = distances.distance(previous, point) + distances.distance(point, next)
+                    - distances.distance(previous, next);
+
+            if(cost < bestCost){
+                bestCost = cost;
+                bestPosition = i;
+            }
+        }
+
+        return bestPosition;
+    }
+}
@@ -0,0 +1,240 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-island genetic algorithm
+ * Every island is a separate TSPSolver with its own population, islands evolve in parallel
+ * and after every migrationInterval generations the best individuals are sent to other islands
+ */
+class IslandModel {
+
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final TSPSolver solver;
+    private final TSPSolver[] islands;
+    private final int migrationInterval;
+    private final int migrantCount;
+    private final MigrationTopology topology;
+    private final RandomSource random;
+    private final Population[] migrants;
+    // System.nanoTime() value read by islands, moved by paused time
+    private volatile long deadline;
+
+    /**
+     * @param seed master seed, seeds of islands are drawn from it in order of islands, so they don't depend on threads
+     */
+    IslandModel(TSPSolver solver, long seed, int islandCount, int migrationInterval, int migrantCount,
+                MigrationTopology topology) {
+        this.solver = solver;
+        this.migrationInterval = migrationInterval;
+        this.migrantCount = migrantCount;
+        this.topology = topology;
+        this.random = solver.getRandomFactory().apply(seed);
+
+        islands = new TSPSolver[islandCount];
+        migrants = new Population[islandCount];
+        for(int i = 0; i < islandCount; i++){
+            islands[i] = new TSPSolver(solver.getDistances(), solver.getStartIndex(),
+                    solver.getPopulationSize(), 0, solver.getCrossingPickProbability(),
+                    solver.getMutationPickProbability());
+            islands[i].copySettings(solver);
+            islands[i].setSeed(random.nextLong());
+            islands[i].shareGenerationListeners(solver, i);
+            if(solver.hasCandidateNeighbours()){
+                islands[i].setCandidateNeighbours(solver.getCandidateNeighbours());
+            }
+            migrants[i] = new Population(migrantCount, solver.getDistances().size() + 1);
+        }
+    }
+
+    /**
+     * Evolves all islands till deadline passes or stop criterion is met, criterion is checked between migrations
+     * @param timeLimit time of evolution in nanoseconds or NO_DEADLINE
+     * @param progress progress of all islands, generations are counted per island
+     *                 as generations of the island which did the most of them
+     * @param handle handle of async run, paused and cancelled between migrations, can be null
+     * @return copy of the best individual from all islands
+     */
+    Individual run(StopCriterion criterion, long timeLimit, SearchProgress progress, SolveHandle handle){
+        long start = System.nanoTime();
+        deadline = (timeLimit == NO_DEADLINE) ? NO_DEADLINE : start + timeLimit;
+        progress.start(start, Double.POSITIVE_INFINITY);
+
+        int threads = Math.min(islands.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        List<Callable<Integer>> initializations = new ArrayList<>(islands.length);
+        List<Callable<Integer>> epochs = new ArrayList<>(islands.length);
+        for(TSPSolver island : islands){
+            initializations.add(() -> island.evolve(0, deadline, handle));
+            epochs.add(() -> island.evolve(migrationInterval, deadline, handle));
+        }
+
+        try{
+            // every island has its population before the first check, so even a met criterion returns a route
+            invokeAll(executor, initializations);
+            progress.update(0, System.nanoTime(), getBestIndividual().getLength());
+            // like a single population, the initial route is published before the first generation
+            if(handle != null){
+                handle.publish(getBestIndividual(), progress);
+            }
+
+            boolean finished = criterion.isMet(progress);
+            while(!finished){
+                // islands stopped by deadline in the middle of epoch did less generations
+                int generations = invokeAll(executor, epochs);
+                finished = TSPSolver.isAfter(deadline);
+
+                Individual best = getBestIndividual();
+                progress.update(generations, System.nanoTime(), best.getLength());
+                if(applyInstanceUpdate()){
+                    best = getBestIndividual();
+                    progress.resetBestLength(best.getLength());
+                }
+                if(handle != null){
+                    if(progress.getImprovementGeneration() == progress.getGeneration()){
+                        handle.publish(best, progress);
+                    }
+                    long pausedTime = handle.awaitResume();
+                    progress.shift(pausedTime);
+                    if(deadline != NO_DEADLINE){
+                        deadline += pausedTime;
+                    }
+                    finished |= handle.isCancelRequested();
+                }
+                finished |= criterion.isMet(progress);
+
+                if(!finished){
+                    migrate();
+                }
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }catch (ExecutionException e){
+            throw new IllegalStateException("Island evolution failed", e.getCause());
+        }finally {
+            executor.shutdownNow();
+        }
+
+        return getBestIndividual();
+    }
+
+    /**
+     * @return the most generations done by one island
+     */
+    private static int invokeAll(ExecutorService executor, List<Callable<Integer>> tasks)
+            throws InterruptedException, ExecutionException {
+        int generations = 0;
+        for(Future<Integer> task : executor.invokeAll(tasks)){
+            generations = Math.max(generations, task.get());
+        }
+        return generations;
+    }
+
+    /**
+     * Sends copies of the best individuals of every island to the target island
+     * Migrants are collected before any island accepts them
+     */
+    private void migrate(){
+        if(migrantCount == 0){
+            return;
+        }
+
+        for(int i = 0; i < islands.length; i++){
+            islands[i].copyMigrants(migrants[i]);
+        }
+
+        for(int i = 0; i < islands.length; i++){
+            islands[getTarget(i)].acceptMigrants(migrants[i]);
+        }
+    }
+
+    /**
+     * Applies change of points waiting in the main solver to all islands, called while islands don't evolve
+     * @return true if points are changed
+     */
+    private boolean applyInstanceUpdate(){
+        InstanceUpdate update = solver.takeInstanceUpdate();
+        if(update == null){
+            return false;
+        }
+
+        for(int i = 0; i < islands.length; i++){
+            islands[i].applyInstanceUpdate(update);
+            migrants[i] = new Population(migrantCount, update.distances.size() + 1);
+        }
+        return true;
+    }
+
+    private int getTarget(int island){
+        if(topology == MigrationTopology.RING){
+            return (island + 1) % islands.length;
+        }
+
+        int target = random.nextInt(islands.length - 1);
+        return (target >= island) ? target + 1 : target;
+    }
+
+    /**
+     * @return time spent on evaluation by all islands in nanoseconds
+     */
+    long getEvaluationTime(){
+        long evaluationTime = 0;
+
+        for(TSPSolver island : islands){
+            evaluationTime += island.getEvaluationTime();
+        }
+
+        return evaluationTime;
+    }
+
+    long getCacheLookups(){
+        long lookups = 0;
+
+        for(TSPSolver island : islands){
+            lookups += island.getCacheLookups();
+        }
+
+        return lookups;
+    }
+
+    long getCacheHits(){
+        long hits = 0;
+
+        for(TSPSolver island : islands){
+            hits += island.getCacheHits();
+        }
+
+        return hits;
+    }
+
+    long getDuplicates(){
+        long duplicates = 0;
+
+        for(TSPSolver island : islands){
+            duplicates += island.getDuplicateCount();
+        }
+
+        return duplicates;
+    }
+
+    private Individual getBestIndividual(){
+        Individual best = null;
+
+        for(TSPSolver island : islands){
+            Individual islandBest = island.getBestIndividual();
+            if(islandBest != null && (best == null || islandBest.getLength() < best.getLength())){
+                best = islandBest;
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,333 @@
+package algorithm;
+
+import java.util.stream.IntStream;
+
+/**
+ * 2-d tree of points built in O(n log n), used to find the nearest points without checking all distances
+ * Tree is stored implicitly in one array of point numbers: range [lo, hi) is split by its median
+ * point on the dimension with bigger spread, ranges up to LEAF_SIZE points are leaves
+ *
+ * Distances are euclidean distances of coordinates
+ */
+public class KdTree {
+
+    private static final int LEAF_SIZE = 8;
+    private static final int CHUNK_SIZE = 4096;
+
+    private final double[] x;
+    private final double[] y;
+    private final int[] order;
+    // coordinates in order of the tree, leaves are read sequentially
+    private final double[] orderedX;
+    private final double[] orderedY;
+    // split dimension of range which median is on given position, 0 = x, 1 = y
+    private final byte[] splitDimension;
+
+    public KdTree(double[] x, double[] y) {
+        if(x.length != y.length){
+            throw new IllegalArgumentException("Incorrect data size");
+        }
+
+        this.x = x;
+        this.y = y;
+
+        order = new int[x.length];
+        splitDimension = new byte[x.length];
+        for(int i = 0; i < order.length; i++){
+            order[i] = i;
+        }
+
+        build(0, order.length);
+
+        orderedX = new double[order.length];
+        orderedY = new double[order.length];
+        for(int i = 0; i < order.length; i++){
+            orderedX[i] = x[order[i]];
+            orderedY[i] = y[order[i]];
+        }
+    }
+
+    public KdTree(CoordinateDistances coordinates) {
+        this(coordinatesX(coordinates), coordinatesY(coordinates));
+    }
+
+    /**
+     * Finds the nearest points of given location
+     * @param quadrant -1 for all points, or 0 - 3 to accept only points from one quadrant around location:
+     *                 0 = (x >= qx, y >= qy), 1 = (x < qx, y >= qy), 2 = (x < qx, y < qy), 3 = (x >= qx, y < qy)
+     * @param excluded point skipped by search, eg. the point on given location, -1 for none
+     * @param points receives found points sorted from the nearest one, its length is the amount of searched points
+     * @return amount of found points
+     */
+    public int nearest(double qx, double qy, int quadrant, int excluded, int[] points){
+        Search search = new Search(points.length);
+        search.start(qx, qy, quadrant, excluded);
+        search(search, 0, order.length);
+
+        System.arraycopy(search.points, 0, points, 0, search.found);
+        return search.found;
+    }
+
+    /**
+     * Builds candidate lists of every point, points are processed in parallel chunks
+     * @param count amount of neighbours of every point
+     * @param quadrantCount amount of the nearest neighbours taken from every quadrant first,
+     *                      rest of the list is filled with the nearest points, 0 = only the nearest points
+     */
+    public CandidateNeighbours candidateNeighbours(int count, int quadrantCount){
+        int size = x.length;
+        int neighboursCount = Math.min(count, size - 1);
+        int perQuadrant = Math.min(quadrantCount, neighboursCount / 4);
+        int[] neighbours = new int[size * neighboursCount];
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            Search search = new Search(neighboursCount);
+            Search quadrantSearch = new Search(Math.max(perQuadrant, 1));
+            int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+
+            // points are taken in order of the tree so following searches visit the same nodes
+            for(int i = chunk * CHUNK_SIZE; i < end; i++){
+                fillNeighbours(order[i], neighboursCount, perQuadrant, search, quadrantSearch, neighbours);
+            }
+        });
+
+        return new CandidateNeighbours(neighbours, neighboursCount);
+    }
+
+    private void fillNeighbours(int point, int count, int perQuadrant, Search search, Search quadrantSearch,
+                                int[] neighbours){
+        int offset = point * count;
+        int found = 0;
+
+        for(int quadrant = 0; quadrant < 4 && perQuadrant > 0; quadrant++){
+            quadrantSearch.start(x[point], y[point], quadrant, point);
+            search(quadrantSearch, 0, order.length);
+
+            for(int i = 0; i < Math.min(perQuadrant, quadrantSearch.found); i++){
+                neighbours[offset + found++] = quadrantSearch.points[i];
+            }
+        }
+
+        search.start(x[point], y[point], -1, point);
+        search(search, 0, order.length);
+        for(int i = 0; i < search.found && found < count; i++){
+            if(!contains(neighbours, offset, found, search.points[i])){
+                neighbours[offset + found++] = search.points[i];
+            }
+        }
+
+        sortByDistance(point, neighbours, offset, found);
+    }
+
+    private boolean contains(int[] array, int offset, int length, int value){
+        for(int i = offset; i < offset + length; i++){
+            if(array[i] == value){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sortByDistance(int point, int[] neighbours, int offset, int length){
+        for(int i = offset + 1; i < offset + length; i++){
+            int neighbour = neighbours[i];
+            double distance = squaredDistance(point, neighbour);
+            int j = i;
+            while(j > offset && squaredDistance(point, neighbours[j - 1]) > distance){
+                neighbours[j] = neighbours[j - 1];
+                j--;
+            }
+            neighbours[j] = neighbour;
+        }
+    }
+
+    private double squaredDistance(int first, int second){
+        double dx = x[first] - x[second];
+        double dy = y[first] - y[second];
+        return dx * dx + dy * dy;
+    }
+
+    private void build(int lo, int hi){
+        if(hi - lo <= LEAF_SIZE){
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = lo; i < hi; i++){
+            int point = order[i];
+            minX = Math.min(minX, x[point]);
+            maxX = Math.max(maxX, x[point]);
+            minY = Math.min(minY, y[point]);
+            maxY = Math.max(maxY, y[point]);
+        }
+
+        int middle = (lo + hi) >>> 1;
+        double[] coordinates = (maxX - minX >= maxY - minY) ? x : y;
+        splitDimension[middle] = (byte) ((coordinates == x) ? 0 : 1);
+        select(coordinates, lo, hi - 1, middle);
+
+        build(lo, middle);
+        build(middle + 1, hi);
+    }
+
+    /**
+     * Quickselect, after it order[k] has the median coordinate of range,
+     * points before have smaller or equal coordinate and points after bigger or equal
+     */
+    private void select(double[] coordinates, int lo, int hi, int k){
+        while(hi > lo){
+            double pivot = coordinates[order[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+
+            while(i <= j){
+                while(coordinates[order[i]] < pivot) i++;
+                while(coordinates[order[j]] > pivot) j--;
+                if(i <= j){
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+
+            if(k <= j){
+                hi = j;
+            }else if(k >= i){
+                lo = i;
+            }else{
+                return;
+            }
+        }
+    }
+
+    private void search(Search search, int lo, int hi){
+        if(hi - lo <= LEAF_SIZE){
+            for(int i = lo; i < hi; i++){
+                search.offer(order[i], orderedX[i], orderedY[i]);
+            }
+            return;
+        }
+
+        int middle = (lo + hi) >>> 1;
+        boolean splitX = splitDimension[middle] == 0;
+        double split = splitX ? orderedX[middle] : orderedY[middle];
+        double difference = (splitX ? search.qx : search.qy) - split;
+
+        search.offer(order[middle], orderedX[middle], orderedY[middle]);
+
+        boolean lowAllowed = search.allowsLow(splitX, split);
+        boolean highAllowed = search.allowsHigh(splitX, split);
+
+        if(difference < 0){
+            if(lowAllowed) search(search, lo, middle);
+            if(highAllowed && search.accepts(difference * difference)) search(search, middle + 1, hi);
+        }else{
+            if(highAllowed) search(search, middle + 1, hi);
+            if(lowAllowed && search.accepts(difference * difference)) search(search, lo, middle);
+        }
+    }
+
+    private static double[] coordinatesX(CoordinateDistances coordinates){
+        double[] x = new double[coordinates.size()];
+        for(int i = 0; i < x.length; i++){
+            x[i] = coordinates.getX(i);
+        }
+        return x;
+    }
+
+    private static double[] coordinatesY(CoordinateDistances coordinates){
+        double[] y = new double[coordinates.size()];
+        for(int i = 0; i < y.length; i++){
+            y[i] = coordinates.getY(i);
+        }
+        return y;
+    }
+
+    /**
+     * State of one search, the nearest points are kept sorted by insertion
+     */
+    private static final class Search {
+        final int[] points;
+        final double[] distances;
+        int found;
+        double qx;
+        double qy;
+        int quadrant;
+        int excluded;
+
+        Search(int count) {
+            points = new int[count];
+            distances = new double[count];
+        }
+
+        void start(double qx, double qy, int quadrant, int excluded){
+            this.qx = qx;
+            this.qy = qy;
+            this.quadrant = quadrant;
+            this.excluded = excluded;
+            this.found = 0;
+        }
+
+        boolean accepts(double squaredDistance){
+            return found < points.length || squaredDistance < distances[found - 1];
+        }
+
+        void offer(int point, double px, double py){
+            if(point == excluded || !inQuadrant(px, py)){
+                return;
+            }
+
+            double dx = px - qx;
+            double dy = py - qy;
+            double distance = dx * dx + dy * dy;
+            if(!accepts(distance)){
+                return;
+            }
+
+            int i = (found == points.length) ? found - 1 : found++;
+            while(i > 0 && distances[i - 1] > distance){
+                distances[i] = distances[i - 1];
+                points[i] = points[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            points[i] = point;
+        }
+
+        private boolean inQuadrant(double px, double py){
+            switch (quadrant){
+                case 0: return px >= qx && py >= qy;
+                case 1: return px < qx && py >= qy;
+                case 2: return px < qx && py < qy;
+                case 3: return px >= qx && py < qy;
+                default: return true;
+            }
+        }
+
+        /**
+         * Low side of split has coordinates <= split, it is skipped if quadrant needs only bigger ones
+         */
+        boolean allowsLow(boolean splitX, double split){
+            if(quadrant < 0){
+                return true;
+            }
+            boolean needsBigger = splitX ? (quadrant == 0 || quadrant == 3) : (quadrant == 0 || quadrant == 1);
+            return !needsBigger || split >= (splitX ? qx : qy);
+        }
+
+        /**
+         * High side of split has coordinates >= split, it is skipped if quadrant needs only smaller ones
+         */
+        boolean allowsHigh(boolean splitX, double split){
+            if(quadrant < 0){
+                return true;
+            }
+            boolean needsSmaller = splitX ? (quadrant == 1 || quadrant == 2) : (quadrant == 2 || quadrant == 3);
+            return !needsSmaller || split < (splitX ? qx : qy);
+        }
+    }
+}
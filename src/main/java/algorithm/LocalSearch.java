@@ -0,0 +1,316 @@
+package algorithm;
+
+/**
+ * Improves routes with 2-opt and Or-opt moves till local optimum or time limit
+ *
+ * Only moves creating an edge to one of candidate neighbours are checked and points which
+ * surroundings didn't change are skipped ( don't look bits ), so one pass costs O(n * neighbours)
+ * 2-opt reverses part of the route so it is used only for symmetric distances,
+ * Or-opt moves segment of up to 3 points to other place of the route
+ *
+ * Keeps its own scratch arrays, one instance can't be used by many threads
+ */
+final class LocalSearch {
+
+    private static final int MAX_SEGMENT_LENGTH = 3;
+    private static final int TIME_CHECK_INTERVAL = 64;
+    private static final double EPSILON = 1e-9;
+
+    private final DistanceProvider distances;
+    private final CandidateNeighbours neighbours;
+    private final boolean symmetric;
+    private final int size;
+
+    // route as a cycle, start point can be on any position till the route is written back
+    private final int[] tour;
+    private final int[] position;
+    // point is in the queue only if its don't look bit is off
+    private final boolean[] dontLook;
+    private final int[] queue;
+    private int queueHead;
+    private int queueSize;
+
+    LocalSearch(DistanceProvider distances, CandidateNeighbours neighbours) {
+        this.distances = distances;
+        this.neighbours = neighbours;
+        this.symmetric = distances.isSymmetric();
+        this.size = distances.size();
+
+        tour = new int[size];
+        position = new int[size];
+        dontLook = new boolean[size];
+        queue = new int[size];
+    }
+
+    /**
+     * Improves route in place, first and last gene stays the start point
+     * @param genes flat array of routes
+     * @param offset index of the first gene of route
+     * @param timeLimit max time in nanoseconds, 0 = till local optimum
+     * @return difference of route length, 0 or negative
+     */
+    double improve(int[] genes, int offset, long timeLimit){
+        return improve(genes, offset, timeLimit, null, 0);
+    }
+
+    /**
+     * Improves route in place starting only from given points, other points are checked when
+     * a move changes their edges, used to repair joints of routes which are already locally optimal
+     * @param points points checked first, null = all points
+     * @param count amount of given points
+     * @return difference of route length, 0 or negative
+     */
+    double improve(int[] genes, int offset, long timeLimit, int[] points, int count){
+        if(size < 5){
+            return 0.0;
+        }
+
+        long deadline = System.nanoTime() + timeLimit;
+        double delta = 0.0;
+        int start = genes[offset];
+
+        queueHead = 0;
+        queueSize = (points == null) ? size : 0;
+        for(int i = 0; i < size; i++){
+            tour[i] = genes[offset + i];
+            position[tour[i]] = i;
+            queue[i] = tour[i];
+            dontLook[tour[i]] = points != null;
+        }
+        for(int i = 0; i < count; i++){
+            push(points[i]);
+        }
+
+        for(int checks = 1; queueSize > 0; checks++){
+            if(timeLimit > 0 && checks % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline){
+                break;
+            }
+
+            int point = queue[queueHead];
+            queueHead = (queueHead + 1) % size;
+            queueSize--;
+            dontLook[point] = true;
+
+            double improvement = symmetric ? twoOpt(point) : 0.0;
+            if(improvement == 0.0){
+                improvement = orOpt(point);
+            }
+            delta += improvement;
+        }
+
+        int startPosition = position[start];
+        for(int i = 0; i < size; i++){
+            genes[offset + i] = tour[(startPosition + i) % size];
+        }
+        genes[offset + size] = start;
+
+        return delta;
+    }
+
+    /**
+     * Replaces edges (a, succ a) and (c, succ c) or (pred a, a) and (pred c, c)
+     * with edge (a, c) and edge between the other two points
+     * @return negative delta of performed move or 0 if there was no improving move
+     */
+    private double twoOpt(int a){
+        int b = next(a);
+        double abDistance = distances.distance(a, b);
+
+        for(int k = 0; k < neighbours.getCount(); k++){
+            int c = neighbours.get(a, k);
+            double acDistance = distances.distance(a, c);
+            if(acDistance >= abDistance){
+                break;
+            }
+
+            int d = next(c);
+            if(c == b || d == a){
+                continue;
+            }
+
+            double delta = acDistance + distances.distance(b, d) - abDistance - distances.distance(c, d);
+            if(delta < -EPSILON){
+                reverse(position[b], position[c], true);
+                push(a, b, c, d);
+                return delta;
+            }
+        }
+
+        int p = previous(a);
+        double paDistance = distances.distance(p, a);
+
+        for(int k = 0; k < neighbours.getCount(); k++){
+            int c = neighbours.get(a, k);
+            double acDistance = distances.distance(a, c);
+            if(acDistance >= paDistance){
+                break;
+            }
+
+            int e = previous(c);
+            if(c == p || e == a){
+                continue;
+            }
+
+            double delta = acDistance + distances.distance(p, e) - paDistance - distances.distance(e, c);
+            if(delta < -EPSILON){
+                reverse(position[a], position[e], true);
+                push(a, p, c, e);
+                return delta;
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Moves segment starting at given point between two neighbouring points, next to
+     * candidate neighbour of segment end, segment is reversed only for symmetric distances
+     * @return negative delta of performed move or 0 if there was no improving move
+     */
+    private double orOpt(int first){
+        for(int length = 1; length <= MAX_SEGMENT_LENGTH && length <= size - 3; length++){
+            int last = tour[(position[first] + length - 1) % size];
+            int p = previous(first);
+            int n = next(last);
+            double removeGain = distances.distance(p, first) + distances.distance(last, n) - distances.distance(p, n);
+
+            if(removeGain <= EPSILON){
+                continue;
+            }
+
+            for(int end = 0; end < 2; end++){
+                int segmentEnd = (end == 0) ? first : last;
+
+                for(int k = 0; k < neighbours.getCount(); k++){
+                    int c = neighbours.get(segmentEnd, k);
+                    if(distances.distance(segmentEnd, c) >= removeGain){
+                        break;
+                    }
+                    if(isInSegment(c, first, length)){
+                        continue;
+                    }
+
+                    // slot after c and slot before c
+                    for(int slot = 0; slot < 2; slot++){
+                        int x = (slot == 0) ? c : previous(c);
+                        int y = next(x);
+                        if(x == last || y == first || isInSegment(x, first, length)){
+                            continue;
+                        }
+
+                        double slotDistance = distances.distance(x, y);
+                        double delta = distances.distance(x, first) + distances.distance(last, y)
+                                - slotDistance - removeGain;
+                        if(delta < -EPSILON){
+                            moveSegment(first, last, length, x, false);
+                            push(p, n, first, last);
+                            push(x, y, first, last);
+                            return delta;
+                        }
+
+                        if(symmetric){
+                            delta = distances.distance(x, last) + distances.distance(first, y)
+                                    - slotDistance - removeGain;
+                            if(delta < -EPSILON){
+                                moveSegment(first, last, length, x, true);
+                                push(p, n, first, last);
+                                push(x, y, first, last);
+                                return delta;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Moves segment between x and next of x with 3 reversals, the shorter part of route
+     * between segment and x is moved to other side of the segment
+     */
+    private void moveSegment(int first, int last, int length, int x, boolean reversed){
+        int segmentStart = position[first];
+        int segmentEnd = position[last];
+        int afterSegment = (segmentEnd + 1) % size;
+        int xPosition = position[x];
+        int afterX = (xPosition + 1) % size;
+        int forwardLength = Math.floorMod(xPosition - afterSegment, size) + 1;
+        int backwardLength = size - length - forwardLength;
+
+        if(forwardLength <= backwardLength){
+            // p S B y -> p B S y
+            if(!reversed){
+                reverse(segmentStart, segmentEnd, false);
+            }
+            reverse(afterSegment, xPosition, false);
+            reverse(segmentStart, xPosition, false);
+        }else{
+            // x B S n -> x S B n
+            int beforeSegment = Math.floorMod(segmentStart - 1, size);
+            reverse(afterX, beforeSegment, false);
+            if(!reversed){
+                reverse(segmentStart, segmentEnd, false);
+            }
+            reverse(afterX, segmentEnd, false);
+        }
+    }
+
+    /**
+     * Reverses points on positions from i to j going forward ( it can pass the end of array )
+     * @param complement if true the shorter one of given range and rest of route is reversed,
+     *                   which gives the same cycle in opposite direction
+     */
+    private void reverse(int i, int j, boolean complement){
+        int length = Math.floorMod(j - i, size) + 1;
+
+        if(complement && length > size / 2){
+            int temp = i;
+            i = (j + 1) % size;
+            j = Math.floorMod(temp - 1, size);
+            length = size - length;
+        }
+
+        for(int step = 0; step < length / 2; step++){
+            int first = tour[i];
+            int second = tour[j];
+            tour[i] = second;
+            position[second] = i;
+            tour[j] = first;
+            position[first] = j;
+
+            i = (i + 1 == size) ? 0 : i + 1;
+            j = (j == 0) ? size - 1 : j - 1;
+        }
+    }
+
+    private boolean isInSegment(int point, int first, int length){
+        return Math.floorMod(position[point] - position[first], size) < length;
+    }
+
+    private int next(int point){
+        int next = position[point] + 1;
+        return tour[(next == size) ? 0 : next];
+    }
+
+    private int previous(int point){
+        int previous = position[point] - 1;
+        return tour[(previous < 0) ? size - 1 : previous];
+    }
+
+    private void push(int a, int b, int c, int d){
+        push(a);
+        push(b);
+        push(c);
+        push(d);
+    }
+
+    private void push(int point){
+        if(dontLook[point]){
+            dontLook[point] = false;
+            queue[(queueHead + queueSize) % size] = point;
+            queueSize++;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package algorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Distances matrix read directly from memory-mapped binary file, nothing is copied on the heap
+ * so opening is near-instant and page cache is shared between processes reading the same file
+ *
+ * File format ( little endian ):
+ *   header of HEADER_SIZE bytes
+ *     int   magic "TSPM"
+ *     short version
+ *     byte  element type ( ElementType ordinal )
+ *     byte  symmetric flag, 1 = only lower triangle with diagonal is stored
+ *     int   amount of points n
+ *   rows of distances
+ *     full matrix - n rows of n elements
+ *     symmetric   - row i has i + 1 elements, distance(i, j) for j <= i
+ *
+ * File is mapped in blocks of whole rows so files larger than 2 GB are supported
+ */
+public class MappedDistances implements DistanceProvider {
+
+    public static final int MAGIC = 0x5453504D;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final long MAX_BLOCK_SIZE = Integer.MAX_VALUE;
+
+    public enum ElementType {
+        FLOAT32(4),
+        FLOAT64(8),
+        INT32(4);
+
+        private final int size;
+
+        ElementType(int size) {
+            this.size = size;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private final int size;
+    private final ElementType elementType;
+    private final boolean symmetric;
+    private final ByteBuffer[] blocks;
+    // block and byte offset inside of the block of every row
+    private final int[] rowBlock;
+    private final int[] rowOffset;
+
+    private MappedDistances(int size, ElementType elementType, boolean symmetric, ByteBuffer[] blocks,
+                            int[] rowBlock, int[] rowOffset) {
+        this.size = size;
+        this.elementType = elementType;
+        this.symmetric = symmetric;
+        this.blocks = blocks;
+        this.rowBlock = rowBlock;
+        this.rowOffset = rowOffset;
+    }
+
+    /**
+     * Maps distances file to memory
+     * throws IllegalArgumentException() if file has invalid header or size
+     */
+    public static MappedDistances open(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while(header.hasRemaining() && channel.read(header) != -1);
+            header.flip();
+
+            if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC){
+                throw new IllegalArgumentException("Not a distances matrix file");
+            }
+            if(header.getShort() != VERSION){
+                throw new IllegalArgumentException("Unsupported distances matrix version");
+            }
+
+            int elementTypeIndex = header.get();
+            if(elementTypeIndex < 0 || elementTypeIndex >= ElementType.values().length){
+                throw new IllegalArgumentException("Unsupported element type");
+            }
+
+            ElementType elementType = ElementType.values()[elementTypeIndex];
+            boolean symmetric = header.get() == 1;
+            int size = header.getInt();
+            if(size < 1){
+                throw new IllegalArgumentException("Incorrect amount of points " + size);
+            }
+
+            if(channel.size() != HEADER_SIZE + dataSize(size, elementType, symmetric)){
+                throw new IllegalArgumentException("Incorrect data size");
+            }
+
+            int[] rowBlock = new int[size];
+            int[] rowOffset = new int[size];
+            int blocksCount = 0;
+            long blockSize = 0;
+            long[] blockStart = new long[1];
+            long[] blockLength = new long[1];
+            long position = HEADER_SIZE;
+
+            for(int row = 0; row < size; row++){
+                long rowSize = rowLength(row, size, symmetric) * (long) elementType.getSize();
+
+                if(blocksCount == 0 || blockSize + rowSize > MAX_BLOCK_SIZE){
+                    if(blocksCount == blockStart.length){
+                        blockStart = Arrays.copyOf(blockStart, blocksCount * 2);
+                        blockLength = Arrays.copyOf(blockLength, blocksCount * 2);
+                    }
+                    blockStart[blocksCount++] = position;
+                    blockSize = 0;
+                }
+
+                rowBlock[row] = blocksCount - 1;
+                rowOffset[row] = (int) blockSize;
+                blockSize += rowSize;
+                blockLength[blocksCount - 1] = blockSize;
+                position += rowSize;
+            }
+
+            ByteBuffer[] blocks = new ByteBuffer[blocksCount];
+            for(int i = 0; i < blocksCount; i++){
+                MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockStart[i], blockLength[i]);
+                blocks[i] = block.order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            return new MappedDistances(size, elementType, symmetric, blocks, rowBlock, rowOffset);
+        }
+    }
+
+    /**
+     * Writes distances to file in mapped distances format
+     * @param symmetric if true only lower triangle is written, distance(i, j) has to equal distance(j, i)
+     */
+    public static void write(Path path, DistanceProvider distances, ElementType elementType, boolean symmetric)
+            throws IOException {
+        int size = distances.size();
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .put((byte) elementType.ordinal())
+                    .put((byte) (symmetric ? 1 : 0))
+                    .putInt(size);
+            while(buffer.position() < HEADER_SIZE){
+                buffer.put((byte) 0);
+            }
+
+            for(int row = 0; row < size; row++){
+                int rowLength = rowLength(row, size, symmetric);
+
+                for(int column = 0; column < rowLength; column++){
+                    if(buffer.remaining() < elementType.getSize()){
+                        flush(channel, buffer);
+                    }
+
+                    double distance = distances.distance(row, column);
+                    switch (elementType){
+                        case FLOAT32:
+                            buffer.putFloat((float) distance);
+                            break;
+                        case FLOAT64:
+                            buffer.putDouble(distance);
+                            break;
+                        default:
+                            buffer.putInt((int) Math.round(distance));
+                    }
+                }
+            }
+
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int rowLength(int row, int size, boolean symmetric){
+        return symmetric ? row + 1 : size;
+    }
+
+    private static long dataSize(int size, ElementType elementType, boolean symmetric){
+        long elements = symmetric ? (long) size * (size + 1) / 2 : (long) size * size;
+
+        return elements * elementType.getSize();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        if(symmetric && to > from){
+            int temp = from;
+            from = to;
+            to = temp;
+        }
+
+        ByteBuffer block = blocks[rowBlock[from]];
+        int index = rowOffset[from] + to * elementType.getSize();
+
+        switch (elementType){
+            case FLOAT32:
+                return block.getFloat(index);
+            case FLOAT64:
+                return block.getDouble(index);
+            default:
+                return block.getInt(index);
+        }
+    }
+
+    public ElementType getElementType() {
+        return elementType;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+}
@@ -0,0 +1,41 @@
+package algorithm;
+
+/**
+ * Distances read from dense [n][n] matrix
+ */
+public class MatrixDistances implements DistanceProvider {
+
+    private final double[][] distances;
+    private final boolean symmetric;
+
+    public MatrixDistances(double[][] distances) {
+        this.distances = distances;
+        this.symmetric = checkSymmetric(distances);
+    }
+
+    private static boolean checkSymmetric(double[][] distances){
+        for(int i = 0; i < distances.length; i++){
+            for(int j = i + 1; j < distances.length; j++){
+                if(distances[i][j] != distances[j][i]){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return distances.length;
+    }
+
+    @Override
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return distances[from][to];
+    }
+}
@@ -0,0 +1,11 @@
+package algorithm;
+
+/**
+ * Defines where elite individuals of an island are sent on migration
+ * RING   - island i sends migrants to island i + 1, last island sends to the first one
+ * RANDOM - every island sends migrants to randomly picked other island
+ */
+public enum MigrationTopology {
+    RING,
+    RANDOM
+}
@@ -0,0 +1,14 @@
+package algorithm;
+
+/**
+ * Division of points into clusters solved separately by decomposition
+ * GRID                - strips with equal amount of points by x, every strip cut by y into cells of cluster size
+ * SPACE_FILLING_CURVE - parts of cluster size of points sorted by Hilbert curve index
+ * K_MEANS             - points of the nearest centroid, centroids start from curve parts and move to the middle
+ *                       of their points, clusters are the most compact but not equal
+ */
+public enum PartitionStrategy {
+    GRID,
+    SPACE_FILLING_CURVE,
+    K_MEANS
+}
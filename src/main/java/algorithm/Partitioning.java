@@ -0,0 +1,214 @@
+package algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Divides points with coordinates into clusters of about clusterSize points, see PartitionStrategy
+ * Clusters are arrays of point numbers, every point is in exactly one cluster
+ */
+final class Partitioning {
+
+    private static final int K_MEANS_ITERATIONS = 10;
+    // k-means cluster bigger than this amount of cluster sizes is split by Hilbert curve
+    private static final int MAX_CLUSTER_SIZES = 2;
+    private static final int CHUNK_SIZE = 4096;
+
+    private Partitioning() { }
+
+    static int[][] partition(PartitionStrategy strategy, CoordinateDistances coordinates, int clusterSize){
+        double[] x = new double[coordinates.size()];
+        double[] y = new double[coordinates.size()];
+        for(int i = 0; i < x.length; i++){
+            x[i] = coordinates.getX(i);
+            y[i] = coordinates.getY(i);
+        }
+
+        switch (strategy){
+            case GRID:
+                return grid(x, y, clusterSize);
+            case K_MEANS:
+                return kMeans(x, y, clusterSize);
+            default:
+                return spaceFillingCurve(x, y, clusterSize);
+        }
+    }
+
+    private static int[][] spaceFillingCurve(double[] x, double[] y, int clusterSize){
+        int[] points = IntStream.range(0, x.length).toArray();
+        sortBy(curveIndexes(x, y), points, 0, points.length);
+
+        List<int[]> clusters = new ArrayList<>();
+        split(points, 0, points.length, clusterSize, clusters);
+        return clusters.toArray(new int[0][]);
+    }
+
+    private static int[][] grid(double[] x, double[] y, int clusterSize){
+        int[] points = IntStream.range(0, x.length).toArray();
+        int strips = Math.max(1, (int) Math.round(Math.sqrt(clusterCount(points.length, clusterSize))));
+        sortBy(x, points, 0, points.length);
+
+        List<int[]> clusters = new ArrayList<>();
+        for(int strip = 0; strip < strips; strip++){
+            int from = (int) ((long) points.length * strip / strips);
+            int to = (int) ((long) points.length * (strip + 1) / strips);
+            sortBy(y, points, from, to);
+            split(points, from, to, clusterSize, clusters);
+        }
+        return clusters.toArray(new int[0][]);
+    }
+
+    /**
+     * Lloyd iterations started from centroids of Hilbert curve parts till no point changes its cluster,
+     * the nearest centroid is searched by KdTree, so one iteration costs O(n log k)
+     */
+    private static int[][] kMeans(double[] x, double[] y, int clusterSize){
+        double[] curveIndexes = curveIndexes(x, y);
+        int[][] initial = spaceFillingCurve(x, y, clusterSize);
+        int clusterCount = initial.length;
+        int[] assignment = new int[x.length];
+        for(int cluster = 0; cluster < clusterCount; cluster++){
+            for(int point : initial[cluster]){
+                assignment[point] = cluster;
+            }
+        }
+
+        double[] centroidX = new double[clusterCount];
+        double[] centroidY = new double[clusterCount];
+        int[] sizes = new int[clusterCount];
+        for(int iteration = 0; iteration < K_MEANS_ITERATIONS; iteration++){
+            centroids(x, y, assignment, centroidX, centroidY, sizes);
+            KdTree tree = new KdTree(centroidX.clone(), centroidY.clone());
+            int chunks = (x.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            int changed = IntStream.range(0, chunks).parallel().map(chunk -> {
+                int[] nearest = new int[1];
+                int changes = 0;
+                for(int point = chunk * CHUNK_SIZE; point < Math.min(x.length, (chunk + 1) * CHUNK_SIZE); point++){
+                    tree.nearest(x[point], y[point], -1, -1, nearest);
+                    if(assignment[point] != nearest[0]){
+                        assignment[point] = nearest[0];
+                        changes++;
+                    }
+                }
+                return changes;
+            }).sum();
+
+            if(changed == 0){
+                break;
+            }
+        }
+
+        Arrays.fill(sizes, 0);
+        for(int cluster : assignment){
+            sizes[cluster]++;
+        }
+        int[][] members = new int[clusterCount][];
+        for(int cluster = 0; cluster < clusterCount; cluster++){
+            members[cluster] = new int[sizes[cluster]];
+            sizes[cluster] = 0;
+        }
+        for(int point = 0; point < assignment.length; point++){
+            members[assignment[point]][sizes[assignment[point]]++] = point;
+        }
+
+        List<int[]> clusters = new ArrayList<>();
+        for(int[] cluster : members){
+            if(cluster.length > MAX_CLUSTER_SIZES * clusterSize){
+                sortBy(curveIndexes, cluster, 0, cluster.length);
+                split(cluster, 0, cluster.length, clusterSize, clusters);
+            }else if(cluster.length > 0){
+                clusters.add(cluster);
+            }
+        }
+        return clusters.toArray(new int[0][]);
+    }
+
+    /**
+     * Moves centroids to the middle of their points, centroid of empty cluster stays
+     */
+    private static void centroids(double[] x, double[] y, int[] assignment, double[] centroidX, double[] centroidY,
+                                  int[] sizes){
+        double[] sumX = new double[centroidX.length];
+        double[] sumY = new double[centroidY.length];
+        Arrays.fill(sizes, 0);
+
+        for(int point = 0; point < assignment.length; point++){
+            sumX[assignment[point]] += x[point];
+            sumY[assignment[point]] += y[point];
+            sizes[assignment[point]]++;
+        }
+
+        for(int cluster = 0; cluster < sizes.length; cluster++){
+            if(sizes[cluster] > 0){
+                centroidX[cluster] = sumX[cluster] / sizes[cluster];
+                centroidY[cluster] = sumY[cluster] / sizes[cluster];
+            }
+        }
+    }
+
+    /**
+     * @return index of every point along Hilbert curve over grid covering all points
+     */
+    private static double[] curveIndexes(double[] x, double[] y){
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < x.length; i++){
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        int side = 1 << PopulationSeeding.HILBERT_ORDER;
+        double scale = (side - 1) / Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_NORMAL);
+        double[] indexes = new double[x.length];
+        for(int i = 0; i < x.length; i++){
+            indexes[i] = PopulationSeeding.hilbertIndex((int) ((x[i] - minX) * scale), (int) ((y[i] - minY) * scale),
+                    side);
+        }
+        return indexes;
+    }
+
+    /**
+     * Sorts points from from to to by their values, values are rounded to 31 bits so a point
+     * and its value are sorted as one long
+     */
+    private static void sortBy(double[] values, int[] points, int from, int to){
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i = from; i < to; i++){
+            min = Math.min(min, values[points[i]]);
+            max = Math.max(max, values[points[i]]);
+        }
+
+        double scale = (max > min) ? Integer.MAX_VALUE / (max - min) : 0.0;
+        long[] keys = new long[to - from];
+        for(int i = from; i < to; i++){
+            keys[i - from] = ((long) ((values[points[i]] - min) * scale) << 32) | points[i];
+        }
+        Arrays.sort(keys);
+
+        for(int i = from; i < to; i++){
+            points[i] = (int) keys[i - from];
+        }
+    }
+
+    /**
+     * Adds points from from to to as clusters of equal size, not bigger than clusterSize
+     */
+    private static void split(int[] points, int from, int to, int clusterSize, List<int[]> clusters){
+        int count = clusterCount(to - from, clusterSize);
+
+        for(int cluster = 0; cluster < count; cluster++){
+            clusters.add(Arrays.copyOfRange(points, from + (int) ((long) (to - from) * cluster / count),
+                    from + (int) ((long) (to - from) * (cluster + 1) / count)));
+        }
+    }
+
+    private static int clusterCount(int points, int clusterSize){
+        return Math.max(1, (points + clusterSize - 1) / clusterSize);
+    }
+}
@@ -0,0 +1,77 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Flat storage of individuals
+ * Genes of individual i are stored in genes[i * genesLength, (i + 1) * genesLength)
+ * Length, fitness ( transformed reverse length ), upper pick bound and TourHash are stored in parallel arrays,
+ * lower pick bound of individual i is the upper pick bound of individual i - 1
+ * Hashes are kept only while solver uses fitness cache or duplicate policy
+ */
+final class Population {
+
+    final int genesLength;
+    final int capacity;
+    final int[] genes;
+    final double[] lengths;
+    final double[] fitness;
+    final double[] bounds;
+    final long[] hashes;
+    int size;
+
+    Population(int capacity, int genesLength) {
+        this(capacity, genesLength, null);
+    }
+
+    /**
+     * Uses arrays of reused population if they are big enough, arrays can be longer than needed
+     */
+    Population(int capacity, int genesLength, Population reused) {
+        this.capacity = capacity;
+        this.genesLength = genesLength;
+
+        int genesCount = Math.multiplyExact(capacity, genesLength);
+        if(reused != null && reused.genes.length >= genesCount && reused.lengths.length >= capacity){
+            genes = reused.genes;
+            lengths = reused.lengths;
+            fitness = reused.fitness;
+            bounds = reused.bounds;
+            hashes = reused.hashes;
+        }else{
+            genes = new int[genesCount];
+            lengths = new double[capacity];
+            fitness = new double[capacity];
+            bounds = new double[capacity];
+            hashes = new long[capacity];
+        }
+    }
+
+    int offset(int index){
+        return index * genesLength;
+    }
+
+    /**
+     * Copies genes, length and hash of individual to the slot of target population
+     */
+    void copyTo(int index, Population target, int targetIndex){
+        System.arraycopy(genes, offset(index), target.genes, target.offset(targetIndex), genesLength);
+        target.lengths[targetIndex] = lengths[index];
+        target.hashes[targetIndex] = hashes[index];
+    }
+
+    void set(int index, int[] newGenes, double length, long hash){
+        System.arraycopy(newGenes, 0, genes, offset(index), genesLength);
+        lengths[index] = length;
+        hashes[index] = hash;
+    }
+
+    /**
+     * @return read-only copy of individual
+     */
+    Individual toIndividual(int index){
+        int offset = offset(index);
+
+        return new Individual(Arrays.copyOfRange(genes, offset, offset + genesLength), lengths[index]);
+    }
+}
@@ -0,0 +1,317 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Construction heuristics writing routes straight to flat genes array
+ * Every route starts and ends with the start point
+ */
+final class PopulationSeeding {
+
+    private static final int NEAREST_CANDIDATES = 3;
+    private static final double GREEDY_NOISE = 0.1;
+    static final int HILBERT_ORDER = 15;
+
+    private PopulationSeeding() { }
+
+    static void seed(SeedingStrategy strategy, DistanceProvider distances, CandidateNeighbours neighbours,
+                     int start, RandomSource random, int[] genes, int offset){
+        switch (strategy){
+            case GREEDY_EDGE:
+                greedyEdge(distances, neighbours, start, random, genes, offset);
+                break;
+            case SPACE_FILLING_CURVE:
+                if(distances instanceof CoordinateDistances){
+                    spaceFillingCurve((CoordinateDistances) distances, start, random, genes, offset);
+                }else{
+                    // curve needs coordinates
+                    nearestNeighbour(distances, neighbours, start, random, genes, offset);
+                }
+                break;
+            default:
+                nearestNeighbour(distances, neighbours, start, random, genes, offset);
+        }
+    }
+
+    /**
+     * Randomized nearest neighbour, next point is randomly picked from up to 3 nearest not visited
+     * candidate neighbours, if all candidates are visited the nearest not visited point is searched
+     */
+    static void nearestNeighbour(DistanceProvider distances, CandidateNeighbours neighbours, int start,
+                                 RandomSource random, int[] genes, int offset){
+        int size = distances.size();
+        boolean[] visited = new boolean[size];
+        // not visited points, removed by swapping with the last one
+        int[] notVisited = new int[size];
+        int[] indexOf = new int[size];
+        int notVisitedCount = size;
+        int[] candidates = new int[NEAREST_CANDIDATES];
+
+        for(int i = 0; i < size; i++){
+            notVisited[i] = i;
+            indexOf[i] = i;
+        }
+
+        int current = start;
+        for(int i = 0; i < size; i++){
+            genes[offset + i] = current;
+            visited[current] = true;
+
+            int last = notVisited[--notVisitedCount];
+            notVisited[indexOf[current]] = last;
+            indexOf[last] = indexOf[current];
+
+            if(notVisitedCount == 0){
+                break;
+            }
+
+            int found = 0;
+            for(int k = 0; k < neighbours.getCount() && found < NEAREST_CANDIDATES; k++){
+                int neighbour = neighbours.get(current, k);
+                if(!visited[neighbour]){
+                    candidates[found++] = neighbour;
+                }
+            }
+
+            if(found > 0){
+                // the nearest candidate is picked most often
+                int pick = random.nextInt(found + 1);
+                current = candidates[pick == found ? 0 : pick];
+            }else{
+                int nearest = notVisited[0];
+                for(int j = 1; j < notVisitedCount; j++){
+                    if(distances.distance(current, notVisited[j]) < distances.distance(current, nearest)){
+                        nearest = notVisited[j];
+                    }
+                }
+                current = nearest;
+            }
+        }
+
+        genes[offset + size] = start;
+    }
+
+    /**
+     * Greedy edge matching on candidate edges, lengths are multiplied by random factor from 1 to 1 + GREEDY_NOISE
+     * Edges are added from the shortest one if both points have less than 2 edges and edge doesn't close a cycle,
+     * remaining fragments are joined from the end of current fragment to the nearest end of other fragment
+     */
+    static void greedyEdge(DistanceProvider distances, CandidateNeighbours neighbours, int start,
+                           RandomSource random, int[] genes, int offset){
+        int size = distances.size();
+        int count = neighbours.getCount();
+        long[] edges = new long[size * count];
+
+        // float bits of positive length keep order, edge index is in lower bits
+        for(int i = 0; i < edges.length; i++){
+            int from = i / count;
+            double length = distances.distance(from, neighbours.get(from, i % count))
+                    * (1.0 + GREEDY_NOISE * random.nextDouble());
+            edges[i] = ((long) Float.floatToIntBits((float) Math.max(length, 0.0)) << 32) | i;
+        }
+        Arrays.sort(edges);
+
+        int[] firstLink = new int[size];
+        int[] secondLink = new int[size];
+        int[] fragment = new int[size];
+        Arrays.fill(firstLink, -1);
+        Arrays.fill(secondLink, -1);
+        for(int i = 0; i < size; i++){
+            fragment[i] = i;
+        }
+
+        for(long edge : edges){
+            int index = (int) edge;
+            int from = index / count;
+            int to = neighbours.get(from, index % count);
+
+            if(secondLink[from] != -1 || secondLink[to] != -1){
+                continue;
+            }
+
+            int fromFragment = find(fragment, from);
+            int toFragment = find(fragment, to);
+            if(fromFragment == toFragment){
+                continue;
+            }
+
+            link(firstLink, secondLink, from, to);
+            fragment[fromFragment] = toFragment;
+        }
+
+        joinFragments(distances, firstLink, secondLink, fragment);
+        writeCycle(firstLink, secondLink, start, genes, offset);
+    }
+
+    /**
+     * Joins fragments into one cycle, from the end of current fragment to the nearest free end of other one
+     */
+    private static void joinFragments(DistanceProvider distances, int[] firstLink, int[] secondLink, int[] fragment){
+        int size = firstLink.length;
+        int[] ends = new int[2 * size];
+        int endsCount = 0;
+
+        for(int i = 0; i < size; i++){
+            if(secondLink[i] == -1){
+                ends[endsCount++] = i;
+                if(firstLink[i] == -1){
+                    // single point is both ends of its fragment
+                    ends[endsCount++] = i;
+                }
+            }
+        }
+
+        if(endsCount == 0){
+            return;
+        }
+
+        int first = ends[0];
+        int current = otherEnd(firstLink, secondLink, first);
+        removeEnd(ends, endsCount--, first);
+        removeEnd(ends, endsCount--, current);
+
+        while(endsCount > 0){
+            int nearestIndex = 0;
+            for(int i = 1; i < endsCount; i++){
+                if(distances.distance(current, ends[i]) < distances.distance(current, ends[nearestIndex])){
+                    nearestIndex = i;
+                }
+            }
+
+            int next = ends[nearestIndex];
+            int nextEnd = otherEnd(firstLink, secondLink, next);
+            removeEnd(ends, endsCount--, next);
+            removeEnd(ends, endsCount--, nextEnd);
+
+            link(firstLink, secondLink, current, next);
+            fragment[find(fragment, current)] = find(fragment, next);
+            current = nextEnd;
+        }
+
+        link(firstLink, secondLink, current, first);
+    }
+
+    /**
+     * Walks from point along its fragment to the other free end
+     */
+    private static int otherEnd(int[] firstLink, int[] secondLink, int point){
+        int previous = -1;
+        int current = point;
+
+        while(true){
+            int next = (firstLink[current] != previous) ? firstLink[current] : secondLink[current];
+            if(next == -1){
+                return current;
+            }
+            previous = current;
+            current = next;
+        }
+    }
+
+    private static void removeEnd(int[] ends, int endsCount, int point){
+        for(int i = 0; i < endsCount; i++){
+            if(ends[i] == point){
+                ends[i] = ends[endsCount - 1];
+                return;
+            }
+        }
+    }
+
+    private static void link(int[] firstLink, int[] secondLink, int from, int to){
+        if(firstLink[from] == -1) firstLink[from] = to; else secondLink[from] = to;
+        if(firstLink[to] == -1) firstLink[to] = from; else secondLink[to] = from;
+    }
+
+    private static int find(int[] fragment, int point){
+        while(fragment[point] != point){
+            fragment[point] = fragment[fragment[point]];
+            point = fragment[point];
+        }
+        return point;
+    }
+
+    /**
+     * Writes cycle described by links of every point as route from start point
+     */
+    private static void writeCycle(int[] firstLink, int[] secondLink, int start, int[] genes, int offset){
+        int size = firstLink.length;
+        int previous = -1;
+        int current = start;
+
+        for(int i = 0; i < size; i++){
+            genes[offset + i] = current;
+            int next = (firstLink[current] != previous) ? firstLink[current] : secondLink[current];
+            previous = current;
+            current = next;
+        }
+
+        genes[offset + size] = start;
+    }
+
+    /**
+     * Sorts points by Hilbert curve index over grid shifted by random offset and starts route from start point
+     */
+    static void spaceFillingCurve(CoordinateDistances coordinates, int start, RandomSource random,
+                                  int[] genes, int offset){
+        int size = coordinates.size();
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        for(int i = 0; i < size; i++){
+            minX = Math.min(minX, coordinates.getX(i));
+            maxX = Math.max(maxX, coordinates.getX(i));
+            minY = Math.min(minY, coordinates.getY(i));
+            maxY = Math.max(maxY, coordinates.getY(i));
+        }
+
+        int side = 1 << HILBERT_ORDER;
+        double extent = Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_NORMAL);
+        // points take a half of the grid, random shift gives different curves
+        double scale = (side / 2.0 - 1) / extent;
+        double shiftX = random.nextDouble() * side / 2.0;
+        double shiftY = random.nextDouble() * side / 2.0;
+
+        long[] keys = new long[size];
+        for(int i = 0; i < size; i++){
+            int gridX = (int) ((coordinates.getX(i) - minX) * scale + shiftX);
+            int gridY = (int) ((coordinates.getY(i) - minY) * scale + shiftY);
+            keys[i] = (hilbertIndex(gridX, gridY, side) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int startPosition = 0;
+        while((int) keys[startPosition] != start){
+            startPosition++;
+        }
+
+        for(int i = 0; i < size; i++){
+            genes[offset + i] = (int) keys[(startPosition + i) % size];
+        }
+        genes[offset + size] = start;
+    }
+
+    /**
+     * Distance along Hilbert curve of cell (x, y) of side x side grid
+     */
+    static long hilbertIndex(int x, int y, int side){
+        long index = 0;
+
+        for(int s = side / 2; s > 0; s /= 2){
+            int rx = ((x & s) > 0) ? 1 : 0;
+            int ry = ((y & s) > 0) ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+
+            if(ry == 0){
+                if(rx == 1){
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,45 @@
+package algorithm;
+
+/**
+ * Source of random numbers used by solver and genetic operators
+ * Solver creates one source per population ( island ) and per seeded individual from seeds
+ * derived from one master seed, so runs with the same seed are reproducible regardless of threads
+ * Source used with checkpoints has to be Serializable
+ */
+@FunctionalInterface
+public interface RandomSource {
+
+    /**
+     * @return next 64 uniformly distributed random bits
+     */
+    long nextLong();
+
+    /**
+     * @return uniformly distributed int from 0 inclusive to bound exclusive
+     * throws IllegalArgumentException() if bound isn't positive
+     */
+    default int nextInt(int bound){
+        if(bound <= 0){
+            throw new IllegalArgumentException("Bound has to be positive");
+        }
+
+        // Lemire's multiply and shift, rejects the few values which would make result biased
+        long product = (nextLong() >>> 32) * bound;
+        long low = product & 0xFFFFFFFFL;
+        if(low < bound){
+            long threshold = (0x100000000L - bound) % bound;
+            while(low < threshold){
+                product = (nextLong() >>> 32) * bound;
+                low = product & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    /**
+     * @return uniformly distributed double from 0 inclusive to 1 exclusive
+     */
+    default double nextDouble(){
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
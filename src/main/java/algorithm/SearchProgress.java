@@ -0,0 +1,95 @@
+package algorithm;
+
+/**
+ * State of the running search read by stop criteria
+ * Updated by solver once per generation, all times are System.nanoTime() values
+ */
+public class SearchProgress {
+
+    private long generation;
+    private long startTime;
+    private long time;
+    private double bestLength = Double.POSITIVE_INFINITY;
+    private long improvementGeneration;
+    private long improvementTime;
+
+    void start(long time, double bestLength){
+        this.generation = 0;
+        this.startTime = time;
+        this.time = time;
+        this.bestLength = bestLength;
+        this.improvementGeneration = 0;
+        this.improvementTime = time;
+    }
+
+    void update(long generations, long time, double bestLength){
+        this.generation += generations;
+        this.time = time;
+
+        if(bestLength < this.bestLength){
+            this.bestLength = bestLength;
+            this.improvementGeneration = generation;
+            this.improvementTime = time;
+        }
+    }
+
+    /**
+     * Sets best length of routes repaired after change of points, counted as improvement
+     */
+    void resetBestLength(double bestLength){
+        this.bestLength = bestLength;
+        this.improvementGeneration = generation;
+        this.improvementTime = time;
+    }
+
+    /**
+     * Moves start and the last improvement time by paused time
+     */
+    void shift(long pausedTime){
+        startTime += pausedTime;
+        improvementTime += pausedTime;
+    }
+
+    /**
+     * @return generations done since start of the run
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return System.nanoTime() of the last update
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return time since start of the run in nanoseconds
+     */
+    public long getElapsedTime() {
+        return time - startTime;
+    }
+
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * @return generation of the last improvement of the best length
+     */
+    public long getImprovementGeneration() {
+        return improvementGeneration;
+    }
+
+    public long getGenerationsWithoutImprovement() {
+        return generation - improvementGeneration;
+    }
+
+    /**
+     * @return time since the last improvement of the best length in nanoseconds
+     */
+    public long getTimeWithoutImprovement() {
+        return time - improvementTime;
+    }
+}
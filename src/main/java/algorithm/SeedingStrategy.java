@@ -0,0 +1,14 @@
+package algorithm;
+
+/**
+ * Heuristic used to build part of the first population
+ * NEAREST_NEIGHBOUR   - goes to one of the nearest not visited points
+ * GREEDY_EDGE         - adds the shortest edges which don't close a cycle, edge lengths are randomly disturbed
+ * SPACE_FILLING_CURVE - visits points in order of Hilbert curve over randomly shifted grid,
+ *                       requires CoordinateDistances, nearest neighbour is used otherwise
+ */
+public enum SeedingStrategy {
+    NEAREST_NEIGHBOUR,
+    GREEDY_EDGE,
+    SPACE_FILLING_CURVE
+}
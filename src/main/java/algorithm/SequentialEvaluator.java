@@ -0,0 +1,14 @@
+package algorithm;
+
+/**
+ * Evaluates routes one after another on the calling thread
+ */
+public class SequentialEvaluator implements FitnessEvaluator {
+
+    @Override
+    public void evaluate(DistanceProvider distances, int[] genes, int genesLength, double[] lengths, int from, int to) {
+        for(int i = from; i < to; i++){
+            lengths[i] = FitnessEvaluator.routeLength(distances, genes, i * genesLength, genesLength);
+        }
+    }
+}
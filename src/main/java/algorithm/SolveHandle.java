@@ -0,0 +1,160 @@
+package algorithm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle of run started with TSPSolver.solveAsync()
+ * Completes with the best individual, can be cancelled, paused and resumed
+ * Every improvement of the best individual is published to subscribers as ImprovementEvent,
+ * events not requested yet are buffered, up to Flow.defaultBufferSize() per subscriber,
+ * newer events for subscriber with full buffer are dropped, so solver never waits for them
+ * Subscribers are completed when the run ends or is cancelled
+ */
+public class SolveHandle implements Future<Individual>, Flow.Publisher<ImprovementEvent> {
+
+    private final CompletableFuture<Individual> result = new CompletableFuture<>();
+    private final SubmissionPublisher<ImprovementEvent> publisher = new SubmissionPublisher<>();
+    private final Object pauseLock = new Object();
+    private volatile boolean cancelled;
+    private volatile boolean paused;
+    private volatile ImprovementEvent lastImprovement;
+
+    SolveHandle() { }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ImprovementEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Stops the run after the current generation and completes subscribers
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        cancelled = true;
+        synchronized (pauseLock){
+            pauseLock.notifyAll();
+        }
+        boolean cancelledNow = result.cancel(mayInterruptIfRunning);
+        // closed publisher throws on offer, so the last generation can't publish meanwhile
+        synchronized (publisher){
+            publisher.close();
+        }
+        return cancelledNow;
+    }
+
+    /**
+     * Pauses the run after the current generation ( after the current migration interval for islands )
+     * Paused time doesn't count to time limits
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (pauseLock){
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return result.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    @Override
+    public Individual get() throws InterruptedException, ExecutionException {
+        return result.get();
+    }
+
+    @Override
+    public Individual get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return result.get(timeout, unit);
+    }
+
+    /**
+     * @return the best individual found so far, null before the first generation
+     */
+    public Individual getBestIndividual() {
+        ImprovementEvent improvement = lastImprovement;
+        return (improvement == null) ? null : improvement.getIndividual();
+    }
+
+    /**
+     * @return the last published improvement, null before the first generation
+     */
+    public ImprovementEvent getLastImprovement() {
+        return lastImprovement;
+    }
+
+    /**
+     * @return result as CompletableFuture, eg. to chain actions after the run
+     */
+    public CompletableFuture<Individual> toCompletableFuture() {
+        return result.thenApply(individual -> individual);
+    }
+
+    boolean isCancelRequested() {
+        return cancelled;
+    }
+
+    /**
+     * Waits while run is paused
+     * @return time spent in pause in nanoseconds
+     */
+    long awaitResume() {
+        if(!paused){
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        synchronized (pauseLock){
+            while(paused && !cancelled){
+                try{
+                    pauseLock.wait();
+                }catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    void publish(Individual individual, SearchProgress progress) {
+        ImprovementEvent improvement = new ImprovementEvent(individual, progress.getGeneration(),
+                progress.getElapsedTime());
+        lastImprovement = improvement;
+        synchronized (publisher){
+            if(!publisher.isClosed()){
+                publisher.offer(improvement, (subscriber, event) -> false);
+            }
+        }
+    }
+
+    void complete(Individual individual) {
+        result.complete(individual);
+        publisher.close();
+    }
+
+    void fail(Throwable throwable) {
+        result.completeExceptionally(throwable);
+        publisher.closeExceptionally(throwable);
+    }
+}
@@ -0,0 +1,34 @@
+package algorithm;
+
+/**
+ * Populations and buffers of solver, kept between runs of different instances
+ * Arrays are allocated again only when the next instance needs bigger ones
+ * Can be used only by one solver at once
+ */
+final class SolverScratch {
+
+    // set while solver uses the buffers
+    boolean inUse;
+    Population population;
+    Population nextPopulation;
+    Population descendants;
+    int[] breedGroup;
+    int[] mutationGroup;
+    int[] duplicateOf;
+    final CrossoverScratch crossover = new CrossoverScratch();
+    final TourHashSet descendantHashes = new TourHashSet();
+
+    void prepare(int populationSize, int genesLength){
+        population = new Population(populationSize, genesLength, population);
+        nextPopulation = new Population(populationSize, genesLength, nextPopulation);
+        // breed group can be extended by one individual to be even
+        descendants = new Population(2 * populationSize + 1, genesLength, descendants);
+        breedGroup = reuse(breedGroup, populationSize + 1);
+        mutationGroup = reuse(mutationGroup, populationSize);
+        duplicateOf = reuse(duplicateOf, descendants.capacity);
+    }
+
+    private static int[] reuse(int[] array, int length){
+        return (array == null || array.length < length) ? new int[length] : array;
+    }
+}
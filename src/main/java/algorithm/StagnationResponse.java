@@ -0,0 +1,11 @@
+package algorithm;
+
+/**
+ * Reaction to population without improvement for stagnationGenerations
+ * RESTART             - generates the whole population again, the best individual is kept
+ * DIVERSITY_INJECTION - replaces the worst part of population with seeding strategy routes
+ */
+public enum StagnationResponse {
+    RESTART,
+    DIVERSITY_INJECTION
+}
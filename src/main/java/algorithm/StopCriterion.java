@@ -0,0 +1,86 @@
+package algorithm;
+
+/**
+ * Condition ending the run, checked after every generation ( between migrations for islands )
+ * Criteria are combined with and() / or(), eg.
+ * StopCriterion.timeLimit(60000).or(StopCriterion.noImprovementGenerations(500))
+ */
+@FunctionalInterface
+public interface StopCriterion {
+
+    boolean isMet(SearchProgress progress);
+
+    default StopCriterion and(StopCriterion other){
+        return progress -> isMet(progress) && other.isMet(progress);
+    }
+
+    default StopCriterion or(StopCriterion other){
+        return progress -> isMet(progress) || other.isMet(progress);
+    }
+
+    static StopCriterion maxGenerations(long generations){
+        return progress -> progress.getGeneration() >= generations;
+    }
+
+    /**
+     * @param timeLimit time from start of the run in milliseconds
+     */
+    static StopCriterion timeLimit(long timeLimit){
+        long nanos = timeLimit * 1_000_000L;
+        return progress -> progress.getElapsedTime() >= nanos;
+    }
+
+    /**
+     * @param deadline System.nanoTime() value
+     */
+    static StopCriterion deadline(long deadline){
+        return progress -> progress.getTime() - deadline >= 0;
+    }
+
+    static StopCriterion noImprovementGenerations(long generations){
+        return progress -> progress.getGenerationsWithoutImprovement() >= generations;
+    }
+
+    /**
+     * @param time time without improvement in milliseconds
+     */
+    static StopCriterion noImprovementTime(long time){
+        long nanos = time * 1_000_000L;
+        return progress -> progress.getTimeWithoutImprovement() >= nanos;
+    }
+
+    static StopCriterion targetLength(double length){
+        return progress -> progress.getBestLength() <= length;
+    }
+
+    /**
+     * Met when the best length improved by less than minImprovement ( eg. 0.001 = 0.1% )
+     * during the last window of generations
+     * Keeps the window start, so every run needs its own instance
+     */
+    static StopCriterion relativeImprovement(double minImprovement, long generations){
+        return new StopCriterion() {
+            private long windowGeneration = Long.MAX_VALUE;
+            private double windowLength;
+
+            @Override
+            public boolean isMet(SearchProgress progress) {
+                if(progress.getGeneration() < windowGeneration){
+                    // new run
+                    windowGeneration = progress.getGeneration();
+                    windowLength = progress.getBestLength();
+                    return false;
+                }
+
+                if(progress.getGeneration() - windowGeneration < generations){
+                    return false;
+                }
+
+                double improvement = (windowLength - progress.getBestLength()) / windowLength;
+                windowGeneration = progress.getGeneration();
+                windowLength = progress.getBestLength();
+                return improvement < minImprovement;
+            }
+        };
+    }
+}
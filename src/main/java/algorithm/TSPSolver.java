@@ -1,32 +1,122 @@
 package algorithm;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import jdk.jfr.FlightRecorder;
 
-import static java.util.Arrays.stream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
 
 public class TSPSolver {
 
-    private double[][] distances;
+    // mutations tried to make a clone unique with MUTATE duplicate policy
+    private static final int DUPLICATE_MUTATIONS = 3;
+    // relative difference of the best length in checkpoint and recomputed one, sums of edges are rounded
+    private static final double CHECKPOINT_TOLERANCE = 1e-6;
+
+    private DistanceProvider distances;
     private int populationSize;
     private int startIndex;
     private int stopCondition;
     private double crossingPickProbability;
     private double mutationPickProbability;
-
-    private Random random;
-    private Individual[] population;
-    private Individual[] descendants;
+    private int islandCount = 1;
+    private int migrationInterval = 50;
+    private int migrantCount = 2;
+    private MigrationTopology migrationTopology = MigrationTopology.RING;
+    private FitnessEvaluator evaluator = new ForkJoinEvaluator();
+    private boolean deltaVerification;
+    private double localSearchShare;
+    private int localSearchTimeLimit;
+    private int neighboursCount = 8;
+    private int quadrantNeighboursCount;
+    private CandidateNeighbours candidateNeighbours;
+    private double seedingShare;
+    private SeedingStrategy seedingStrategy = SeedingStrategy.NEAREST_NEIGHBOUR;
+    private CrossoverStrategy crossoverStrategy = CrossoverStrategy.ONE_POINT;
+    private int fitnessCacheSize;
+    private DuplicatePolicy duplicatePolicy = DuplicatePolicy.KEEP;
+    private StopCriterion stopCriterion;
+    private int stagnationGenerations;
+    private StagnationResponse stagnationResponse = StagnationResponse.DIVERSITY_INJECTION;
+    private double injectionShare = 0.5;
+    // decomposition is used for instances with more points, 0 = disabled
+    private int clusterSize;
+    private PartitionStrategy partitionStrategy = PartitionStrategy.K_MEANS;
+    private boolean globalImprovement;
+    private CheckpointWriter checkpointWriter;
+    // buffers shared with previous runs, null = allocated for this solver only
+    private SolverScratch scratch;
+    private long checkpointInterval;
+    private LongFunction<RandomSource> randomFactory = Xoshiro256::new;
+    private boolean seeded;
+    private long seed;
+    // master seed of the current or the last run
+    private long runSeed;
+
+    private RandomSource random;
+    // current and next generation, swapped after every selection
+    private Population population;
+    private Population nextPopulation;
+    private Population descendants;
+    private int[] breedGroup;
+    private int[] mutationGroup;
+    private int breedGroupSize;
+    private int mutationGroupSize;
+    private CrossoverScratch crossoverScratch;
+    // candidate neighbours of edge based crossover, null for other strategies
+    private CandidateNeighbours crossoverNeighbours;
+    private int[] migrantIndexes;
+    private LocalSearch localSearch;
+    // hash of individuals needed by fitness cache and duplicate policy, null if they aren't used
+    private TourHash tourHash;
+    private FitnessCache fitnessCache;
+    private TourHashSet descendantHashes;
+    // index of the first descendant with the same route, -1 if descendant isn't a clone
+    private int[] duplicateOf;
+    private long cacheLookups;
+    private long cacheHits;
+    private long duplicates;
+
+    private int[] bestGenes;
+    private double bestLength;
+    private long bestHash;
     private Individual bestIndividual;
     private double worstIndividualLength;
     private boolean pocketTrigger;
+    // index of descendant being the best individual, -1 if best individual is from previous generations
+    private int pocketIndex;
     private boolean isInit;
+    private long lastGenerationTime;
+    private long lastEvaluationTime;
+    private long evaluationTime;
+    private final SearchProgress progress = new SearchProgress();
+    // generation of the last stagnation response
+    private long stagnationResponseGeneration;
+    // handle of the current solveAsync() run, null for run()
+    private volatile SolveHandle handle;
+    // change of points applied at the start of the next generation, guarded by this
+    private volatile InstanceUpdate pendingUpdate;
+    private List<GenerationListener> generationListeners = new CopyOnWriteArrayList<>();
+    private final GenerationMetrics metrics = new GenerationMetrics();
+    private long lastCheckpointTime;
 
     public TSPSolver() { }
 
     public TSPSolver(double[][] distances, int startIndex, int populationSize, int stopCondition,
                      double crossingPickProbability, double mutationPickProbability) {
+        this(validMatrix(distances), startIndex, populationSize, stopCondition,
+                crossingPickProbability, mutationPickProbability);
+    }
+
+    public TSPSolver(DistanceProvider distances, int startIndex, int populationSize, int stopCondition,
+                     double crossingPickProbability, double mutationPickProbability) {
         isDataValid(distances);
 
         this.distances = distances;
@@ -38,131 +128,641 @@ public class TSPSolver {
     }
 
     public void run(){
+        InstanceUpdate update = takeInstanceUpdate();
+        if(update != null){
+            repairPopulation(update);
+        }
+
+        if(clusterSize > 0 && distances.size() > clusterSize){
+            runDecomposition();
+            return;
+        }
+
+        if(islandCount > 1){
+            runIslands();
+            return;
+        }
+
+        if(!isInit()){
+            init();
+        }
+
+        StopCriterion criterion = getStopCriterion();
+        startProgress();
+        publishImprovement();
+
+        // one clock read per generation is shared by all criteria
+        while(!criterion.isMet(progress) && isRunning()){
+            if(pendingUpdate != null){
+                applyPendingUpdate();
+            }
+            nextGeneration();
+            updateProgress();
+        }
+
+        if(checkpointWriter != null){
+            checkpointWriter.await();
+        }
+    }
+
+    /**
+     * Starts run() on a new daemon thread and returns immediately
+     * @return handle to wait for, cancel, pause or subscribe to improvements of the run
+     */
+    public SolveHandle solveAsync(){
+        return solveAsync(command -> {
+            Thread thread = new Thread(command, "tsp-solver");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Starts run() with given executor and returns immediately
+     * throws IllegalStateException if solver is already running asynchronously
+     * @return handle to wait for, cancel, pause or subscribe to improvements of the run
+     */
+    public synchronized SolveHandle solveAsync(Executor executor){
+        if(handle != null){
+            throw new IllegalStateException("Solver is already running");
+        }
+
+        SolveHandle solveHandle = new SolveHandle();
+        handle = solveHandle;
+
+        try{
+            executor.execute(() -> {
+                try{
+                    run();
+                    solveHandle.complete(getBestIndividual());
+                }catch (Throwable e){
+                    solveHandle.fail(e);
+                }finally {
+                    handle = null;
+                }
+            });
+        }catch (RuntimeException e){
+            handle = null;
+            throw e;
+        }
+
+        return solveHandle;
+    }
+
+    /**
+     * Waits while async run is paused
+     * @return false if async run is cancelled
+     */
+    private boolean isRunning(){
+        SolveHandle solveHandle = handle;
+        if(solveHandle == null){
+            return true;
+        }
+
+        progress.shift(solveHandle.awaitResume());
+        return !solveHandle.isCancelRequested();
+    }
+
+    /**
+     * Repairs population with waiting update of points, new best route is published as improvement
+     */
+    private void applyPendingUpdate(){
+        InstanceUpdate update = takeInstanceUpdate();
+        if(update == null){
+            return;
+        }
+
+        repairPopulation(update);
+        progress.resetBestLength(bestLength);
+        publishImprovement();
+    }
+
+    /**
+     * Takes waiting update and switches distances and start point to new points,
+     * so following updates are mapped from them
+     * @return waiting update or null if there is none
+     */
+    synchronized InstanceUpdate takeInstanceUpdate(){
+        InstanceUpdate update = pendingUpdate;
+        if(update != null){
+            pendingUpdate = null;
+            switchPoints(update);
+        }
+        return update;
+    }
+
+    /**
+     * Switches to new points and repairs population, used by IslandModel between migrations
+     */
+    void applyInstanceUpdate(InstanceUpdate update){
+        switchPoints(update);
+        repairPopulation(update);
+    }
+
+    private void switchPoints(InstanceUpdate update){
+        distances = update.distances;
+        if(startIndex >= 0 && startIndex < update.mapping.length){
+            startIndex = update.mapping[startIndex];
+        }
+        candidateNeighbours = null;
+    }
+
+    /**
+     * Repairs routes of population and the best route, evaluates them again and prepares buffers
+     * and operators for new amount of points, nothing is done before the first run
+     */
+    private void repairPopulation(InstanceUpdate update){
+        if(population == null){
+            return;
+        }
+
+        int genesLength = distances.size() + 1;
+        Population repaired = new Population(population.capacity, genesLength, nextPopulation);
+        for(int i = 0; i < population.size; i++){
+            update.repair(population.genes, population.offset(i), population.genesLength,
+                    repaired.genes, repaired.offset(i));
+        }
+        repaired.size = population.size;
+
+        nextPopulation = new Population(population.capacity, genesLength, population);
+        descendants = new Population(descendants.capacity, genesLength, descendants);
+        population = repaired;
+        if(scratch != null){
+            scratch.population = population;
+            scratch.nextPopulation = nextPopulation;
+            scratch.descendants = descendants;
+        }
+
+        int[] repairedBest = new int[genesLength];
+        update.repair(bestGenes, 0, bestGenes.length, repairedBest, 0);
+        bestGenes = repairedBest;
+        bestLength = FitnessEvaluator.routeLength(distances, bestGenes, 0, genesLength);
+        bestIndividual = null;
+
+        prepareOperators();
+        evaluator.evaluate(distances, population.genes, genesLength, population.lengths, 0, population.size);
+        hashPopulation();
+        bestHash = (tourHash != null) ? tourHash.of(bestGenes, 0, genesLength) : 0L;
+        pickBestIndividual();
+    }
+
+    /**
+     * Passes metrics of the last generation to listeners and Flight Recorder
+     * Population statistics are computed only if anyone receives them
+     */
+    private void recordMetrics(){
+        // the first use of event types starts Flight Recorder for hundreds of milliseconds,
+        // so they are read only after a recording has started it
+        boolean flightRecorder = FlightRecorder.isInitialized();
+        boolean recording = flightRecorder && GenerationEvent.TYPE.isEnabled();
+        boolean recordingDiversity = flightRecorder && DiversityEvent.TYPE.isEnabled();
+        if(generationListeners.isEmpty() && !recording && !recordingDiversity){
+            return;
+        }
+
+        metrics.generation = progress.getGeneration();
+        metrics.update(population);
+
+        // iterates over snapshot, so listener removed meanwhile can't shift the indexes
+        for(GenerationListener listener : generationListeners){
+            listener.onGeneration(metrics);
+        }
+        if(recording){
+            GenerationEvent.commit(metrics);
+        }
+        if(recordingDiversity){
+            DiversityEvent.commit(metrics);
+        }
+    }
+
+    private void publishImprovement(){
+        SolveHandle solveHandle = handle;
+        if(solveHandle != null){
+            solveHandle.publish(getBestIndividual(), progress);
+        }
+    }
+
+    /**
+     * @return stop criterion or time limit of stopCondition milliseconds if it isn't set
+     */
+    private StopCriterion getStopCriterion(){
+        return (stopCriterion != null) ? stopCriterion : StopCriterion.timeLimit(stopCondition);
+    }
+
+    private void startProgress(){
+        progress.start(System.nanoTime(), bestLength);
+        stagnationResponseGeneration = 0;
+        lastCheckpointTime = progress.getTime();
+    }
+
+    /**
+     * Counts done generation and reacts to stagnation of the population
+     */
+    private void updateProgress(){
+        progress.update(1, System.nanoTime(), bestLength);
+        if(progress.getImprovementGeneration() == progress.getGeneration()){
+            publishImprovement();
+        }
+        recordMetrics();
+
+        if(checkpointWriter != null && progress.getTime() - lastCheckpointTime >= checkpointInterval
+                && checkpointWriter.write(population, bestGenes, bestLength, random, startIndex,
+                        crossingPickProbability, mutationPickProbability)){
+            lastCheckpointTime = progress.getTime();
+        }
+
+        if(stagnationGenerations > 0 && progress.getGeneration()
+                - Math.max(progress.getImprovementGeneration(), stagnationResponseGeneration) >= stagnationGenerations){
+            if(stagnationResponse == StagnationResponse.RESTART){
+                restart();
+            }else{
+                injectDiversity();
+            }
+            stagnationResponseGeneration = progress.getGeneration();
+        }
+    }
+
+    /**
+     * Runs islandCount sub-populations on separate threads, every island evolves
+     * migrationInterval generations between migrations of its elite individuals
+     */
+    private void runIslands(){
+        if(localSearchShare > 0 || usesSeedingNeighbours() || usesCrossoverNeighbours()){
+            // built once and shared by all islands
+            getCandidateNeighbours();
+        }
+
+        IslandModel islandModel = new IslandModel(this, nextRunSeed(), islandCount, migrationInterval,
+                migrantCount, migrationTopology);
+
+        // islands stop exactly on stopCondition time, stop criterion is checked between migrations
+        long timeLimit = (stopCriterion == null) ? stopCondition * 1_000_000L : IslandModel.NO_DEADLINE;
+
+        isInit = true;
+        bestIndividual = islandModel.run(getStopCriterion(), timeLimit, progress, handle);
+        bestGenes = bestIndividual.getGenes();
+        bestLength = bestIndividual.getLength();
+        evaluationTime += islandModel.getEvaluationTime();
+        cacheLookups += islandModel.getCacheLookups();
+        cacheHits += islandModel.getCacheHits();
+        duplicates += islandModel.getDuplicates();
+    }
+
+    /**
+     * Solves clusters of up to clusterSize points by separate solvers in parallel and joins their routes
+     * The whole run takes stopCondition milliseconds, stop criterion isn't checked, without time limit
+     * ( stopCondition 0 or Integer.MAX_VALUE ) every cluster stops after generations without improvement
+     * throws IllegalStateException if distances have no coordinates
+     */
+    private void runDecomposition(){
+        if(!(distances instanceof CoordinateDistances)){
+            throw new IllegalStateException("Decomposition requires distances with coordinates");
+        }
+
+        Decomposition decomposition = new Decomposition(this, nextRunSeed(), clusterSize, partitionStrategy,
+                globalImprovement);
+        // Integer.MAX_VALUE is time budget of runs stopped only by criterion, eg. in BatchSolver
+        long timeLimit = (stopCondition > 0 && stopCondition < Integer.MAX_VALUE) ? stopCondition * 1_000_000L
+                : Decomposition.NO_DEADLINE;
+
+        bestIndividual = decomposition.run(timeLimit, progress, handle);
+        bestGenes = bestIndividual.getGenes();
+        bestLength = bestIndividual.getLength();
+        evaluationTime += decomposition.getEvaluationTime();
+        cacheLookups += decomposition.getCacheLookups();
+        cacheHits += decomposition.getCacheHits();
+        duplicates += decomposition.getDuplicates();
+    }
+
+    /**
+     * One full generation: breed and mutation groups, descendants, evaluation and selection
+     * Works only on preallocated populations, it doesn't allocate any memory
+     * Package-private, like selection() and getIndividualByBound(), for benchmarks
+     */
+    void nextGeneration(){
+        long generationStart = System.nanoTime();
+        selectBreedAndMutationGroups();
+
+        descendants.size = breedGroupSize + mutationGroupSize;
+        if(descendants.size == 0){
+            return;
+        }
+
+        breed();
+        if(tourHash != null){
+            hashDescendants();
+        }
+
+        long mutationStart = System.nanoTime();
+        mutate(breedGroupSize);
+        int generationDuplicates = (duplicatePolicy != DuplicatePolicy.KEEP) ? filterDuplicates() : 0;
+
+        // mutated descendants already have length updated by delta, only breed children are evaluated
+        long evaluationStart = System.nanoTime();
+        long generationCacheHits = cacheHits;
+        int evaluations = evaluateBreedGroup();
+        long localSearchStart = System.nanoTime();
+        lastEvaluationTime = localSearchStart - evaluationStart;
+        evaluationTime += lastEvaluationTime;
+
+        if(localSearch != null){
+            improveDescendants();
+        }
+
+        long selectionStart = System.nanoTime();
+        selection();
+        long generationEnd = System.nanoTime();
+        lastGenerationTime = generationEnd - generationStart;
+
+        metrics.breedTime = mutationStart - generationStart;
+        metrics.mutationTime = evaluationStart - mutationStart;
+        metrics.evaluationTime = lastEvaluationTime;
+        metrics.localSearchTime = selectionStart - localSearchStart;
+        metrics.selectionTime = generationEnd - selectionStart;
+        metrics.generationTime = lastGenerationTime;
+        metrics.evaluations = evaluations;
+        metrics.cacheHits = (int) (cacheHits - generationCacheHits);
+        metrics.duplicates = generationDuplicates;
+    }
+
+    /**
+     * Evolves the population till given amount of generations is done or deadline passes
+     * Used by IslandModel, every island is a separate TSPSolver
+     * @param generations max amount of generations to perform
+     * @param deadline System.nanoTime() value after which evolution stops or IslandModel.NO_DEADLINE
+     * @param solveHandle handle of async run checked for cancel, can be null
+     * @return amount of done generations, less than generations if deadline passed or run is cancelled
+     */
+    int evolve(int generations, long deadline, SolveHandle solveHandle){
         if(!isInit()){
             init();
+            startProgress();
+        }
+
+        for(int i = 0; i < generations; i++){
+            if(isAfter(deadline) || (solveHandle != null && solveHandle.isCancelRequested())){
+                return i;
+            }
+            nextGeneration();
+            updateProgress();
         }
 
-        long start = System.currentTimeMillis();
-        long elapsedTime = 0;
+        return generations;
+    }
 
-        while(elapsedTime < stopCondition){
-            ArrayList<Individual[]> selectedGroup = selectBreedAndMutationGroups();
+    static boolean isAfter(long deadline){
+        return deadline != IslandModel.NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
 
-            Individual[] breedGroup = selectedGroup.get(0);
-            Individual[] mutationGroup = selectedGroup.get(1);
+    /**
+     * Copies the best individuals from current population to migrants population
+     * @param migrants population which capacity is the amount of migrants
+     */
+    void copyMigrants(Population migrants){
+        int count = Math.min(migrants.capacity, population.size);
+        if(migrantIndexes == null || migrantIndexes.length < count){
+            migrantIndexes = new int[count];
+        }
 
-            descendants = new Individual[breedGroup.length + mutationGroup.length];
+        for(int i = 0; i < count; i++){
+            int bestIndex = -1;
+            for(int j = 0; j < population.size; j++){
+                if(!isMigrant(j, i) && (bestIndex == -1
+                        || population.lengths[j] < population.lengths[bestIndex])){
+                    bestIndex = j;
+                }
+            }
+            migrantIndexes[i] = bestIndex;
+            population.copyTo(bestIndex, migrants, i);
+        }
 
-            breed(breedGroup,descendants);
+        migrants.size = count;
+    }
 
-            mutate(mutationGroup,descendants,breedGroup.length);
+    /**
+     * Replaces the worst individuals of current population with migrants
+     * @param migrants individuals from other island
+     */
+    void acceptMigrants(Population migrants){
+        int count = Math.min(migrants.size, population.size);
+        if(migrantIndexes == null || migrantIndexes.length < count){
+            migrantIndexes = new int[count];
+        }
 
-            for(Individual each : descendants){
-                setLength(each);
+        for(int i = 0; i < count; i++){
+            int worstIndex = -1;
+            for(int j = 0; j < population.size; j++){
+                if(!isMigrant(j, i) && (worstIndex == -1
+                        || population.lengths[j] > population.lengths[worstIndex])){
+                    worstIndex = j;
+                }
             }
+            migrantIndexes[i] = worstIndex;
+            migrants.copyTo(i, population, worstIndex);
+        }
 
-            selection();
+        pickBestIndividual();
+    }
 
-            long end = System.currentTimeMillis();
-            elapsedTime = end - start;
+    private boolean isMigrant(int index, int count){
+        for(int i = 0; i < count; i++){
+            if(migrantIndexes[i] == index){
+                return true;
+            }
         }
+        return false;
     }
 
     /**
      Checks if any of the required variables is empty
      If it pass validation it inits the population matrix with value of populationSize
+     and allocates all the buffers used by following generations
 
      throws NullPointerException() if any of argument isn't setted
      */
     private void init(){
-        if(distances.length == 0 || populationSize == 0 || startIndex == -1){
+        if(distances == null || populationSize == 0 || startIndex == -1){
             throw new NullPointerException("Invalid one of parameters:"
-                    + "\nDistances: " +((distances.length == 0) ? null : distances.length)
+                    + "\nDistances: " +((distances == null) ? null : distances.size())
                     + "\nPopulation size: "+((populationSize == 0) ? null : populationSize)
                     + "\nStart index: "+((startIndex == -1) ? null : startIndex));
         }
 
-        if(startIndex < 0 || startIndex > distances.length - 1){
+        if(startIndex < 0 || startIndex > distances.size() - 1){
             throw new IllegalArgumentException("Start index is out of bounds");
         }
 
-        isInit = true;
-        random = new Random();
-        population = new Individual[populationSize];
+        allocate();
         generatePopulation();
 
-        stream(population).forEach(this::setLength);
+        evaluator.evaluate(distances, population.genes, population.genesLength, population.lengths,
+                0, population.size);
+        hashPopulation();
+        pickBestIndividual();
+    }
+
+    /**
+     * Allocates populations and buffers used by following generations
+     */
+    private void allocate(){
+        int genesLength = distances.size() + 1;
+
+        SolverScratch buffers = (scratch != null) ? scratch : new SolverScratch();
+        buffers.prepare(populationSize, genesLength);
+
+        isInit = true;
+        random = randomFactory.apply(nextRunSeed());
+        population = buffers.population;
+        nextPopulation = buffers.nextPopulation;
+        descendants = buffers.descendants;
+        breedGroup = buffers.breedGroup;
+        mutationGroup = buffers.mutationGroup;
+        crossoverScratch = buffers.crossover;
+        descendantHashes = buffers.descendantHashes;
+        duplicateOf = buffers.duplicateOf;
+        bestGenes = new int[genesLength];
+        bestLength = Double.POSITIVE_INFINITY;
+        bestHash = 0L;
+        bestIndividual = null;
+        prepareOperators();
+    }
+
+    /**
+     * Builds operators depending on points of distances
+     */
+    private void prepareOperators(){
+        crossoverNeighbours = usesCrossoverNeighbours() ? getCandidateNeighbours() : null;
+        boolean hashing = fitnessCacheSize > 0 || duplicatePolicy != DuplicatePolicy.KEEP;
+        // reversed route has other length for asymmetric distances, so it needs other hash
+        tourHash = hashing ? new TourHash(distances.size(), !distances.isSymmetric()) : null;
+        // cached lengths of old points are wrong for new ones
+        fitnessCache = (fitnessCacheSize > 0) ? new FitnessCache(fitnessCacheSize) : null;
+        localSearch = (localSearchShare > 0) ? new LocalSearch(distances, getCandidateNeighbours()) : null;
+    }
+
+    /**
+     * Writes checkpoint of current population, the best individual, random generator and parameters
+     * Checkpoint is written to temporary file and atomically moved to path
+     * throws IllegalStateException if solver isn't initialized
+     */
+    public void saveCheckpoint(Path path) throws IOException {
+        if(!isInit() || population == null){
+            throw new IllegalStateException("Solver has no population to save");
+        }
+
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.capture(population, bestGenes, bestLength, random, startIndex,
+                crossingPickProbability, mutationPickProbability);
+        checkpoint.write(path);
+    }
+
+    /**
+     * Restores population, the best individual, random generator, start index, population size
+     * and pick probabilities from checkpoint, following run() continues the search
+     * Distances have to be set before and match the checkpoint, other settings aren't stored
+     * throws IOException if file isn't a correct checkpoint
+     * throws IllegalArgumentException() if checkpoint has other amount of points, start index out of the points
+     * or its best route has other length with current distances
+     */
+    public void resume(Path path) throws IOException {
+        if(distances == null){
+            throw new IllegalStateException("Distances have to be set before resume");
+        }
+
+        Checkpoint checkpoint = Checkpoint.read(path);
+        if(checkpoint.cities != distances.size()){
+            throw new IllegalArgumentException("Checkpoint has " + checkpoint.cities
+                    + " points, distances have " + distances.size());
+        }
+        if(checkpoint.startIndex < 0 || checkpoint.startIndex >= distances.size()
+                || checkpoint.bestGenes[0] != checkpoint.startIndex){
+            throw new IllegalArgumentException("Start index " + checkpoint.startIndex + " of checkpoint doesn't match");
+        }
+        double bestLength = FitnessEvaluator.routeLength(distances, checkpoint.bestGenes, 0,
+                checkpoint.bestGenes.length);
+        if(Math.abs(bestLength - checkpoint.bestLength) > CHECKPOINT_TOLERANCE * Math.max(1.0, bestLength)){
+            throw new IllegalArgumentException("Checkpoint was saved for other distances, its best route has length "
+                    + checkpoint.bestLength + ", with current distances " + bestLength);
+        }
+
+        populationSize = checkpoint.capacity;
+        startIndex = checkpoint.startIndex;
+        crossingPickProbability = checkpoint.crossingPickProbability;
+        mutationPickProbability = checkpoint.mutationPickProbability;
+
+        allocate();
+        checkpoint.restore(population);
+        random = checkpoint.getRandom();
+        System.arraycopy(checkpoint.bestGenes, 0, bestGenes, 0, bestGenes.length);
+        bestLength = checkpoint.bestLength;
+        bestHash = (tourHash != null) ? tourHash.of(bestGenes, 0, bestGenes.length) : 0L;
+        hashPopulation();
         pickBestIndividual();
     }
 
     /**
      * Select breed and mutation group based on pick ratio
-     * @return ArrayList(0) - breed group, ArraList(1) - mutation group
+     * Groups store indexes of individuals from current population
      */
-    private ArrayList<Individual[]> selectBreedAndMutationGroups(){
-        List<Individual> breedGroup = new ArrayList<>((int)(populationSize * crossingPickProbability));
-        List<Individual> mutationGroup = new ArrayList<>((int)(populationSize * mutationPickProbability));
-        ArrayList<Individual[]> selectedGorups = new ArrayList<>(2);
+    private void selectBreedAndMutationGroups(){
+        breedGroupSize = 0;
+        mutationGroupSize = 0;
 
-        for(Individual each: population){
+        for(int i = 0; i < population.size; i++){
             if(random.nextDouble() < crossingPickProbability){
-                breedGroup.add(each);
+                breedGroup[breedGroupSize++] = i;
             }
 
             if(random.nextDouble() < mutationPickProbability){
-                mutationGroup.add(each);
+                mutationGroup[mutationGroupSize++] = i;
             }
         }
 
-        if(breedGroup.size()  % 2 != 0){
-            Individual randomIndividual = population[random.nextInt(population.length)];
-            breedGroup.add(randomIndividual.copy());
+        if(breedGroupSize % 2 != 0){
+            breedGroup[breedGroupSize++] = random.nextInt(population.size);
         }
-
-        selectedGorups.add(breedGroup.toArray(Individual[]::new));
-        selectedGorups.add(mutationGroup.toArray(Individual[]::new));
-
-        return selectedGorups;
     }
 
     /**
      * Selects new population from descendants
      */
-    private void selection(){
+    void selection(){
         double sumOfLengths = 0.0;
         double transformedLength;
         double bound = 0.0;
-        double ratio;
         pocketTrigger = true;
 
-        Individual[] newPopulation = new Individual[populationSize];
         prepareForSelection();
 
-        // Transforming length
-        for(Individual each: descendants){
-            transformedLength = each.getReverseLength() + worstIndividualLength + 0.01;
-            each.setReverseLength(transformedLength);
+        // Transforming length, clones skipped by duplicate policy can't be picked
+        for(int i = 0; i < descendants.size; i++){
+            transformedLength = isClone(i) ? 0.0 : descendants.fitness[i] + worstIndividualLength + 0.01;
+            descendants.fitness[i] = transformedLength;
             sumOfLengths += transformedLength;
         }
 
         // Setting pick bounds
-        for(Individual each: descendants){
-            ratio = each.getReverseLength() / sumOfLengths;
-            each.setPickBounds(bound, bound += ratio);
+        for(int i = 0; i < descendants.size; i++){
+            bound += descendants.fitness[i] / sumOfLengths;
+            descendants.bounds[i] = bound;
         }
 
         // Picking random individual in bounds
         for(int i = 0; i < populationSize; i++){
             double randomPick = random.nextDouble();
 
-            newPopulation[i] = getIndividualByBound(randomPick).copy();
+            descendants.copyTo(getIndividualByBound(randomPick), nextPopulation, i);
         }
 
         if(pocketTrigger){
-            newPopulation[populationSize - 1] = bestIndividual.copy();
+            nextPopulation.set(populationSize - 1, bestGenes, bestLength, bestHash);
         }
 
-        population = newPopulation;
+        nextPopulation.size = populationSize;
+
+        Population temp = population;
+        population = nextPopulation;
+        nextPopulation = temp;
     }
 
     /**
@@ -174,81 +774,83 @@ public class TSPSolver {
     private void prepareForSelection(){
         int bestIndividualIndex = 0;
         int worstIndividualIndex = 0;
+        double[] lengths = descendants.lengths;
 
-        for(int i = 0; i < descendants.length; i++){
+        for(int i = 0; i < descendants.size; i++){
 
-            if(descendants[i].getLength() <= descendants[bestIndividualIndex].getLength()){
+            if(lengths[i] <= lengths[bestIndividualIndex]){
                 bestIndividualIndex = i;
             }
 
-            if(descendants[i].getLength() > descendants[worstIndividualIndex].getLength()){
+            if(lengths[i] > lengths[worstIndividualIndex]){
                 worstIndividualIndex = i;
             }
 
-            descendants[i].setReverseLength(descendants[i].getLength() * (-1));
+            descendants.fitness[i] = lengths[i] * (-1);
         }
 
         // best individual need to store the best individual from every run
-        if(descendants[bestIndividualIndex].getLength() < bestIndividual.getLength()){
-            bestIndividual = descendants[bestIndividualIndex].copy();
+        if(lengths[bestIndividualIndex] < bestLength){
+            setBestIndividual(descendants, bestIndividualIndex);
         }
+        pocketIndex = (lengths[bestIndividualIndex] == bestLength) ? bestIndividualIndex : -1;
 
         // have to store worst individual length from current run
-        worstIndividualLength = descendants[worstIndividualIndex].getLength();
+        worstIndividualLength = lengths[worstIndividualIndex];
     }
 
     /**
-     * Return copy of Individual which roulettePick value will be its between lower and upper bound
+     * Return index of descendant which roulettePick value will be its between lower and upper bound
+     * Upper bounds are cumulative so the descendant is found by binary search in O(log n)
      * @param roulettePick random double from 0 to 1
-     * @return copy of picked Individual
+     * @return index of picked descendant
      */
-    private Individual getIndividualByBound(double roulettePick){
-        for(Individual each: descendants){
-            if(roulettePick >= each.getLowerPickBound() && roulettePick < each.getUpperPickBound()){
-                if(each.equals(bestIndividual)){
-                    pocketTrigger = false;
-                }
-                return each;
+    int getIndividualByBound(double roulettePick){
+        double[] bounds = descendants.bounds;
+        int low = 0;
+        int high = descendants.size - 1;
+
+        // first descendant which upper bound is greater than roulettePick
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(bounds[middle] > roulettePick){
+                high = middle;
+            }else{
+                low = middle + 1;
             }
         }
 
-        return descendants[descendants.length - 1];
-    }
-
-    private void setLength(Individual individual){
-        double length = 0.0;
-        int[] genes = individual.getGenes();
-
-        for(int i = 0; i < genes.length - 1; i++){
-            int firstPoint = genes[i];
-            int secondPoint = genes[i + 1];
-            length += distances[firstPoint][secondPoint];
+        if(low == pocketIndex){
+            pocketTrigger = false;
         }
 
-        individual.setLength(length);
+        return low;
     }
 
     public void pickBestIndividual(){
-        if(bestIndividual == null){
-            bestIndividual = population[0].copy();
-        }
-
-        for (Individual individual : population) {
-            if (individual.getLength() < bestIndividual.getLength()) {
-                bestIndividual = individual.copy();
+        for (int i = 0; i < population.size; i++) {
+            if (population.lengths[i] < bestLength) {
+                setBestIndividual(population, i);
             }
         }
     }
 
+    private void setBestIndividual(Population source, int index){
+        System.arraycopy(source.genes, source.offset(index), bestGenes, 0, source.genesLength);
+        bestLength = source.lengths[index];
+        bestHash = source.hashes[index];
+        bestIndividual = null;
+    }
+
     /**
-     * Pick and breed every 2 random Individuals and adds to descendatns array
-     * @param breedGroup array with Individual to breed
-     * @param descendants descendants array
+     * Pick and breed every 2 random Individuals and adds to descendatns
+     * Breed group is shuffled in place
      */
-    private void breed(Individual[] breedGroup,Individual[] descendants){
-        int breedSize = breedGroup.length;
+    private void breed(){
+        int breedSize = breedGroupSize;
         int firstIndividualIndex;
         int secondIndividualIndex;
+        int genesLength = population.genesLength;
 
         for(int i = 0; breedSize != 0; i += 2){
             do{
@@ -256,10 +858,13 @@ public class TSPSolver {
                 secondIndividualIndex = random.nextInt(breedSize);
             }while (firstIndividualIndex == secondIndividualIndex);
 
-            descendants[i] = breedGroup[firstIndividualIndex]
-                                        .breed(breedGroup[secondIndividualIndex]);
-            descendants[i + 1] = breedGroup[secondIndividualIndex]
-                    .breed(breedGroup[firstIndividualIndex]);
+            int firstOffset = population.offset(breedGroup[firstIndividualIndex]);
+            int secondOffset = population.offset(breedGroup[secondIndividualIndex]);
+
+            Crossover.cross(crossoverStrategy, distances, crossoverNeighbours, population.genes, firstOffset,
+                    secondOffset, descendants.genes, descendants.offset(i), genesLength, crossoverScratch, random);
+            Crossover.cross(crossoverStrategy, distances, crossoverNeighbours, population.genes, secondOffset,
+                    firstOffset, descendants.genes, descendants.offset(i + 1), genesLength, crossoverScratch, random);
 
             swap(breedGroup,breedSize - 1, firstIndividualIndex);
             swap(breedGroup, breedSize - 2, secondIndividualIndex);
@@ -269,103 +874,560 @@ public class TSPSolver {
     }
 
     /**
-     * Mutate every Individual and adds it to descendats array
-     * @param mutationGroup array with Individual to mutate
-     * @param descendants descendants array
-     * @param index next avaiable index of descendats array
+     * Copies and mutates every Individual from mutation group into descendants
+     * Length of mutated descendant is parent length + length delta of mutation
+     * @param index next avaiable index of descendats
      */
-    private void mutate(Individual[] mutationGroup,Individual[] descendants,int index){
-        for (Individual individual : mutationGroup) {
-            descendants[index] = individual.mutate();
+    private void mutate(int index){
+        for (int i = 0; i < mutationGroupSize; i++) {
+            population.copyTo(mutationGroup[i], descendants, index);
+            descendants.lengths[index] += GeneticOperators.mutate(descendants.genes, descendants.offset(index),
+                    descendants.genesLength, distances, random, tourHash, descendants.hashes, index);
+
+            if(deltaVerification){
+                verifyLength(descendants, index);
+            }
             index++;
         }
     }
 
     /**
-        Generates individuals with a random arrangement of genes
+     * Improves localSearchShare of descendants with 2-opt and Or-opt local search
      */
-    private void generatePopulation(){
-        for(int i = 0; i < population.length; i++){
-            population[i] = new Individual(shuffleGenes());
+    private void improveDescendants(){
+        long timeLimit = localSearchTimeLimit * 1_000_000L;
+
+        for(int i = 0; i < descendants.size; i++){
+            if(random.nextDouble() < localSearchShare && !isClone(i)){
+                descendants.lengths[i] += localSearch.improve(descendants.genes, descendants.offset(i), timeLimit);
+
+                if(deltaVerification){
+                    verifyLength(descendants, i);
+                }
+                if(tourHash != null){
+                    descendants.hashes[i] = tourHash.of(descendants.genes, descendants.offset(i),
+                            descendants.genesLength);
+                    if(fitnessCache != null){
+                        fitnessCache.put(descendants.hashes[i], descendants.lengths[i]);
+                    }
+                }
+            }
         }
     }
 
-    /**
-        Shuffle genes
-        First and last gene indicates the starting point
+    private void hashDescendants(){
+        for(int i = 0; i < breedGroupSize; i++){
+            descendants.hashes[i] = tourHash.of(descendants.genes, descendants.offset(i), descendants.genesLength);
+        }
+    }
 
-        return int[] matrix with genes
+    /**
+     * Sets hashes of the whole population, used after population is changed outside of generations
      */
-    private int[] shuffleGenes(){
-        int genesAmount = distances.length;
-
-        int [] genesIndexes = new int[genesAmount + 1];
-        genesIndexes[0] = genesIndexes[genesAmount] = startIndex;
-
-        int index = 0;
-        for(int i = 1; i < genesIndexes.length - 1; i++){
-            genesIndexes[i] = (i == startIndex + 1) ? ++index : index;
-            index++;
+    private void hashPopulation(){
+        if(tourHash == null){
+            return;
         }
 
-        for(int i = 1; i < genesIndexes.length -1; i++){
-            int randomIndex = random.nextInt((genesIndexes.length - 2)) + 1;
-            int temp = genesIndexes[randomIndex];
-            genesIndexes[randomIndex] = genesIndexes[i];
-            genesIndexes[i] = temp;
+        for(int i = 0; i < population.size; i++){
+            population.hashes[i] = tourHash.of(population.genes, population.offset(i), population.genesLength);
         }
-
-        return genesIndexes;
     }
 
-    private void swap(Individual[] array, int firstIndex, int secondIndex){
-        Individual temp;
+    /**
+     * Finds descendants with the same route as an earlier descendant of the generation
+     * With MUTATE policy clones are mutated till their route is unique or DUPLICATE_MUTATIONS mutations fail
+     * @return amount of found clones
+     */
+    private int filterDuplicates(){
+        int found = 0;
+        descendantHashes.clear(descendants.size);
+
+        for(int i = 0; i < descendants.size; i++){
+            int original = descendantHashes.add(descendants.hashes[i], i);
+            if(original >= 0){
+                found++;
+            }
 
-        temp = array[firstIndex];
-        array[firstIndex] = array[secondIndex];
-        array[secondIndex] = temp;
+            for(int j = 0; original >= 0 && duplicatePolicy == DuplicatePolicy.MUTATE && j < DUPLICATE_MUTATIONS; j++){
+                // lengths of breed children are set later by evaluation
+                descendants.lengths[i] += GeneticOperators.mutate(descendants.genes, descendants.offset(i),
+                        descendants.genesLength, distances, random, tourHash, descendants.hashes, i);
+                original = descendantHashes.add(descendants.hashes[i], i);
+            }
+            duplicateOf[i] = original;
+
+            if(deltaVerification && i >= breedGroupSize){
+                verifyLength(descendants, i);
+            }
+        }
+
+        duplicates += found;
+        return found;
     }
 
     /**
-        Checks if provided distances matix has size [n][n]
-        It doesn't check if distance[n][m] == distance[m][n] because in real case it can be different
-
-        throws new IllegalArgumentExpception() if its invalid
+     * Evaluates breed children, children found in fitness cache and clones aren't evaluated
+     * Following children to evaluate are passed to evaluator at once, clones take length of the first copy
+     * and all routes of descendants are stored in fitness cache
+     * @return amount of evaluated children
      */
-    private void isDataValid(double[][] data){
-        if(data.length < 3){
-            throw new IllegalArgumentException("Required minimum 3 points");
+    private int evaluateBreedGroup(){
+        if(tourHash == null){
+            evaluator.evaluate(distances, descendants.genes, descendants.genesLength, descendants.lengths,
+                    0, breedGroupSize);
+            return breedGroupSize;
         }
-        for (double[] distance : data) {
-            if (data.length != distance.length) {
-                throw new IllegalArgumentException("Incorrect data size");
+
+        int evaluations = 0;
+        int from = 0;
+        for(int i = 0; i <= breedGroupSize; i++){
+            if(i < breedGroupSize && !isClone(i) && !isCached(i)){
+                continue;
+            }
+
+            if(from < i){
+                evaluator.evaluate(distances, descendants.genes, descendants.genesLength, descendants.lengths,
+                        from, i);
+                evaluations += i - from;
             }
+            from = i + 1;
         }
-    }
 
-    public boolean isInit(){
-        return isInit;
-    }
+        for(int i = 0; i < descendants.size; i++){
+            if(isClone(i)){
+                descendants.lengths[i] = descendants.lengths[duplicateOf[i]];
+            }else if(fitnessCache != null){
+                fitnessCache.put(descendants.hashes[i], descendants.lengths[i]);
+            }
 
-    public Individual getBestIndividual(){
-        return bestIndividual;
-    }
+            if(deltaVerification && i < breedGroupSize){
+                verifyLength(descendants, i);
+            }
+        }
 
-    public void setPopulationSize(int populationSize) {
-        this.populationSize = populationSize;
+        return evaluations;
     }
 
-    public void setStopCondition(int stopCondition) {
-        this.stopCondition = stopCondition;
-    }
+    /**
+     * Sets length of descendant from fitness cache
+     * @return true if route of descendant is cached
+     */
+    private boolean isCached(int index){
+        if(fitnessCache == null){
+            return false;
+        }
 
-    public void setDistances(double[][] distances) {
-        isDataValid(distances);
+        cacheLookups++;
+        double length = fitnessCache.get(descendants.hashes[index]);
+        if(Double.isNaN(length)){
+            return false;
+        }
 
-        this.distances = distances;
+        cacheHits++;
+        descendants.lengths[index] = length;
+        return true;
     }
 
-    public void setStartIndex(int startIndex) {
+    /**
+     * @return true if descendant is a clone skipped by duplicate policy
+     */
+    private boolean isClone(int index){
+        return duplicatePolicy != DuplicatePolicy.KEEP && duplicateOf[index] >= 0;
+    }
+
+    /**
+     * Compares length of individual with full route length
+     * throws IllegalStateException() if they are different
+     */
+    private void verifyLength(Population source, int index){
+        double length = FitnessEvaluator.routeLength(distances, source.genes, source.offset(index),
+                source.genesLength);
+
+        if(Math.abs(length - source.lengths[index]) > 1e-9 * Math.max(1.0, length)){
+            throw new IllegalStateException("Length delta mismatch: expected " + length
+                    + ", was " + source.lengths[index]);
+        }
+    }
+
+    /**
+        Generates seedingShare of individuals with seedingStrategy heuristic in parallel
+        and the rest with a random arrangement of genes
+     */
+    private void generatePopulation(){
+        // routes of up to 2 points don't need heuristics
+        int seededCount = (distances.size() > 2) ? (int) Math.round(seedingShare * population.capacity) : 0;
+
+        if(seededCount > 0){
+            seedIndividuals(IntStream.range(0, seededCount).toArray(), seededCount);
+        }
+
+        for(int i = seededCount; i < population.capacity; i++){
+            shuffleGenes(population.genes, population.offset(i));
+        }
+        population.size = population.capacity;
+    }
+
+    /**
+     * Builds routes with seeding strategy heuristic in parallel at given population indexes
+     */
+    private void seedIndividuals(int[] indexes, int count){
+        CandidateNeighbours neighbours = usesSeedingNeighbours() ? getCandidateNeighbours() : null;
+        // every seeded individual has its own generator, so result doesn't depend on threads order
+        long[] seeds = new long[count];
+        for(int i = 0; i < count; i++){
+            seeds[i] = random.nextLong();
+        }
+
+        IntStream.range(0, count).parallel().forEach(i ->
+                PopulationSeeding.seed(seedingStrategy, distances, neighbours, startIndex,
+                        randomFactory.apply(seeds[i]), population.genes, population.offset(indexes[i])));
+    }
+
+    /**
+     * @return set seed or random one if no seed is set
+     */
+    private long nextRunSeed(){
+        runSeed = seeded ? seed : ThreadLocalRandom.current().nextLong();
+        return runSeed;
+    }
+
+    /**
+     * @return true if crossover strategy uses candidate neighbours
+     */
+    private boolean usesCrossoverNeighbours(){
+        return crossoverStrategy == CrossoverStrategy.EDGE_RECOMBINATION
+                || crossoverStrategy == CrossoverStrategy.EDGE_ASSEMBLY;
+    }
+
+    /**
+     * Generates the whole population again, the best individual so far takes the last place
+     */
+    private void restart(){
+        generatePopulation();
+        evaluator.evaluate(distances, population.genes, population.genesLength, population.lengths,
+                0, population.size);
+        population.set(population.size - 1, bestGenes, bestLength, bestHash);
+        hashPopulation();
+        pickBestIndividual();
+    }
+
+    /**
+     * Replaces injectionShare of the worst individuals with seeding strategy routes
+     */
+    private void injectDiversity(){
+        if(distances.size() <= 2){
+            return;
+        }
+
+        int count = Math.min((int) Math.round(injectionShare * population.size), population.size - 1);
+        int[] worst = IntStream.range(0, population.size).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> population.lengths[i]).reversed())
+                .limit(count).mapToInt(Integer::intValue).toArray();
+
+        seedIndividuals(worst, count);
+        for(int index : worst){
+            population.lengths[index] = FitnessEvaluator.routeLength(distances, population.genes,
+                    population.offset(index), population.genesLength);
+        }
+        hashPopulation();
+        pickBestIndividual();
+    }
+
+    /**
+     * @return true if seeding strategy builds routes from candidate neighbours
+     */
+    private boolean usesSeedingNeighbours(){
+        boolean seeding = seedingShare > 0
+                || (stagnationGenerations > 0 && stagnationResponse == StagnationResponse.DIVERSITY_INJECTION);
+        return seeding && !(seedingStrategy == SeedingStrategy.SPACE_FILLING_CURVE
+                && distances instanceof CoordinateDistances);
+    }
+
+    /**
+        Shuffle genes
+        First and last gene indicates the starting point
+
+        writes genes to given array from offset
+     */
+    private void shuffleGenes(int[] genesIndexes, int offset){
+        int genesAmount = distances.size();
+
+        genesIndexes[offset] = genesIndexes[offset + genesAmount] = startIndex;
+
+        int index = 0;
+        for(int i = 1; i < genesAmount; i++){
+            genesIndexes[offset + i] = (i == startIndex + 1) ? ++index : index;
+            index++;
+        }
+
+        for(int i = 1; i < genesAmount; i++){
+            int randomIndex = random.nextInt((genesAmount - 1)) + 1;
+            int temp = genesIndexes[offset + randomIndex];
+            genesIndexes[offset + randomIndex] = genesIndexes[offset + i];
+            genesIndexes[offset + i] = temp;
+        }
+    }
+
+    private void swap(int[] array, int firstIndex, int secondIndex){
+        int temp;
+
+        temp = array[firstIndex];
+        array[firstIndex] = array[secondIndex];
+        array[secondIndex] = temp;
+    }
+
+    /**
+        Checks if provided distances matix has size [n][n]
+        It doesn't check if distance[n][m] == distance[m][n] because in real case it can be different
+
+        throws new IllegalArgumentExpception() if its invalid
+     */
+    private static MatrixDistances validMatrix(double[][] data){
+        if(data.length < 3){
+            throw new IllegalArgumentException("Required minimum 3 points");
+        }
+        for (double[] distance : data) {
+            if (data.length != distance.length) {
+                throw new IllegalArgumentException("Incorrect data size");
+            }
+        }
+        return new MatrixDistances(data);
+    }
+
+    /**
+        Checks if provided distances have at least 3 points
+
+        throws new IllegalArgumentExpception() if its invalid
+     */
+    private void isDataValid(DistanceProvider data){
+        if(data.size() < 3){
+            throw new IllegalArgumentException("Required minimum 3 points");
+        }
+    }
+
+    public boolean isInit(){
+        return isInit;
+    }
+
+    /**
+     * @return read-only copy of the best individual from all generations, null if solver didn't run
+     */
+    public Individual getBestIndividual(){
+        if(bestIndividual == null && bestGenes != null){
+            bestIndividual = new Individual(bestGenes, bestLength);
+        }
+        return bestIndividual;
+    }
+
+    public void setPopulationSize(int populationSize) {
+        this.populationSize = populationSize;
+    }
+
+    public void setStopCondition(int stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Sets criterion ending the run instead of stopCondition time, null = stopCondition is used
+     */
+    public void setStopCriterion(StopCriterion stopCriterion) {
+        this.stopCriterion = stopCriterion;
+    }
+
+    /**
+     * Sets amount of generations without improvement after which stagnation response is used, 0 = disabled
+     */
+    public void setStagnationGenerations(int stagnationGenerations) {
+        if(stagnationGenerations < 0){
+            throw new IllegalArgumentException("Stagnation generations can't be negative");
+        }
+        this.stagnationGenerations = stagnationGenerations;
+    }
+
+    /**
+     * Sets reaction to stagnation, DIVERSITY_INJECTION by default
+     */
+    public void setStagnationResponse(StagnationResponse stagnationResponse) {
+        if(stagnationResponse == null){
+            throw new IllegalArgumentException("Stagnation response can't be null");
+        }
+        this.stagnationResponse = stagnationResponse;
+    }
+
+    /**
+     * Sets part of population replaced by diversity injection
+     */
+    public void setInjectionShare(double injectionShare) {
+        if(injectionShare <= 0 || injectionShare > 1){
+            throw new IllegalArgumentException("Injection share has to be from 0 (exclusive) to 1");
+        }
+        this.injectionShare = injectionShare;
+    }
+
+    /**
+     * Adds listener receiving metrics after every generation
+     * Metrics are computed only while any listener is added or Flight Recorder records
+     * algorithm.Generation or algorithm.PopulationDiversity events
+     */
+    public void addGenerationListener(GenerationListener listener) {
+        if(listener == null){
+            throw new IllegalArgumentException("Listener can't be null");
+        }
+        generationListeners.add(listener);
+    }
+
+    public void removeGenerationListener(GenerationListener listener) {
+        generationListeners.remove(listener);
+    }
+
+    /**
+     * Sets master seed of following runs, all random sources of the run are derived from it
+     * Runs with the same seed and settings give the same routes on any amount of threads,
+     * as long as they are stopped by generations or length, not by time, and local search has no time limit
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seeded = true;
+    }
+
+    /**
+     * @return master seed of the current or the last run, the set one or randomly picked if none is set
+     */
+    public long getSeed() {
+        return runSeed;
+    }
+
+    /**
+     * Sets factory of random sources created from seeds, Xoshiro256 by default
+     * Sources have to be Serializable to save checkpoints
+     */
+    public void setRandomFactory(LongFunction<RandomSource> randomFactory) {
+        if(randomFactory == null){
+            throw new IllegalArgumentException("Random factory can't be null");
+        }
+        this.randomFactory = randomFactory;
+    }
+
+    /**
+     * Sets periodic checkpoints written in background during run(), null path = disabled
+     * Used only by single population, islands aren't checkpointed
+     * @param path file replaced by every checkpoint
+     * @param checkpointInterval minimal time between checkpoints in milliseconds
+     */
+    public void setCheckpoint(Path path, long checkpointInterval) {
+        if(checkpointInterval < 0){
+            throw new IllegalArgumentException("Checkpoint interval can't be negative");
+        }
+        if(checkpointWriter != null){
+            checkpointWriter.await();
+        }
+
+        this.checkpointWriter = (path == null) ? null : new CheckpointWriter(path);
+        this.checkpointInterval = checkpointInterval * 1_000_000L;
+    }
+
+    /**
+     * @return error of the last periodic checkpoint, null if it was written or there was none
+     */
+    public IOException getCheckpointError() {
+        return (checkpointWriter == null) ? null : checkpointWriter.getError();
+    }
+
+    /**
+     * @return progress of the current or the last run
+     */
+    public SearchProgress getProgress() {
+        return progress;
+    }
+
+    public void setDistances(double[][] distances) {
+        this.distances = validMatrix(distances);
+        this.candidateNeighbours = null;
+        this.pendingUpdate = null;
+    }
+
+    /**
+     * Sets distances read by solver, eg. CoordinateDistances computing distances on demand
+     */
+    public void setDistances(DistanceProvider distances) {
+        isDataValid(distances);
+
+        this.distances = distances;
+        this.candidateNeighbours = null;
+        this.pendingUpdate = null;
+    }
+
+    /**
+     * Appends points to running solver, routes of population get them by cheapest insertion
+     * @param distances distances of all points, current points keep their indexes and new ones follow them
+     */
+    public synchronized void addPoints(DistanceProvider distances) {
+        updateDistances(distances, IntStream.range(0, currentPointsCount()).toArray());
+    }
+
+    /**
+     * Removes points from running solver, routes of population skip them
+     * @param distances distances without removed points, other points keep their order
+     * @param points indexes of removed points, the start point can't be removed
+     */
+    public synchronized void removePoints(DistanceProvider distances, int... points) {
+        // mapping and update are built under one lock, so a change from other thread can't come between them
+        int[] mapping = new int[currentPointsCount()];
+
+        for(int point : points){
+            if(point < 0 || point >= mapping.length){
+                throw new IllegalArgumentException("Point " + point + " is out of bounds");
+            }
+            mapping[point] = -1;
+        }
+        for(int point = 0, index = 0; point < mapping.length; point++){
+            mapping[point] = (mapping[point] == -1) ? -1 : index++;
+        }
+
+        updateDistances(distances, mapping);
+    }
+
+    /**
+     * Changes points of running solver without a new run, eg. stops arriving or cancelled during optimization
+     * Change is applied at the start of the next generation, islands apply it between migrations and
+     * solver which doesn't run applies it at the start of the next run, following changes are combined
+     * Routes of population and the best route are repaired, removed points are dropped and new points are put
+     * by cheapest insertion, then they are evaluated again, so search continues from good routes
+     * Identity mapping only patches distances, eg. changed travel times
+     * throws IllegalArgumentException if mapping doesn't match points or the start point is removed
+     * @param distances distances of new points
+     * @param mapping index of every current point ( after previous changes ) in new distances, -1 = removed,
+     *                points of distances not mapped from any current point are new
+     */
+    public synchronized void updateDistances(DistanceProvider distances, int[] mapping) {
+        if(this.distances == null){
+            throw new IllegalStateException("Distances have to be set before update");
+        }
+        if(mapping == null || mapping.length != currentPointsCount()){
+            throw new IllegalArgumentException("Mapping has to have index of every of "
+                    + currentPointsCount() + " current points");
+        }
+
+        InstanceUpdate update = new InstanceUpdate(distances, mapping.clone());
+        if(pendingUpdate != null){
+            update = pendingUpdate.then(update);
+        }
+        if(startIndex >= 0 && startIndex < update.mapping.length && update.mapping[startIndex] == -1){
+            throw new IllegalArgumentException("Start point can't be removed");
+        }
+
+        pendingUpdate = update;
+    }
+
+    /**
+     * @return amount of points after waiting update
+     */
+    private int currentPointsCount(){
+        return (pendingUpdate != null) ? pendingUpdate.distances.size() : distances.size();
+    }
+
+    public void setStartIndex(int startIndex) {
         this.startIndex = startIndex;
     }
 
@@ -376,4 +1438,330 @@ public class TSPSolver {
     public void setMutationPickProbability(double mutationPickProbability) {
         this.mutationPickProbability = mutationPickProbability;
     }
+
+    /**
+     * Sets amount of sub-populations evolved in parallel, 1 = single population
+     * Each island has population of populationSize
+     */
+    public void setIslandCount(int islandCount) {
+        if(islandCount < 1){
+            throw new IllegalArgumentException("Required minimum 1 island");
+        }
+        this.islandCount = islandCount;
+    }
+
+    /**
+     * Sets amount of generations between migrations
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if(migrationInterval < 1){
+            throw new IllegalArgumentException("Migration interval has to be positive");
+        }
+        this.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * Sets amount of elite individuals sent from every island on migration
+     */
+    public void setMigrantCount(int migrantCount) {
+        if(migrantCount < 0){
+            throw new IllegalArgumentException("Migrant count can't be negative");
+        }
+        this.migrantCount = migrantCount;
+    }
+
+    public void setMigrationTopology(MigrationTopology migrationTopology) {
+        this.migrationTopology = migrationTopology;
+    }
+
+    /**
+     * Sets evaluator used to score descendants, ForkJoinEvaluator by default
+     */
+    public void setEvaluator(FitnessEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Debug mode, every length updated by mutation delta is compared with full route length
+     */
+    public void setDeltaVerification(boolean deltaVerification) {
+        this.deltaVerification = deltaVerification;
+    }
+
+    /**
+     * Sets part of descendants improved by local search ( 2-opt and Or-opt ) before selection, 0 = disabled
+     */
+    public void setLocalSearchShare(double localSearchShare) {
+        if(localSearchShare < 0 || localSearchShare > 1){
+            throw new IllegalArgumentException("Local search share has to be from 0 to 1");
+        }
+        this.localSearchShare = localSearchShare;
+    }
+
+    /**
+     * Sets max time of local search of one individual in milliseconds, 0 = till local optimum
+     */
+    public void setLocalSearchTimeLimit(int localSearchTimeLimit) {
+        if(localSearchTimeLimit < 0){
+            throw new IllegalArgumentException("Local search time limit can't be negative");
+        }
+        this.localSearchTimeLimit = localSearchTimeLimit;
+    }
+
+    /**
+     * Sets part of the first population built with seeding strategy heuristic, the rest is random, 0 = disabled
+     */
+    public void setSeedingShare(double seedingShare) {
+        if(seedingShare < 0 || seedingShare > 1){
+            throw new IllegalArgumentException("Seeding share has to be from 0 to 1");
+        }
+        this.seedingShare = seedingShare;
+    }
+
+    /**
+     * Sets heuristic building seeded part of the first population, NEAREST_NEIGHBOUR by default
+     */
+    public void setSeedingStrategy(SeedingStrategy seedingStrategy) {
+        if(seedingStrategy == null){
+            throw new IllegalArgumentException("Seeding strategy can't be null");
+        }
+        this.seedingStrategy = seedingStrategy;
+    }
+
+    /**
+     * Sets crossover building descendants of breed group, ONE_POINT by default
+     * Edge based EDGE_RECOMBINATION and EDGE_ASSEMBLY keep more edges of parents, so they converge faster
+     * on bigger instances, they use candidate neighbours of neighboursCount
+     */
+    public void setCrossoverStrategy(CrossoverStrategy crossoverStrategy) {
+        if(crossoverStrategy == null){
+            throw new IllegalArgumentException("Crossover strategy can't be null");
+        }
+        this.crossoverStrategy = crossoverStrategy;
+    }
+
+    /**
+     * Sets amount of route lengths kept in fitness cache, rounded up to a power of two, 0 = disabled
+     * Breed children with cached route aren't evaluated, the cache is built for every run
+     * Routes are hashed by undirected edges only for symmetric distances, so a route and its reverse
+     * share cached length only when they have the same length
+     */
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        if(fitnessCacheSize < 0){
+            throw new IllegalArgumentException("Fitness cache size can't be negative");
+        }
+        this.fitnessCacheSize = fitnessCacheSize;
+    }
+
+    /**
+     * Sets handling of descendants repeating route of an earlier descendant of the generation, KEEP by default
+     * For asymmetric distances only route in the same direction is a duplicate
+     */
+    public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+        if(duplicatePolicy == null){
+            throw new IllegalArgumentException("Duplicate policy can't be null");
+        }
+        this.duplicatePolicy = duplicatePolicy;
+    }
+
+    /**
+     * Enables decomposition of instances with coordinates bigger than clusterSize points, 0 = disabled
+     * Clusters are solved in parallel by solvers with settings of this one ( except islands ), routes are
+     * joined and joints repaired with local search, the run takes stopCondition milliseconds
+     * Stop criterion isn't used, without stopCondition clusters stop after generations without improvement
+     */
+    public void setClusterSize(int clusterSize) {
+        if(clusterSize < 0){
+            throw new IllegalArgumentException("Cluster size can't be negative");
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Sets division of points into clusters of decomposition, K_MEANS by default
+     */
+    public void setPartitionStrategy(PartitionStrategy partitionStrategy) {
+        if(partitionStrategy == null){
+            throw new IllegalArgumentException("Partition strategy can't be null");
+        }
+        this.partitionStrategy = partitionStrategy;
+    }
+
+    /**
+     * Decomposition improves the whole joined route with 2-opt and Or-opt instead of its joints only,
+     * 20% of stopCondition is kept for it
+     */
+    public void setGlobalImprovement(boolean globalImprovement) {
+        this.globalImprovement = globalImprovement;
+    }
+
+    /**
+     * Sets amount of the nearest neighbours of every point checked by local search
+     */
+    public void setNeighboursCount(int neighboursCount) {
+        if(neighboursCount < 1){
+            throw new IllegalArgumentException("Required minimum 1 neighbour");
+        }
+        this.neighboursCount = neighboursCount;
+        this.candidateNeighbours = null;
+    }
+
+    /**
+     * Sets amount of neighbours taken from every quadrant around point before the nearest ones,
+     * used only for distances with coordinates, 0 = only the nearest points
+     */
+    public void setQuadrantNeighboursCount(int quadrantNeighboursCount) {
+        if(quadrantNeighboursCount < 0){
+            throw new IllegalArgumentException("Quadrant neighbours count can't be negative");
+        }
+        this.quadrantNeighboursCount = quadrantNeighboursCount;
+        this.candidateNeighbours = null;
+    }
+
+    /**
+     * Sets precomputed candidate neighbours of distances points
+     */
+    public void setCandidateNeighbours(CandidateNeighbours candidateNeighbours) {
+        this.candidateNeighbours = candidateNeighbours;
+    }
+
+    /**
+     * @return candidate neighbours, built from distances on first use
+     * with KdTree for planar coordinates or by checking all distances otherwise
+     */
+    public CandidateNeighbours getCandidateNeighbours() {
+        if(candidateNeighbours == null){
+            if(distances instanceof CoordinateDistances){
+                candidateNeighbours = CandidateNeighbours.nearest((CoordinateDistances) distances,
+                        neighboursCount, quadrantNeighboursCount);
+            }else{
+                candidateNeighbours = CandidateNeighbours.nearest(distances, neighboursCount);
+            }
+        }
+        return candidateNeighbours;
+    }
+
+    /**
+     * @return time of the last generation in nanoseconds
+     */
+    public long getLastGenerationTime() {
+        return lastGenerationTime;
+    }
+
+    /**
+     * @return time spent on evaluating descendants of the last generation in nanoseconds
+     */
+    public long getLastEvaluationTime() {
+        return lastEvaluationTime;
+    }
+
+    /**
+     * @return part of the last generation spent on evaluation, from 0 to 1
+     */
+    public double getLastEvaluationShare() {
+        return (lastGenerationTime == 0) ? 0.0 : (double) lastEvaluationTime / lastGenerationTime;
+    }
+
+    /**
+     * @return time spent on evaluating descendants of all generations in nanoseconds
+     */
+    public long getEvaluationTime() {
+        return evaluationTime;
+    }
+
+    /**
+     * @return amount of breed children looked up in fitness cache in all runs
+     */
+    public long getCacheLookups() {
+        return cacheLookups;
+    }
+
+    /**
+     * @return amount of breed children found in fitness cache in all runs
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return part of lookups found in fitness cache, from 0 to 1
+     */
+    public double getCacheHitRate() {
+        return (cacheLookups == 0) ? 0.0 : (double) cacheHits / cacheLookups;
+    }
+
+    /**
+     * @return amount of clones found by duplicate policy in all runs
+     */
+    public long getDuplicateCount() {
+        return duplicates;
+    }
+
+    LongFunction<RandomSource> getRandomFactory() {
+        return randomFactory;
+    }
+
+    /**
+     * Uses populations and buffers of scratch instead of allocating them, used by BatchSolver
+     */
+    void setScratch(SolverScratch scratch) {
+        this.scratch = scratch;
+    }
+
+    /**
+     * Copies search settings of solver, used by islands and clusters of decomposition
+     */
+    void copySettings(TSPSolver solver) {
+        setEvaluator(solver.evaluator);
+        setRandomFactory(solver.randomFactory);
+        setDeltaVerification(solver.deltaVerification);
+        setLocalSearchShare(solver.localSearchShare);
+        setLocalSearchTimeLimit(solver.localSearchTimeLimit);
+        setNeighboursCount(solver.neighboursCount);
+        setQuadrantNeighboursCount(solver.quadrantNeighboursCount);
+        setSeedingShare(solver.seedingShare);
+        setSeedingStrategy(solver.seedingStrategy);
+        setCrossoverStrategy(solver.crossoverStrategy);
+        setFitnessCacheSize(solver.fitnessCacheSize);
+        setDuplicatePolicy(solver.duplicatePolicy);
+        setStagnationGenerations(solver.stagnationGenerations);
+        setStagnationResponse(solver.stagnationResponse);
+        setInjectionShare(solver.injectionShare);
+    }
+
+    /**
+     * Islands and clusters share listeners of the main solver and report their number in metrics
+     */
+    void shareGenerationListeners(TSPSolver solver, int island) {
+        this.generationListeners = solver.generationListeners;
+        this.metrics.island = island;
+    }
+
+    boolean hasCandidateNeighbours() {
+        return candidateNeighbours != null;
+    }
+
+    int getStartIndex() {
+        return startIndex;
+    }
+
+    DistanceProvider getDistances() {
+        return distances;
+    }
+
+    int getPopulationSize() {
+        return populationSize;
+    }
+
+    double getCrossingPickProbability() {
+        return crossingPickProbability;
+    }
+
+    double getMutationPickProbability() {
+        return mutationPickProbability;
+    }
+
+    double getSeedingShare() {
+        return seedingShare;
+    }
 }
@@ -0,0 +1,72 @@
+package algorithm;
+
+/**
+ * Zobrist-style hash of route as a set of edges
+ * Every point has a random key, key of edge is the product of keys of its points and hash is the sum of edge keys,
+ * so route read from any point has the same hash
+ * Undirected edges ( symmetric distances ) give the same hash to route read in both directions, directed edges
+ * use other key for the end point of edge, so reversed route, which has other length, has other hash
+ * A swap of two genes updates the hash in O(1) by keys of the changed edges
+ */
+final class TourHash {
+
+    // keys of points at the start and at the end of edge, the same array for undirected edges
+    private final long[] keys;
+    private final long[] endKeys;
+
+    /**
+     * Keys depend only on points, routes of the same points have the same hashes in every solver
+     * @param directed true for asymmetric distances
+     */
+    TourHash(int points, boolean directed) {
+        keys = keys(points, 0);
+        endKeys = directed ? keys(points, points) : keys;
+    }
+
+    private static long[] keys(int points, int first){
+        long[] keys = new long[points];
+
+        for(int i = 0; i < points; i++){
+            // SplitMix64 of point, odd keys keep products from losing low bits
+            long key = (first + i + 1) * 0x9E3779B97F4A7C15L;
+            key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+            key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+            keys[i] = (key ^ (key >>> 31)) | 1L;
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return hash of route from offset, first and last gene is the start point
+     */
+    long of(int[] genes, int offset, int genesLength){
+        long hash = 0L;
+        int end = offset + genesLength - 1;
+
+        for(int i = offset; i < end; i++){
+            hash += keys[genes[i]] * endKeys[genes[i + 1]];
+        }
+
+        return hash;
+    }
+
+    /**
+     * Sum of keys of edges starting at first - 1, first, second - 1 and second, the same edges
+     * as GeneticOperators.mutate() changes, edge first -> second is counted once if genes are neighbours
+     * Hash after swap = hash - swapEdges() before swap + swapEdges() after swap
+     * @param first index of the first swapped gene in genes, 0 < first < second
+     * @param second index of the second swapped gene in genes
+     */
+    long swapEdges(int[] genes, int first, int second){
+        long hash = keys[genes[first - 1]] * endKeys[genes[first]]
+                + keys[genes[first]] * endKeys[genes[first + 1]]
+                + keys[genes[second]] * endKeys[genes[second + 1]];
+
+        if(second - 1 != first){
+            hash += keys[genes[second - 1]] * endKeys[genes[second]];
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,55 @@
+package algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of route hashes of one generation, hash maps to index of the first descendant having it
+ * Cleared in O(1) by a new stamp, so finding duplicates doesn't allocate or clear arrays every generation
+ */
+final class TourHashSet {
+
+    private long[] hashes = new long[0];
+    private int[] indexes = new int[0];
+    private int[] stamps = new int[0];
+    private int stamp;
+    private int mask;
+
+    /**
+     * Empties the set, arrays are extended if set has to keep more than half of slots free for size hashes
+     */
+    void clear(int size){
+        if(2 * size > hashes.length){
+            int slots = Integer.highestOneBit(Math.max(2, 4 * size - 1));
+            hashes = new long[slots];
+            indexes = new int[slots];
+            stamps = new int[slots];
+            mask = slots - 1;
+            stamp = 0;
+        }
+
+        if(++stamp == 0){
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Adds hash of descendant with given index
+     * @return index of descendant added before with the same hash or -1 if hash is new
+     */
+    int add(long hash, int index){
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while(stamps[slot] == stamp){
+            if(hashes[slot] == hash){
+                return indexes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        stamps[slot] = stamp;
+        hashes[slot] = hash;
+        indexes[slot] = index;
+        return -1;
+    }
+}
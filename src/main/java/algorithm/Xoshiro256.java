@@ -0,0 +1,49 @@
+package algorithm;
+
+import java.io.Serializable;
+
+/**
+ * xoshiro256** generator, default RandomSource of solver
+ * Not thread safe, every thread uses its own instance
+ * State is initialized from seed with SplitMix64, so close seeds give unrelated sequences
+ */
+public final class Xoshiro256 implements RandomSource, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    public Xoshiro256(long seed) {
+        long state = seed;
+        s0 = mix(state += GOLDEN_GAMMA);
+        s1 = mix(state += GOLDEN_GAMMA);
+        s2 = mix(state += GOLDEN_GAMMA);
+        s3 = mix(state + GOLDEN_GAMMA);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+
+        return result;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z){
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
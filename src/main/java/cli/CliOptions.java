@@ -0,0 +1,357 @@
+package cli;
+
+import algorithm.CrossoverStrategy;
+import algorithm.DuplicatePolicy;
+import algorithm.ForkJoinEvaluator;
+import algorithm.MigrationTopology;
+import algorithm.PartitionStrategy;
+import algorithm.SeedingStrategy;
+import algorithm.SequentialEvaluator;
+import algorithm.StagnationResponse;
+import algorithm.StopCriterion;
+import algorithm.TSPSolver;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line flags of SolverCli, every flag is "--name value" or "--name=value"
+ * throws IllegalArgumentException() for unknown flag or incorrect value
+ */
+class CliOptions {
+
+    static final String USAGE = String.join("\n",
+            "Usage: java -cp TSPSolver.jar cli.SolverCli [options] <file.tsp | file.tspm | -> ...",
+            "Solves TSPLIB ( .tsp ) or binary matrix ( .tspm ) instances, - reads .tsp from stdin",
+            "",
+            "Solver:",
+            "  --population N               population size (100)",
+            "  --time MS                    time limit of every instance, 0 = only other criteria (1000)",
+            "  --crossing P                 crossing pick probability (0.5)",
+            "  --mutation P                 mutation pick probability (0.1)",
+            "  --start I                    start point, 0-based (0)",
+            "  --seed N                     master seed, the same seed gives the same routes when run isn't",
+            "                               stopped by time (random)",
+            "  --crossover NAME             one-point, order, partially-mapped, edge-recombination or edge-assembly",
+            "  --fitness-cache N            route lengths kept by hash of route, 0 = off (0)",
+            "  --duplicates NAME            keep, skip or mutate descendants repeating a route (keep)",
+            "  --evaluator NAME             forkjoin or sequential (sequential for more than one instance at once)",
+            "  --delta-verification         checks every mutation delta with full length",
+            "  --islands N                  amount of islands (1)",
+            "  --migration-interval N       generations between migrations (50)",
+            "  --migrants N                 individuals sent by every island (2)",
+            "  --topology NAME              ring or random (ring)",
+            "  --local-search SHARE         part of descendants improved by 2-opt and Or-opt (0)",
+            "  --local-search-time MS       local search time per individual, 0 = till local optimum (0)",
+            "  --neighbours N               candidate neighbours of every point (8)",
+            "  --quadrant-neighbours N      candidate neighbours from every quadrant (0)",
+            "  --seeding SHARE              part of the first population built with heuristic (0)",
+            "  --seeding-strategy NAME      nearest-neighbour, greedy-edge or space-filling-curve",
+            "  --stagnation N               generations without improvement before response, 0 = off (0)",
+            "  --stagnation-response NAME   restart or diversity-injection",
+            "  --injection-share SHARE      part of population replaced by diversity injection (0.5)",
+            "  --cluster-size N             solves clusters of N points in parallel and joins their routes,",
+            "                               only instances with coordinates, runs --time, 0 = off (0)",
+            "  --partition NAME             grid, space-filling-curve or k-means (k-means)",
+            "  --global-improvement         improves the whole joined route instead of its joints",
+            "",
+            "Stop criteria, run stops on the first met one:",
+            "  --max-generations N",
+            "  --no-improvement N           generations without improvement",
+            "  --no-improvement-time MS",
+            "  --target LENGTH",
+            "  --relative-improvement R     minimal relative improvement in --relative-window generations",
+            "  --relative-window N          (100)",
+            "",
+            "Input and output:",
+            "  --parallel N                 instances solved at once (available processors)",
+            "  --format NAME                csv or jsonl (csv)",
+            "  --output PATH                results file (stdout)",
+            "  --include-tour               adds route ( TSPLIB 1-based ids ) to results",
+            "  --tour-dir DIR               writes <name>.tour of every instance, repeated name gets -<input number>",
+            "  --metrics PATH               writes generation metrics in --format",
+            "  --metrics-interval N         generations between metrics rows (1)",
+            "  --checkpoint-dir DIR         periodic checkpoints <name>.ckpt of every instance, named as tours",
+            "  --checkpoint-interval MS     (60000)",
+            "  --resume                     continues from checkpoints of --checkpoint-dir if they exist",
+            "  --help",
+            "",
+            "Exit codes: 0 solved, 1 any instance failed, 2 incorrect options, 3 any input can't be read,",
+            "            4 output can't be written");
+
+    final List<String> inputs = new ArrayList<>();
+
+    int populationSize = 100;
+    int time = 1000;
+    double crossingPickProbability = 0.5;
+    double mutationPickProbability = 0.1;
+    int startIndex;
+    Long seed;
+    CrossoverStrategy crossover = CrossoverStrategy.ONE_POINT;
+    int fitnessCache;
+    DuplicatePolicy duplicates = DuplicatePolicy.KEEP;
+    String evaluator;
+    boolean deltaVerification;
+    int islands = 1;
+    int migrationInterval = 50;
+    int migrants = 2;
+    MigrationTopology topology = MigrationTopology.RING;
+    double localSearchShare;
+    int localSearchTime;
+    int neighbours = 8;
+    int quadrantNeighbours;
+    double seedingShare;
+    SeedingStrategy seedingStrategy = SeedingStrategy.NEAREST_NEIGHBOUR;
+    int stagnation;
+    StagnationResponse stagnationResponse = StagnationResponse.DIVERSITY_INJECTION;
+    double injectionShare = 0.5;
+    int clusterSize;
+    PartitionStrategy partition = PartitionStrategy.K_MEANS;
+    boolean globalImprovement;
+
+    long maxGenerations = -1;
+    long noImprovement = -1;
+    long noImprovementTime = -1;
+    double target = Double.NaN;
+    double relativeImprovement = Double.NaN;
+    long relativeWindow = 100;
+
+    int parallel = Runtime.getRuntime().availableProcessors();
+    String format = "csv";
+    Path output;
+    boolean includeTour;
+    Path tourDir;
+    Path metrics;
+    int metricsInterval = 1;
+    Path checkpointDir;
+    long checkpointInterval = 60000;
+    boolean resume;
+    boolean help;
+
+    static CliOptions parse(String[] args){
+        CliOptions options = new CliOptions();
+
+        for(int i = 0; i < args.length; i++){
+            String arg = args[i];
+
+            if(!arg.startsWith("--")){
+                options.inputs.add(arg);
+                continue;
+            }
+
+            String name = arg.substring(2);
+            String value = null;
+            int equals = name.indexOf('=');
+            if(equals >= 0){
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            }
+
+            if(isSwitch(name)){
+                if(value != null){
+                    throw new IllegalArgumentException("Flag --" + name + " doesn't take value");
+                }
+                options.setSwitch(name);
+                continue;
+            }
+
+            if(value == null){
+                if(i + 1 >= args.length){
+                    throw new IllegalArgumentException("Missing value of --" + name);
+                }
+                value = args[++i];
+            }
+            options.set(name, value);
+        }
+
+        options.validate();
+        return options;
+    }
+
+    private static boolean isSwitch(String name){
+        switch (name){
+            case "delta-verification":
+            case "include-tour":
+            case "resume":
+            case "global-improvement":
+            case "help":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void setSwitch(String name){
+        switch (name){
+            case "delta-verification": deltaVerification = true; break;
+            case "include-tour": includeTour = true; break;
+            case "resume": resume = true; break;
+            case "global-improvement": globalImprovement = true; break;
+            default: help = true;
+        }
+    }
+
+    private void set(String name, String value){
+        try{
+            switch (name){
+                case "population": populationSize = Integer.parseInt(value); break;
+                case "time": time = Integer.parseInt(value); break;
+                case "crossing": crossingPickProbability = Double.parseDouble(value); break;
+                case "mutation": mutationPickProbability = Double.parseDouble(value); break;
+                case "start": startIndex = Integer.parseInt(value); break;
+                case "seed": seed = Long.parseLong(value); break;
+                case "crossover": crossover = CrossoverStrategy.valueOf(constant(value)); break;
+                case "fitness-cache": fitnessCache = Integer.parseInt(value); break;
+                case "duplicates": duplicates = DuplicatePolicy.valueOf(constant(value)); break;
+                case "evaluator": evaluator = oneOf(name, value, "forkjoin", "sequential"); break;
+                case "islands": islands = Integer.parseInt(value); break;
+                case "migration-interval": migrationInterval = Integer.parseInt(value); break;
+                case "migrants": migrants = Integer.parseInt(value); break;
+                case "topology": topology = MigrationTopology.valueOf(constant(value)); break;
+                case "local-search": localSearchShare = Double.parseDouble(value); break;
+                case "local-search-time": localSearchTime = Integer.parseInt(value); break;
+                case "neighbours": neighbours = Integer.parseInt(value); break;
+                case "quadrant-neighbours": quadrantNeighbours = Integer.parseInt(value); break;
+                case "seeding": seedingShare = Double.parseDouble(value); break;
+                case "seeding-strategy": seedingStrategy = SeedingStrategy.valueOf(constant(value)); break;
+                case "stagnation": stagnation = Integer.parseInt(value); break;
+                case "stagnation-response": stagnationResponse = StagnationResponse.valueOf(constant(value)); break;
+                case "injection-share": injectionShare = Double.parseDouble(value); break;
+                case "cluster-size": clusterSize = Integer.parseInt(value); break;
+                case "partition": partition = PartitionStrategy.valueOf(constant(value)); break;
+                case "max-generations": maxGenerations = Long.parseLong(value); break;
+                case "no-improvement": noImprovement = Long.parseLong(value); break;
+                case "no-improvement-time": noImprovementTime = Long.parseLong(value); break;
+                case "target": target = Double.parseDouble(value); break;
+                case "relative-improvement": relativeImprovement = Double.parseDouble(value); break;
+                case "relative-window": relativeWindow = Long.parseLong(value); break;
+                case "parallel": parallel = Integer.parseInt(value); break;
+                case "format": format = oneOf(name, value, "csv", "jsonl"); break;
+                case "output": output = Paths.get(value); break;
+                case "tour-dir": tourDir = Paths.get(value); break;
+                case "metrics": metrics = Paths.get(value); break;
+                case "metrics-interval": metricsInterval = Integer.parseInt(value); break;
+                case "checkpoint-dir": checkpointDir = Paths.get(value); break;
+                case "checkpoint-interval": checkpointInterval = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown flag --" + name);
+            }
+        }catch (NumberFormatException e){
+            throw new IllegalArgumentException("Incorrect number of --" + name + ": " + value);
+        }catch (IllegalArgumentException e){
+            if(e.getMessage() != null && e.getMessage().startsWith("No enum constant")){
+                throw new IllegalArgumentException("Incorrect value of --" + name + ": " + value);
+            }
+            throw e;
+        }
+    }
+
+    private static String oneOf(String name, String value, String... allowed){
+        for(String option : allowed){
+            if(option.equals(value)){
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Incorrect value of --" + name + ": " + value);
+    }
+
+    private static String constant(String value){
+        return value.toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    private void validate(){
+        if(help){
+            return;
+        }
+        if(inputs.isEmpty()){
+            throw new IllegalArgumentException("No input files");
+        }
+        if(inputs.stream().filter("-"::equals).count() > 1){
+            throw new IllegalArgumentException("Stdin can be read only once");
+        }
+        if(populationSize < 1 || time < 0 || parallel < 1 || metricsInterval < 1 || islands < 1){
+            throw new IllegalArgumentException("Population, parallel, islands and metrics interval have to be positive,"
+                    + " time can't be negative");
+        }
+        if(time == 0 && !hasStopCriterion()){
+            throw new IllegalArgumentException("--time 0 requires other stop criterion");
+        }
+        if(clusterSize < 0){
+            throw new IllegalArgumentException("Cluster size can't be negative");
+        }
+        if(time == 0 && clusterSize > 0){
+            throw new IllegalArgumentException("--cluster-size runs only for --time, it can't be 0");
+        }
+        if(resume && checkpointDir == null){
+            throw new IllegalArgumentException("--resume requires --checkpoint-dir");
+        }
+    }
+
+    boolean hasStopCriterion(){
+        return maxGenerations >= 0 || noImprovement >= 0 || noImprovementTime >= 0
+                || !Double.isNaN(target) || !Double.isNaN(relativeImprovement);
+    }
+
+    /**
+     * @return new criterion made of stop criteria flags, null if there are none
+     */
+    StopCriterion createStopCriterion(){
+        StopCriterion criterion = null;
+
+        if(maxGenerations >= 0){
+            criterion = or(criterion, StopCriterion.maxGenerations(maxGenerations));
+        }
+        if(noImprovement >= 0){
+            criterion = or(criterion, StopCriterion.noImprovementGenerations(noImprovement));
+        }
+        if(noImprovementTime >= 0){
+            criterion = or(criterion, StopCriterion.noImprovementTime(noImprovementTime));
+        }
+        if(!Double.isNaN(target)){
+            criterion = or(criterion, StopCriterion.targetLength(target));
+        }
+        if(!Double.isNaN(relativeImprovement)){
+            criterion = or(criterion, StopCriterion.relativeImprovement(relativeImprovement, relativeWindow));
+        }
+
+        return criterion;
+    }
+
+    private static StopCriterion or(StopCriterion criterion, StopCriterion other){
+        return (criterion == null) ? other : criterion.or(other);
+    }
+
+    /**
+     * Applies solver flags, setters validate values
+     */
+    void configure(TSPSolver solver){
+        if(evaluator != null){
+            solver.setEvaluator("forkjoin".equals(evaluator) ? new ForkJoinEvaluator() : new SequentialEvaluator());
+        }
+        if(seed != null){
+            solver.setSeed(seed);
+        }
+        solver.setCrossoverStrategy(crossover);
+        solver.setFitnessCacheSize(fitnessCache);
+        solver.setDuplicatePolicy(duplicates);
+        solver.setDeltaVerification(deltaVerification);
+        solver.setIslandCount(islands);
+        solver.setMigrationInterval(migrationInterval);
+        solver.setMigrantCount(migrants);
+        solver.setMigrationTopology(topology);
+        solver.setLocalSearchShare(localSearchShare);
+        solver.setLocalSearchTimeLimit(localSearchTime);
+        solver.setNeighboursCount(neighbours);
+        solver.setQuadrantNeighboursCount(quadrantNeighbours);
+        solver.setSeedingShare(seedingShare);
+        solver.setSeedingStrategy(seedingStrategy);
+        solver.setStagnationGenerations(stagnation);
+        solver.setStagnationResponse(stagnationResponse);
+        solver.setInjectionShare(injectionShare);
+        solver.setClusterSize(clusterSize);
+        solver.setPartitionStrategy(partition);
+        solver.setGlobalImprovement(globalImprovement);
+    }
+}
@@ -0,0 +1,138 @@
+package cli;
+
+import io.JsonStrings;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes rows of named values as CSV ( header before the first row ) or JSON lines
+ * Rows can be written from several threads, the first write error is kept and next rows are skipped
+ * Supported values: null, String, Number, int[]
+ */
+class RowWriter implements AutoCloseable {
+
+    private final Writer writer;
+    private final boolean json;
+    private final boolean flushRows;
+    private final boolean closeWriter;
+    private boolean headerWritten;
+    private IOException error;
+    private final StringBuilder row = new StringBuilder(256);
+
+    /**
+     * @param flushRows flushes after every row, so reader sees results as soon as they are ready
+     * @param closeWriter false for writer of stdout, which is only flushed by close()
+     */
+    RowWriter(Writer writer, String format, boolean flushRows, boolean closeWriter) {
+        this.writer = writer;
+        this.json = "jsonl".equals(format);
+        this.flushRows = flushRows;
+        this.closeWriter = closeWriter;
+    }
+
+    synchronized void write(String[] names, Object[] values){
+        if(error != null){
+            return;
+        }
+
+        row.setLength(0);
+        if(json){
+            appendJson(names, values);
+        }else{
+            if(!headerWritten){
+                for(int i = 0; i < names.length; i++){
+                    row.append(i == 0 ? "" : ",").append(names[i]);
+                }
+                row.append('\n');
+                headerWritten = true;
+            }
+            appendCsv(values);
+        }
+
+        try{
+            writer.write(row.toString());
+            if(flushRows){
+                writer.flush();
+            }
+        }catch (IOException e){
+            error = e;
+        }
+    }
+
+    synchronized IOException getError() {
+        return error;
+    }
+
+    @Override
+    public synchronized void close() {
+        try{
+            writer.flush();
+            if(closeWriter){
+                writer.close();
+            }
+        }catch (IOException e){
+            if(error == null){
+                error = e;
+            }
+        }
+    }
+
+    private void appendJson(String[] names, Object[] values){
+        row.append('{');
+        for(int i = 0; i < names.length; i++){
+            if(i > 0){
+                row.append(',');
+            }
+            JsonStrings.append(row, names[i]);
+            row.append(':');
+
+            Object value = values[i];
+            if(value == null){
+                row.append("null");
+            }else if(value instanceof int[]){
+                int[] array = (int[]) value;
+                row.append('[');
+                for(int j = 0; j < array.length; j++){
+                    row.append(j == 0 ? "" : ",").append(array[j]);
+                }
+                row.append(']');
+            }else if(value instanceof Number){
+                double number = ((Number) value).doubleValue();
+                // JSON has no NaN and infinity
+                row.append(Double.isFinite(number) ? value.toString() : "null");
+            }else{
+                JsonStrings.append(row, value.toString());
+            }
+        }
+        row.append("}\n");
+    }
+
+    private void appendCsv(Object[] values){
+        for(int i = 0; i < values.length; i++){
+            if(i > 0){
+                row.append(',');
+            }
+
+            Object value = values[i];
+            if(value == null){
+                continue;
+            }
+            if(value instanceof int[]){
+                int[] array = (int[]) value;
+                for(int j = 0; j < array.length; j++){
+                    row.append(j == 0 ? "" : " ").append(array[j]);
+                }
+                continue;
+            }
+
+            String text = value.toString();
+            if(text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0){
+                row.append('"').append(text.replace("\"", "\"\"")).append('"');
+            }else{
+                row.append(text);
+            }
+        }
+        row.append('\n');
+    }
+}
@@ -0,0 +1,301 @@
+package cli;
+
+import algorithm.BatchJob;
+import algorithm.BatchResult;
+import algorithm.BatchSolver;
+import algorithm.DistanceProvider;
+import algorithm.GenerationMetrics;
+import algorithm.Individual;
+import algorithm.MappedDistances;
+import io.TourWriter;
+import io.TspInstance;
+import io.TsplibReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Headless runner, solves instance files in parallel and writes results as CSV or JSON lines
+ * It doesn't load Swing, so it starts fast enough to be called per request
+ * Run with --help for options
+ */
+public class SolverCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_SOLVER_ERROR = 1;
+    static final int EXIT_USAGE = 2;
+    static final int EXIT_INPUT_ERROR = 3;
+    static final int EXIT_OUTPUT_ERROR = 4;
+
+    private static final String[] RESULT_COLUMNS =
+            {"file", "name", "dimension", "status", "length", "generations", "elapsed_ms", "error"};
+    private static final String[] RESULT_TOUR_COLUMNS =
+            {"file", "name", "dimension", "status", "length", "generations", "elapsed_ms", "error", "tour"};
+    private static final String[] METRICS_COLUMNS = {"file", "name", "island", "generation", "best", "mean",
+            "worst", "generation_ns", "evaluations", "cache_hits", "duplicates"};
+
+    private final CliOptions options;
+    private final AtomicBoolean solverError = new AtomicBoolean();
+    private final AtomicBoolean inputError = new AtomicBoolean();
+    private final AtomicBoolean outputError = new AtomicBoolean();
+    private RowWriter results;
+    private RowWriter metrics;
+    // used only by main thread
+    private final Set<String> fileNames = new HashSet<>();
+
+    SolverCli(CliOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String... args){
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the whole command without exiting JVM
+     * @return exit code
+     */
+    public static int run(String... args){
+        CliOptions options;
+        try{
+            options = CliOptions.parse(args);
+        }catch (IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println(CliOptions.USAGE);
+            return EXIT_USAGE;
+        }
+
+        if(options.help){
+            System.out.println(CliOptions.USAGE);
+            return EXIT_OK;
+        }
+
+        return new SolverCli(options).solve();
+    }
+
+    int solve(){
+        try{
+            results = new RowWriter(open(options.output), options.format, true, options.output != null);
+            if(options.metrics != null){
+                metrics = new RowWriter(open(options.metrics), options.format, false, true);
+            }
+            if(options.tourDir != null){
+                Files.createDirectories(options.tourDir);
+            }
+            if(options.checkpointDir != null){
+                Files.createDirectories(options.checkpointDir);
+            }
+        }catch (IOException e){
+            System.err.println("Can't open output: " + e.getMessage());
+            closeWriters();
+            return EXIT_OUTPUT_ERROR;
+        }
+
+        try(BatchSolver solver = new BatchSolver(options.parallel)){
+            List<CompletableFuture<Void>> pending = new ArrayList<>(options.inputs.size());
+
+            // instances are read one by one on main thread while previous ones are solved
+            for(int index = 0; index < options.inputs.size(); index++){
+                String input = options.inputs.get(index);
+                TspInstance instance;
+                try{
+                    instance = read(input);
+                }catch (IOException | RuntimeException e){
+                    inputError.set(true);
+                    writeResult(input, null, 0, "input-error", null, e);
+                    continue;
+                }
+
+                String fileName = fileName(instance.getName(), index);
+                BatchJob job;
+                try{
+                    job = createJob(input, instance, fileName);
+                }catch (IllegalArgumentException e){
+                    solverError.set(true);
+                    writeResult(input, instance.getName(), instance.getDimension(), "failed", null, e);
+                    continue;
+                }
+
+                pending.add(solver.submit(job).thenAccept(result -> complete(input, instance, fileName, result)));
+            }
+
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        closeWriters();
+        if(outputError.get()){
+            return EXIT_OUTPUT_ERROR;
+        }
+        if(inputError.get()){
+            return EXIT_INPUT_ERROR;
+        }
+        return solverError.get() ? EXIT_SOLVER_ERROR : EXIT_OK;
+    }
+
+    private static Writer open(Path path) throws IOException {
+        if(path == null){
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if(parent != null){
+            Files.createDirectories(parent);
+        }
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads TSPLIB file, binary matrix of MappedDistances ( .tspm ) or TSPLIB from stdin for "-"
+     */
+    private static TspInstance read(String input) throws IOException {
+        if("-".equals(input)){
+            return TsplibReader.read(Channels.newChannel(System.in));
+        }
+
+        Path path = Paths.get(input);
+        String fileName = path.getFileName().toString();
+        if(fileName.endsWith(".tspm")){
+            DistanceProvider distances = MappedDistances.open(path);
+            return new TspInstance(fileName.substring(0, fileName.length() - 5), "TSP", distances);
+        }
+        return TsplibReader.read(path);
+    }
+
+    /**
+     * @return name of checkpoint and tour files, instance name or for repeated name also 1-based index of input
+     */
+    private String fileName(String name, int index){
+        String fileName = name;
+        for(int suffix = index + 1; !fileNames.add(fileName); suffix++){
+            fileName = name + "-" + suffix;
+        }
+        return fileName;
+    }
+
+    private BatchJob createJob(String input, TspInstance instance, String fileName){
+        BatchJob job = new BatchJob(instance.getDistances(), options.startIndex);
+        job.setPopulationSize(options.populationSize);
+        job.setCrossingPickProbability(options.crossingPickProbability);
+        job.setMutationPickProbability(options.mutationPickProbability);
+        // time 0 leaves only stop criteria flags
+        job.setTimeBudget(options.time == 0 ? Integer.MAX_VALUE : options.time);
+        job.setStopCriterion(options.createStopCriterion());
+
+        String name = instance.getName();
+        job.setConfiguration(tspSolver -> {
+            options.configure(tspSolver);
+            if(metrics != null){
+                tspSolver.addGenerationListener(generation -> writeMetrics(input, name, generation));
+            }
+            if(options.checkpointDir != null){
+                Path checkpoint = options.checkpointDir.resolve(fileName + ".ckpt");
+                if(options.resume && Files.exists(checkpoint)){
+                    try{
+                        tspSolver.resume(checkpoint);
+                    }catch (IOException e){
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                tspSolver.setCheckpoint(checkpoint, options.checkpointInterval);
+            }
+        });
+
+        return job;
+    }
+
+    private void complete(String input, TspInstance instance, String fileName, BatchResult result){
+        if(!result.isSuccessful()){
+            solverError.set(true);
+            writeResult(input, instance.getName(), instance.getDimension(), "failed", result, result.getError());
+            return;
+        }
+
+        if(options.tourDir != null){
+            try{
+                TourWriter.write(options.tourDir.resolve(fileName + ".tour"), instance.getName(),
+                        result.getBestIndividual());
+            }catch (IOException e){
+                outputError.set(true);
+                System.err.println("Can't write tour of " + input + ": " + e.getMessage());
+            }
+        }
+
+        writeResult(input, instance.getName(), instance.getDimension(), "solved", result, null);
+    }
+
+    private void writeResult(String input, String name, int dimension, String status, BatchResult result,
+                             Exception error){
+        Individual best = (result == null) ? null : result.getBestIndividual();
+        Object[] values = {
+                input,
+                name,
+                dimension,
+                status,
+                (best == null) ? null : best.getLength(),
+                (result == null) ? null : result.getGenerations(),
+                (result == null) ? null : result.getElapsedTime() / 1_000_000L,
+                (error == null) ? null : String.valueOf(error.getMessage()),
+                (best == null) ? null : TourWriter.tourIds(best.getGenes())
+        };
+
+        if(options.includeTour){
+            results.write(RESULT_TOUR_COLUMNS, values);
+        }else{
+            results.write(RESULT_COLUMNS, Arrays.copyOf(values, RESULT_COLUMNS.length));
+        }
+        if(error != null){
+            System.err.println(input + ": " + error);
+        }
+    }
+
+    private void writeMetrics(String input, String name, GenerationMetrics generation){
+        if(generation.getGeneration() % options.metricsInterval != 0){
+            return;
+        }
+
+        metrics.write(METRICS_COLUMNS, new Object[]{
+                input,
+                name,
+                generation.getIsland(),
+                generation.getGeneration(),
+                generation.getBestLength(),
+                generation.getMeanLength(),
+                generation.getWorstLength(),
+                generation.getGenerationTime(),
+                generation.getEvaluations(),
+                generation.getCacheHits(),
+                generation.getDuplicates()
+        });
+    }
+
+    private void closeWriters(){
+        if(results != null){
+            results.close();
+            if(results.getError() != null){
+                outputError.set(true);
+                System.err.println("Can't write results: " + results.getError().getMessage());
+            }
+        }
+        if(metrics != null){
+            metrics.close();
+            if(metrics.getError() != null){
+                outputError.set(true);
+                System.err.println("Can't write metrics: " + metrics.getError().getMessage());
+            }
+        }
+    }
+}
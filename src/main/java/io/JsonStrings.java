@@ -0,0 +1,33 @@
+package io;
+
+/**
+ * Escaping of strings in JSON written by command line results and service responses
+ */
+public final class JsonStrings {
+
+    private JsonStrings() { }
+
+    /**
+     * Appends value as quoted JSON string, quotes, backslashes and control characters are escaped
+     */
+    public static void append(StringBuilder builder, String value){
+        builder.append('"');
+        for(int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if(c == '"' || c == '\\'){
+                builder.append('\\').append(c);
+            }else if(c == '\n'){
+                builder.append("\\n");
+            }else if(c == '\r'){
+                builder.append("\\r");
+            }else if(c == '\t'){
+                builder.append("\\t");
+            }else if(c < 0x20){
+                builder.append(String.format("\\u%04x", (int) c));
+            }else{
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,56 @@
+package io;
+
+import algorithm.Individual;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes routes in TSPLIB .tour format
+ */
+public class TourWriter {
+
+    private TourWriter() { }
+
+    public static void write(Path path, String name, Individual individual) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)){
+            write(writer, name, individual.getGenes(), individual.getLength());
+        }
+    }
+
+    /**
+     * @param genes route, if last gene is the start point again it isn't written
+     * @param length length of the route written in comment
+     */
+    public static void write(Writer writer, String name, int[] genes, double length) throws IOException {
+        int[] ids = tourIds(genes);
+
+        writer.write("NAME : " + name + "\n");
+        writer.write("COMMENT : Length " + length + "\n");
+        writer.write("TYPE : TOUR\n");
+        writer.write("DIMENSION : " + ids.length + "\n");
+        writer.write("TOUR_SECTION\n");
+        for(int id : ids){
+            writer.write(Integer.toString(id));
+            writer.write('\n');
+        }
+        writer.write("-1\nEOF\n");
+        writer.flush();
+    }
+
+    /**
+     * @return TSPLIB 1-based ids of route without repeated start point
+     */
+    public static int[] tourIds(int[] genes){
+        int dimension = (genes.length > 1 && genes[0] == genes[genes.length - 1]) ? genes.length - 1 : genes.length;
+        int[] ids = new int[dimension];
+        for(int i = 0; i < dimension; i++){
+            ids[i] = genes[i] + 1;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,49 @@
+package io;
+
+import algorithm.CoordinateDistances;
+import algorithm.DistanceProvider;
+
+/**
+ * Problem read from TSPLIB file
+ */
+public class TspInstance {
+
+    private final String name;
+    private final String type;
+    private final DistanceProvider distances;
+
+    public TspInstance(String name, String type, DistanceProvider distances) {
+        this.name = name;
+        this.type = type;
+        this.distances = distances;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return TSPLIB type, eg. TSP or ATSP
+     */
+    public String getType() {
+        return type;
+    }
+
+    public int getDimension() {
+        return distances.size();
+    }
+
+    /**
+     * @return distances which can be passed straight to TSPSolver
+     */
+    public DistanceProvider getDistances() {
+        return distances;
+    }
+
+    /**
+     * @return distances with coordinates, null if instance has explicit distances
+     */
+    public CoordinateDistances getCoordinates() {
+        return (distances instanceof CoordinateDistances) ? (CoordinateDistances) distances : null;
+    }
+}
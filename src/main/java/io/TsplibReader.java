@@ -0,0 +1,240 @@
+package io;
+
+import algorithm.CoordinateDistances;
+import algorithm.DistanceProvider;
+import algorithm.MatrixDistances;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Stream parser of TSPLIB .tsp and .tour files
+ * Supported edge weight types: EUC_2D, CEIL_2D, ATT, GEO and EXPLICIT with
+ * FULL_MATRIX, UPPER_ROW, LOWER_ROW, UPPER_DIAG_ROW and LOWER_DIAG_ROW formats
+ *
+ * Coordinates are parsed straight into primitive arrays, so memory is bounded by the size of the instance
+ */
+public class TsplibReader {
+
+    private TsplibReader() { }
+
+    public static TspInstance read(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return read(channel);
+        }
+    }
+
+    /**
+     * Reads .tsp instance from channel, channel isn't closed
+     * throws IllegalArgumentException() if instance is incomplete or uses unsupported format
+     */
+    public static TspInstance read(ReadableByteChannel channel) throws IOException {
+        TsplibScanner scanner = new TsplibScanner(channel);
+        String name = null;
+        String type = "TSP";
+        String edgeWeightType = null;
+        String edgeWeightFormat = null;
+        int dimension = -1;
+        double[] x = null;
+        double[] y = null;
+        double[][] matrix = null;
+
+        while(scanner.hasNext()){
+            String keyword = scanner.nextWord();
+
+            switch (keyword){
+                case "NAME":
+                    name = scanner.restOfLine();
+                    break;
+                case "TYPE":
+                    type = scanner.restOfLine();
+                    break;
+                case "DIMENSION":
+                    dimension = Integer.parseInt(scanner.restOfLine());
+                    break;
+                case "EDGE_WEIGHT_TYPE":
+                    edgeWeightType = scanner.restOfLine();
+                    break;
+                case "EDGE_WEIGHT_FORMAT":
+                    edgeWeightFormat = scanner.restOfLine();
+                    break;
+                case "NODE_COORD_SECTION":
+                    requireDimension(dimension);
+                    x = new double[dimension];
+                    y = new double[dimension];
+                    readCoordinates(scanner, x, y);
+                    break;
+                case "EDGE_WEIGHT_SECTION":
+                    requireDimension(dimension);
+                    matrix = readMatrix(scanner, dimension, edgeWeightFormat);
+                    break;
+                case "EOF":
+                    return createInstance(name, type, edgeWeightType, x, y, matrix);
+                default:
+                    if(keyword.endsWith("_SECTION")){
+                        skipSection(scanner);
+                    }else{
+                        scanner.restOfLine();
+                    }
+            }
+        }
+
+        return createInstance(name, type, edgeWeightType, x, y, matrix);
+    }
+
+    /**
+     * Reads TOUR_SECTION of .tour file
+     * @return points of tour numbered from 0, every point appears once
+     */
+    public static int[] readTour(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            return readTour(channel);
+        }
+    }
+
+    public static int[] readTour(ReadableByteChannel channel) throws IOException {
+        TsplibScanner scanner = new TsplibScanner(channel);
+        int dimension = -1;
+
+        while(scanner.hasNext()){
+            String keyword = scanner.nextWord();
+
+            if(keyword.equals("DIMENSION")){
+                dimension = Integer.parseInt(scanner.restOfLine());
+            }else if(keyword.equals("TOUR_SECTION")){
+                int[] tour = new int[(dimension > 0) ? dimension : 16];
+                int size = 0;
+
+                for(int point = scanner.nextInt(); point != -1; point = scanner.nextInt()){
+                    if(size == tour.length){
+                        tour = Arrays.copyOf(tour, size * 2);
+                    }
+                    tour[size++] = point - 1;
+                }
+
+                return (size == tour.length) ? tour : Arrays.copyOf(tour, size);
+            }else if(keyword.equals("EOF")){
+                break;
+            }else{
+                scanner.restOfLine();
+            }
+        }
+
+        throw new IllegalArgumentException("Missing TOUR_SECTION");
+    }
+
+    private static void readCoordinates(TsplibScanner scanner, double[] x, double[] y) throws IOException {
+        for(int i = 0; i < x.length; i++){
+            int point = scanner.nextInt() - 1;
+            if(point < 0 || point >= x.length){
+                throw new IllegalArgumentException("Point number out of bounds: " + (point + 1));
+            }
+
+            x[point] = scanner.nextDouble();
+            y[point] = scanner.nextDouble();
+        }
+    }
+
+    private static double[][] readMatrix(TsplibScanner scanner, int dimension, String format) throws IOException {
+        double[][] matrix = new double[dimension][dimension];
+
+        if(format == null){
+            throw new IllegalArgumentException("Missing EDGE_WEIGHT_FORMAT");
+        }
+
+        switch (format){
+            case "FULL_MATRIX":
+                for(int i = 0; i < dimension; i++){
+                    for(int j = 0; j < dimension; j++){
+                        matrix[i][j] = scanner.nextDouble();
+                    }
+                }
+                break;
+            case "UPPER_ROW":
+                for(int i = 0; i < dimension; i++){
+                    for(int j = i + 1; j < dimension; j++){
+                        matrix[i][j] = matrix[j][i] = scanner.nextDouble();
+                    }
+                }
+                break;
+            case "UPPER_DIAG_ROW":
+                for(int i = 0; i < dimension; i++){
+                    for(int j = i; j < dimension; j++){
+                        matrix[i][j] = matrix[j][i] = scanner.nextDouble();
+                    }
+                }
+                break;
+            case "LOWER_ROW":
+                for(int i = 0; i < dimension; i++){
+                    for(int j = 0; j < i; j++){
+                        matrix[i][j] = matrix[j][i] = scanner.nextDouble();
+                    }
+                }
+                break;
+            case "LOWER_DIAG_ROW":
+                for(int i = 0; i < dimension; i++){
+                    for(int j = 0; j <= i; j++){
+                        matrix[i][j] = matrix[j][i] = scanner.nextDouble();
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_FORMAT: " + format);
+        }
+
+        return matrix;
+    }
+
+    private static void skipSection(TsplibScanner scanner) throws IOException {
+        while(scanner.hasNextNumber()){
+            scanner.nextDouble();
+        }
+    }
+
+    private static void requireDimension(int dimension){
+        if(dimension <= 0){
+            throw new IllegalArgumentException("Missing DIMENSION");
+        }
+    }
+
+    private static TspInstance createInstance(String name, String type, String edgeWeightType,
+                                              double[] x, double[] y, double[][] matrix){
+        if(edgeWeightType == null){
+            throw new IllegalArgumentException("Missing EDGE_WEIGHT_TYPE");
+        }
+
+        DistanceProvider distances;
+        if(edgeWeightType.equals("EXPLICIT")){
+            if(matrix == null){
+                throw new IllegalArgumentException("Missing EDGE_WEIGHT_SECTION");
+            }
+            distances = new MatrixDistances(matrix);
+        }else{
+            if(x == null){
+                throw new IllegalArgumentException("Missing NODE_COORD_SECTION");
+            }
+            distances = new CoordinateDistances(x, y, metric(edgeWeightType));
+        }
+
+        return new TspInstance(name, type, distances);
+    }
+
+    private static CoordinateDistances.Metric metric(String edgeWeightType){
+        switch (edgeWeightType){
+            case "EUC_2D":
+                return CoordinateDistances.Metric.EUC_2D;
+            case "CEIL_2D":
+                return CoordinateDistances.Metric.CEIL_2D;
+            case "ATT":
+                return CoordinateDistances.Metric.ATT;
+            case "GEO":
+                return CoordinateDistances.Metric.GEO;
+            default:
+                throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE: " + edgeWeightType);
+        }
+    }
+}
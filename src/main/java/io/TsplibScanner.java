@@ -0,0 +1,217 @@
+package io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads TSPLIB tokens straight from bytes of a buffered channel
+ * Numbers are parsed without creating strings, only keywords and header values are converted to strings
+ */
+class TsplibScanner {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final StringBuilder text;
+    private boolean endOfInput;
+
+    TsplibScanner(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.text = new StringBuilder();
+        buffer.flip();
+    }
+
+    /**
+     * Skips whitespaces
+     * @return false if there is nothing more to read
+     */
+    boolean hasNext() throws IOException {
+        while(true){
+            while(buffer.hasRemaining()){
+                if(!isWhitespace(buffer.get(buffer.position()))){
+                    return true;
+                }
+                buffer.get();
+            }
+            if(!fill()){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return true if next token starts like a number
+     */
+    boolean hasNextNumber() throws IOException {
+        if(!hasNext()){
+            return false;
+        }
+
+        byte next = buffer.get(buffer.position());
+        return (next >= '0' && next <= '9') || next == '-' || next == '+' || next == '.';
+    }
+
+    /**
+     * @return next word ended by whitespace or colon
+     */
+    String nextWord() throws IOException {
+        if(!hasNext()){
+            throw new EOFException("Unexpected end of input");
+        }
+
+        text.setLength(0);
+        while(hasByte()){
+            byte next = buffer.get(buffer.position());
+            if(isWhitespace(next) || next == ':'){
+                break;
+            }
+            text.append((char) buffer.get());
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * @return rest of the current line without leading colon and surrounding whitespaces
+     */
+    String restOfLine() throws IOException {
+        ByteBuffer line = ByteBuffer.allocate(256);
+
+        while(hasByte()){
+            byte next = buffer.get();
+            if(next == '\n'){
+                break;
+            }
+            if(!line.hasRemaining()){
+                ByteBuffer bigger = ByteBuffer.allocate(line.capacity() * 2);
+                line.flip();
+                bigger.put(line);
+                line = bigger;
+            }
+            line.put(next);
+        }
+
+        String value = new String(line.array(), 0, line.position(), StandardCharsets.UTF_8).trim();
+        return value.startsWith(":") ? value.substring(1).trim() : value;
+    }
+
+    int nextInt() throws IOException {
+        double value = nextDouble();
+
+        if(value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE){
+            throw new IOException("Expected integer, was " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses decimal number with optional sign, fraction and exponent
+     */
+    double nextDouble() throws IOException {
+        if(!hasNext()){
+            throw new EOFException("Unexpected end of input");
+        }
+
+        boolean negative = false;
+        byte next = buffer.get(buffer.position());
+        if(next == '-' || next == '+'){
+            negative = next == '-';
+            buffer.get();
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean fraction = false;
+        boolean exact = true;
+
+        while(hasByte()){
+            next = buffer.get(buffer.position());
+            if(next >= '0' && next <= '9'){
+                anyDigit = true;
+                if(digits < 18){
+                    mantissa = mantissa * 10 + (next - '0');
+                    if(mantissa != 0){
+                        digits++;
+                    }
+                    if(fraction){
+                        exponent--;
+                    }
+                }else{
+                    exact = false;
+                    if(!fraction){
+                        exponent++;
+                    }
+                }
+            }else if(next == '.' && !fraction){
+                fraction = true;
+            }else{
+                break;
+            }
+            buffer.get();
+        }
+
+        if(!anyDigit){
+            throw new IOException("Expected number");
+        }
+
+        if(hasByte() && (buffer.get(buffer.position()) == 'e' || buffer.get(buffer.position()) == 'E')){
+            buffer.get();
+            boolean negativeExponent = false;
+            if(hasByte() && (buffer.get(buffer.position()) == '-' || buffer.get(buffer.position()) == '+')){
+                negativeExponent = buffer.get() == '-';
+            }
+            int exponentValue = 0;
+            while(hasByte() && buffer.get(buffer.position()) >= '0' && buffer.get(buffer.position()) <= '9'){
+                exponentValue = Math.min(exponentValue * 10 + (buffer.get() - '0'), 100000);
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        double value;
+        if(exact && mantissa < (1L << 53) && Math.abs(exponent) < POWERS_OF_TEN.length){
+            value = (exponent < 0) ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        }else{
+            value = Double.parseDouble(mantissa + "E" + exponent);
+        }
+
+        return negative ? -value : value;
+    }
+
+    private boolean hasByte() throws IOException {
+        return buffer.hasRemaining() || fill();
+    }
+
+    private boolean fill() throws IOException {
+        if(endOfInput){
+            return false;
+        }
+
+        buffer.compact();
+        int read;
+        do{
+            read = channel.read(buffer);
+        }while (read == 0);
+        buffer.flip();
+
+        if(read == -1){
+            endOfInput = true;
+        }
+
+        return buffer.hasRemaining();
+    }
+
+    private static boolean isWhitespace(byte value){
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+}
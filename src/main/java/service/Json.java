@@ -0,0 +1,263 @@
+package service;
+
+import io.JsonStrings;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer of service requests and responses
+ * Objects are read as LinkedHashMap, arrays as ArrayList, numbers as Double
+ * throws IllegalArgumentException() for incorrect JSON or objects and arrays nested deeper than MAX_DEPTH
+ */
+final class Json {
+
+    // keeps recursive reading far from the end of the thread stack
+    static final int MAX_DEPTH = 256;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text){
+        Json json = new Json(text);
+        Object value = json.readValue();
+        json.skipWhitespace();
+        if(json.position != text.length()){
+            throw json.error("Unexpected content");
+        }
+        return value;
+    }
+
+    /**
+     * Writes null, String, Number, Boolean, Map, Iterable, int[] or double[]
+     */
+    static String write(Object value){
+        StringBuilder builder = new StringBuilder();
+        write(builder, value);
+        return builder.toString();
+    }
+
+    static void write(StringBuilder builder, Object value){
+        if(value == null){
+            builder.append("null");
+        }else if(value instanceof String){
+            JsonStrings.append(builder, (String) value);
+        }else if(value instanceof Number){
+            double number = ((Number) value).doubleValue();
+            builder.append(Double.isFinite(number) ? value.toString() : "null");
+        }else if(value instanceof Boolean){
+            builder.append(value);
+        }else if(value instanceof Map){
+            builder.append('{');
+            Iterator<? extends Map.Entry<?, ?>> entries = ((Map<?, ?>) value).entrySet().iterator();
+            while(entries.hasNext()){
+                Map.Entry<?, ?> entry = entries.next();
+                JsonStrings.append(builder, String.valueOf(entry.getKey()));
+                builder.append(':');
+                write(builder, entry.getValue());
+                if(entries.hasNext()){
+                    builder.append(',');
+                }
+            }
+            builder.append('}');
+        }else if(value instanceof Iterable){
+            builder.append('[');
+            Iterator<?> items = ((Iterable<?>) value).iterator();
+            while(items.hasNext()){
+                write(builder, items.next());
+                if(items.hasNext()){
+                    builder.append(',');
+                }
+            }
+            builder.append(']');
+        }else if(value instanceof int[]){
+            int[] array = (int[]) value;
+            builder.append('[');
+            for(int i = 0; i < array.length; i++){
+                builder.append(i == 0 ? "" : ",").append(array[i]);
+            }
+            builder.append(']');
+        }else if(value instanceof double[]){
+            double[] array = (double[]) value;
+            builder.append('[');
+            for(int i = 0; i < array.length; i++){
+                builder.append(i == 0 ? "" : ",");
+                write(builder, array[i]);
+            }
+            builder.append(']');
+        }else{
+            JsonStrings.append(builder, value.toString());
+        }
+    }
+
+    private Object readValue(){
+        skipWhitespace();
+        if(position >= text.length()){
+            throw error("Unexpected end");
+        }
+
+        char c = text.charAt(position);
+        switch (c){
+            case '{':
+            case '[':
+                if(++depth > MAX_DEPTH){
+                    throw error("Nesting deeper than " + MAX_DEPTH);
+                }
+                Object nested = (c == '{') ? readObject() : readArray();
+                depth--;
+                return nested;
+            case '"': return readString();
+            case 't': return readLiteral("true", Boolean.TRUE);
+            case 'f': return readLiteral("false", Boolean.FALSE);
+            case 'n': return readLiteral("null", null);
+            default:
+                if(c == '-' || (c >= '0' && c <= '9')){
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject(){
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if(peek() == '}'){
+            position++;
+            return object;
+        }
+
+        while(true){
+            skipWhitespace();
+            if(peek() != '"'){
+                throw error("Expected name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            if(peek() == ','){
+                position++;
+            }else{
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray(){
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if(peek() == ']'){
+            position++;
+            return array;
+        }
+
+        while(true){
+            array.add(readValue());
+            skipWhitespace();
+            if(peek() == ','){
+                position++;
+            }else{
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString(){
+        StringBuilder builder = new StringBuilder();
+        position++;
+
+        while(position < text.length()){
+            char c = text.charAt(position++);
+            if(c == '"'){
+                return builder.toString();
+            }
+            if(c != '\\'){
+                builder.append(c);
+                continue;
+            }
+            if(position >= text.length()){
+                break;
+            }
+
+            char escaped = text.charAt(position++);
+            switch (escaped){
+                case 'b': builder.append('\b'); break;
+                case 'f': builder.append('\f'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                case 't': builder.append('\t'); break;
+                case 'u':
+                    if(position + 4 > text.length()){
+                        throw error("Incorrect escape");
+                    }
+                    try{
+                        builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    }catch (NumberFormatException e){
+                        throw error("Incorrect escape");
+                    }
+                    position += 4;
+                    break;
+                default: builder.append(escaped);
+            }
+        }
+
+        throw error("Unterminated string");
+    }
+
+    private Double readNumber(){
+        int start = position;
+        while(position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0){
+            position++;
+        }
+        try{
+            return Double.valueOf(text.substring(start, position));
+        }catch (NumberFormatException e){
+            throw error("Incorrect number");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value){
+        if(!text.startsWith(literal, position)){
+            throw error("Unexpected character '" + text.charAt(position) + "'");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void skipWhitespace(){
+        while(position < text.length() && Character.isWhitespace(text.charAt(position))){
+            position++;
+        }
+    }
+
+    private char peek(){
+        if(position >= text.length()){
+            throw error("Unexpected end");
+        }
+        return text.charAt(position);
+    }
+
+    private void expect(char c){
+        if(peek() != c){
+            throw error("Expected '" + c + "'");
+        }
+        position++;
+    }
+
+    private IllegalArgumentException error(String message){
+        return new IllegalArgumentException(message + " at " + position + " of JSON");
+    }
+}
@@ -0,0 +1,57 @@
+package service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last latencies in ring buffer and computes percentiles of them
+ */
+class LatencyRecorder {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long nanos){
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+    }
+
+    /**
+     * @return count of all recorded latencies and p50, p90, p99 and max of the last ones in milliseconds
+     */
+    Map<String, Object> summary(){
+        long[] sorted;
+        long total;
+        synchronized (this){
+            sorted = Arrays.copyOf(samples, size);
+            total = count;
+        }
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", total);
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p90", percentile(sorted, 0.90));
+        summary.put("p99", percentile(sorted, 0.99));
+        summary.put("max", (sorted.length == 0) ? null : sorted[sorted.length - 1] / 1e6);
+        return summary;
+    }
+
+    // nearest rank
+    private static Double percentile(long[] sorted, double percentile){
+        if(sorted.length == 0){
+            return null;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,170 @@
+package service;
+
+import algorithm.ImprovementEvent;
+import algorithm.SolveHandle;
+import algorithm.TSPSolver;
+import io.TourWriter;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+/**
+ * Instance submitted to SolveService with its solver and run times
+ * Streams wait on the job, it is signalled on every improvement and when the run ends
+ */
+class ServiceJob {
+
+    enum State {
+        QUEUED,
+        RUNNING,
+        SOLVED,
+        FAILED,
+        CANCELLED
+    }
+
+    final String id;
+    final String name;
+    final int dimension;
+    final TSPSolver solver;
+    final long submitTime = System.nanoTime();
+    volatile long startTime;
+    volatile long endTime;
+    volatile SolveHandle handle;
+    volatile Runnable task;
+    private volatile boolean cancelled;
+    private long changes;
+
+    ServiceJob(String id, String name, int dimension, TSPSolver solver) {
+        this.id = id;
+        this.name = name;
+        this.dimension = dimension;
+        this.solver = solver;
+    }
+
+    /**
+     * Wraps run of the solver, job cancelled in queue doesn't start
+     */
+    Runnable wrap(Runnable run, Runnable onStart, Runnable onEnd){
+        task = () -> {
+            if(cancelled){
+                return;
+            }
+            startTime = System.nanoTime();
+            onStart.run();
+            try{
+                run.run();
+            }finally {
+                onEnd.run();
+            }
+        };
+        return task;
+    }
+
+    /**
+     * Wakes streams on every improvement
+     */
+    void subscribe(){
+        handle.subscribe(new Flow.Subscriber<ImprovementEvent>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ImprovementEvent item) {
+                signal();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signal();
+            }
+
+            @Override
+            public void onComplete() {
+                signal();
+            }
+        });
+    }
+
+    void cancel(){
+        cancelled = true;
+        handle.cancel(true);
+    }
+
+    synchronized void signal(){
+        changes++;
+        notifyAll();
+    }
+
+    synchronized long getChanges(){
+        return changes;
+    }
+
+    /**
+     * Waits till the next signal after seen count of changes, at most timeout milliseconds
+     */
+    synchronized void awaitChange(long seen, long timeout) throws InterruptedException {
+        if(changes == seen){
+            wait(timeout);
+        }
+    }
+
+    boolean isDone(){
+        return handle.isDone();
+    }
+
+    State getState(){
+        if(handle.isCancelled()){
+            return State.CANCELLED;
+        }
+        if(handle.isDone()){
+            return (getError() == null) ? State.SOLVED : State.FAILED;
+        }
+        return (startTime == 0) ? State.QUEUED : State.RUNNING;
+    }
+
+    String getError(){
+        if(!handle.isDone() || handle.isCancelled()){
+            return null;
+        }
+        try{
+            handle.get();
+            return null;
+        }catch (ExecutionException | CompletionException e){
+            return String.valueOf(e.getCause());
+        }catch (CancellationException | InterruptedException e){
+            return null;
+        }
+    }
+
+    /**
+     * @param includeTour adds the best route as TSPLIB 1-based ids
+     */
+    Map<String, Object> toJson(boolean includeTour){
+        long now = System.nanoTime();
+        long start = startTime;
+        long end = endTime;
+        ImprovementEvent improvement = handle.getLastImprovement();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", id);
+        json.put("name", name);
+        json.put("dimension", dimension);
+        json.put("state", getState().name().toLowerCase(Locale.ROOT));
+        json.put("queuedMs", (((start == 0) ? (end == 0 ? now : end) : start) - submitTime) / 1_000_000L);
+        json.put("runningMs", (start == 0) ? 0 : ((end == 0 ? now : end) - start) / 1_000_000L);
+        json.put("length", (improvement == null) ? null : improvement.getLength());
+        json.put("improvementGeneration", (improvement == null) ? null : improvement.getGeneration());
+        json.put("error", getError());
+        if(includeTour && improvement != null){
+            json.put("tour", TourWriter.tourIds(improvement.getIndividual().getGenes()));
+        }
+        return json;
+    }
+}
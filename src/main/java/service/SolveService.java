@@ -0,0 +1,660 @@
+package service;
+
+import algorithm.CoordinateDistances;
+import algorithm.CrossoverStrategy;
+import algorithm.DistanceProvider;
+import algorithm.DuplicatePolicy;
+import algorithm.ImprovementEvent;
+import algorithm.MatrixDistances;
+import algorithm.PartitionStrategy;
+import algorithm.SeedingStrategy;
+import algorithm.SequentialEvaluator;
+import algorithm.StopCriterion;
+import algorithm.TSPSolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.TspInstance;
+import io.TsplibReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP/JSON service solving submitted instances on bounded pool of solver threads
+ * Instances wait in bounded queue, submit is rejected with 503 when the queue is full
+ *
+ * POST   /jobs?time=MS&...   body: TSPLIB instance or JSON {"name", "coordinates": [[x, y], ...] or "distances"}
+ * GET    /jobs/{id}          state of the job, ?tour=true adds the best route
+ * GET    /jobs/{id}/stream   JSON lines with every improvement till the end of the job, 503 when too many are open
+ * DELETE /jobs/{id}          cancels the job
+ * GET    /stats              queue depth, counters and latency percentiles
+ * GET    /health
+ */
+public class SolveService implements AutoCloseable {
+
+    private static final int LATENCY_SAMPLES = 1024;
+    private static final long STREAM_WAIT = 1000;
+    // 16 MB of cached lengths per job
+    private static final int MAX_FITNESS_CACHE = 1 << 20;
+    private static final int MAX_POPULATION = 100_000;
+    private static final int MAX_ISLANDS = 64;
+    // genes of population and descendants of all islands or parallel clusters, 32M genes take 128 MB
+    private static final long MAX_GENES = 1L << 25;
+
+    private final int port;
+    private String host = "127.0.0.1";
+    private int concurrency = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 64;
+    private int maxRequestSize = 64 << 20;
+    private int maxTime = 60000;
+    private int retainedJobs = 1000;
+    private int maxStreams = 64;
+
+    private HttpServer server;
+    private ExecutorService httpExecutor;
+    private ThreadPoolExecutor solverPool;
+    // every open stream holds one HTTP thread till its job ends
+    private Semaphore streams;
+    private final Map<String, ServiceJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ServiceJob> finishedJobs = new ConcurrentLinkedQueue<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LatencyRecorder queueLatency = new LatencyRecorder(LATENCY_SAMPLES);
+    private final LatencyRecorder totalLatency = new LatencyRecorder(LATENCY_SAMPLES);
+
+    /**
+     * @param port port of the service, 0 = any free port
+     */
+    public SolveService(int port) {
+        if(port < 0 || port > 65535){
+            throw new IllegalArgumentException("Port is out of range");
+        }
+        this.port = port;
+    }
+
+    /**
+     * Usage: java -cp TSPSolver.jar service.SolveService [port] [concurrency] [queue capacity] [host]
+     */
+    public static void main(String... args) throws IOException {
+        SolveService service = new SolveService(args.length > 0 ? Integer.parseInt(args[0]) : 8080);
+        if(args.length > 1){
+            service.setConcurrency(Integer.parseInt(args[1]));
+        }
+        if(args.length > 2){
+            service.setQueueCapacity(Integer.parseInt(args[2]));
+        }
+        if(args.length > 3){
+            service.setHost(args[3]);
+        }
+
+        service.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(service::close));
+        System.out.println("Listening on http://" + service.host + ":" + service.getPort());
+    }
+
+    /**
+     * throws IOException if port can't be bound
+     */
+    public synchronized void start() throws IOException {
+        if(server != null){
+            throw new IllegalStateException("Service is already started");
+        }
+
+        solverPool = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("tsp-service-solver-"));
+        httpExecutor = Executors.newCachedThreadPool(daemonThreads("tsp-service-http-"));
+        streams = new Semaphore(maxStreams);
+
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.setExecutor(httpExecutor);
+        server.createContext("/jobs", exchange -> handle(exchange, this::handleJobs));
+        server.createContext("/stats", exchange -> handle(exchange, this::handleStats));
+        server.createContext("/health", exchange -> handle(exchange, e -> respond(e, 200, Map.of("status", "ok"))));
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and cancels queued and running jobs
+     */
+    @Override
+    public synchronized void close() {
+        if(server == null){
+            return;
+        }
+
+        server.stop(0);
+        for(ServiceJob job : jobs.values()){
+            if(!job.isDone()){
+                job.cancel();
+                solverPool.remove(job.task);
+            }
+        }
+        solverPool.shutdown();
+        httpExecutor.shutdown();
+        server = null;
+    }
+
+    /**
+     * @return bound port, useful when service was created with port 0
+     */
+    public synchronized int getPort() {
+        return (server == null) ? port : server.getAddress().getPort();
+    }
+
+    /**
+     * Sets address the service listens on, 127.0.0.1 by default, set before start()
+     */
+    public void setHost(String host) {
+        if(host == null){
+            throw new IllegalArgumentException("Host can't be null");
+        }
+        this.host = host;
+    }
+
+    /**
+     * Sets max amount of jobs solved at once, available processors by default, set before start()
+     */
+    public void setConcurrency(int concurrency) {
+        if(concurrency < 1){
+            throw new IllegalArgumentException("Concurrency has to be positive");
+        }
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sets max amount of jobs waiting for solver thread, 64 by default, set before start()
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if(queueCapacity < 1){
+            throw new IllegalArgumentException("Queue capacity has to be positive");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets max size of submitted instance in bytes, 64 MB by default
+     */
+    public void setMaxRequestSize(int maxRequestSize) {
+        if(maxRequestSize < 1){
+            throw new IllegalArgumentException("Max request size has to be positive");
+        }
+        this.maxRequestSize = maxRequestSize;
+    }
+
+    /**
+     * Sets max time limit of one job in milliseconds, 60000 by default
+     */
+    public void setMaxTime(int maxTime) {
+        if(maxTime < 1){
+            throw new IllegalArgumentException("Max time has to be positive");
+        }
+        this.maxTime = maxTime;
+    }
+
+    /**
+     * Sets amount of finished jobs kept for polling, older ones are forgotten, 1000 by default
+     */
+    public void setRetainedJobs(int retainedJobs) {
+        if(retainedJobs < 0){
+            throw new IllegalArgumentException("Retained jobs can't be negative");
+        }
+        this.retainedJobs = retainedJobs;
+    }
+
+    /**
+     * Sets max amount of streams open at once, 64 by default, set before start()
+     */
+    public void setMaxStreams(int maxStreams) {
+        if(maxStreams < 1){
+            throw new IllegalArgumentException("Max streams has to be positive");
+        }
+        this.maxStreams = maxStreams;
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try{
+            handler.handle(exchange);
+        }catch (IllegalArgumentException e){
+            respondError(exchange, 400, e.getMessage());
+        }catch (RuntimeException e){
+            respondError(exchange, 500, String.valueOf(e));
+        }finally {
+            exchange.close();
+        }
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+
+        if(path.length == 1){
+            if(!"POST".equals(method)){
+                respondError(exchange, 405, "Use POST to submit job");
+                return;
+            }
+            submit(exchange);
+            return;
+        }
+
+        ServiceJob job = jobs.get(path[1]);
+        if(job == null || path.length > 3 || (path.length == 3 && !"stream".equals(path[2]))){
+            respondError(exchange, 404, "No such job");
+            return;
+        }
+
+        if(path.length == 3){
+            if(!"GET".equals(method)){
+                respondError(exchange, 405, "Use GET to stream job");
+                return;
+            }
+            if(!streams.tryAcquire()){
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respondError(exchange, 503, "Too many streams");
+                return;
+            }
+            try{
+                stream(exchange, job);
+            }finally {
+                streams.release();
+            }
+        }else if("GET".equals(method)){
+            respond(exchange, 200, job.toJson("true".equals(query(exchange).get("tour"))));
+        }else if("DELETE".equals(method)){
+            job.cancel();
+            // frees place in the queue at once
+            solverPool.remove(job.task);
+            respond(exchange, 200, job.toJson(false));
+        }else{
+            respondError(exchange, 405, "Use GET or DELETE");
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        // rejects early, before reading and parsing the body, when the queue is already full
+        if(solverPool.getQueue().remainingCapacity() == 0){
+            reject(exchange);
+            return;
+        }
+        byte[] body = readBody(exchange.getRequestBody());
+        if(body == null){
+            respondError(exchange, 413, "Instance is larger than " + maxRequestSize + " bytes");
+            return;
+        }
+
+        TspInstance instance = parseInstance(exchange, body);
+        TSPSolver solver = createSolver(instance.getDistances(), query(exchange));
+        ServiceJob job = new ServiceJob(Long.toString(nextId.getAndIncrement()), instance.getName(),
+                instance.getDimension(), solver);
+
+        try{
+            job.handle = solver.solveAsync(run -> solverPool.execute(job.wrap(run, () -> started(job),
+                    running::decrementAndGet)));
+        }catch (RejectedExecutionException e){
+            reject(exchange);
+            return;
+        }
+
+        submitted.increment();
+        jobs.put(job.id, job);
+        job.subscribe();
+        job.handle.toCompletableFuture().whenComplete((individual, error) -> finished(job));
+
+        exchange.getResponseHeaders().set("Location", "/jobs/" + job.id);
+        respond(exchange, 202, job.toJson(false));
+    }
+
+    private void reject(HttpExchange exchange) throws IOException {
+        rejected.increment();
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respondError(exchange, 503, "Queue is full");
+    }
+
+    private void started(ServiceJob job){
+        running.incrementAndGet();
+        queueLatency.record(job.startTime - job.submitTime);
+    }
+
+    private void finished(ServiceJob job){
+        job.endTime = System.nanoTime();
+        totalLatency.record(job.endTime - job.submitTime);
+        switch (job.getState()){
+            case SOLVED: solved.increment(); break;
+            case CANCELLED: cancelled.increment(); break;
+            default: failed.increment();
+        }
+        job.signal();
+
+        finishedJobs.add(job);
+        while(finishedJobs.size() > retainedJobs){
+            ServiceJob oldest = finishedJobs.poll();
+            if(oldest != null){
+                jobs.remove(oldest.id);
+            }
+        }
+    }
+
+    /**
+     * Writes JSON line of every new best route and the final state, slow client skips intermediate improvements
+     */
+    private void stream(HttpExchange exchange, ServiceJob job) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+
+        try(OutputStream output = exchange.getResponseBody()){
+            Object sent = null;
+            while(true){
+                long changes = job.getChanges();
+                boolean done = job.isDone();
+                ImprovementEvent improvement = job.handle.getLastImprovement();
+
+                if(improvement != null && improvement != sent){
+                    Map<String, Object> event = new LinkedHashMap<>();
+                    event.put("event", "improvement");
+                    event.put("length", improvement.getLength());
+                    event.put("generation", improvement.getGeneration());
+                    event.put("elapsedMs", improvement.getElapsedTime() / 1_000_000L);
+                    writeLine(output, event);
+                    sent = improvement;
+                }
+                if(done){
+                    Map<String, Object> event = new LinkedHashMap<>();
+                    event.put("event", "end");
+                    event.putAll(job.toJson(false));
+                    writeLine(output, event);
+                    return;
+                }
+
+                job.awaitChange(changes, STREAM_WAIT);
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeLine(OutputStream output, Map<String, Object> event) throws IOException {
+        output.write((Json.write(event) + "\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if(!"GET".equals(exchange.getRequestMethod())){
+            respondError(exchange, 405, "Use GET");
+            return;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", solverPool.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("running", running.get());
+        stats.put("concurrency", concurrency);
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("solved", solved.sum());
+        stats.put("failed", failed.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("queueLatencyMs", queueLatency.summary());
+        stats.put("totalLatencyMs", totalLatency.summary());
+        respond(exchange, 200, stats);
+    }
+
+    private TspInstance parseInstance(HttpExchange exchange, byte[] body) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if(contentType != null && contentType.contains("json")){
+            return parseJsonInstance(new String(body, StandardCharsets.UTF_8));
+        }
+        return TsplibReader.read(Channels.newChannel(new ByteArrayInputStream(body)));
+    }
+
+    /**
+     * Reads {"name": "...", "coordinates": [[x, y], ...], "metric": "EUC_2D"} or {"name": "...", "distances": [[...], ...]}
+     */
+    private static TspInstance parseJsonInstance(String body){
+        Object root = Json.parse(body);
+        if(!(root instanceof Map)){
+            throw new IllegalArgumentException("Instance has to be JSON object");
+        }
+        Map<?, ?> object = (Map<?, ?>) root;
+        String name = (object.get("name") == null) ? "instance" : object.get("name").toString();
+
+        DistanceProvider distances;
+        if(object.get("coordinates") != null){
+            double[][] points = matrix(object.get("coordinates"), "coordinates");
+            double[] x = new double[points.length];
+            double[] y = new double[points.length];
+            for(int i = 0; i < points.length; i++){
+                if(points[i].length != 2){
+                    throw new IllegalArgumentException("Every coordinate has to be [x, y]");
+                }
+                x[i] = points[i][0];
+                y[i] = points[i][1];
+            }
+            CoordinateDistances.Metric metric = (object.get("metric") == null) ? CoordinateDistances.Metric.EUCLIDEAN
+                    : CoordinateDistances.Metric.valueOf(object.get("metric").toString().toUpperCase(Locale.ROOT));
+            distances = new CoordinateDistances(x, y, metric);
+        }else if(object.get("distances") != null){
+            distances = new MatrixDistances(matrix(object.get("distances"), "distances"));
+        }else{
+            throw new IllegalArgumentException("Instance requires coordinates or distances");
+        }
+
+        return new TspInstance(name, "TSP", distances);
+    }
+
+    private static double[][] matrix(Object value, String name){
+        if(!(value instanceof List)){
+            throw new IllegalArgumentException(name + " has to be array of arrays");
+        }
+        List<?> rows = (List<?>) value;
+        double[][] matrix = new double[rows.size()][];
+        for(int i = 0; i < matrix.length; i++){
+            if(!(rows.get(i) instanceof List)){
+                throw new IllegalArgumentException(name + " has to be array of arrays");
+            }
+            List<?> row = (List<?>) rows.get(i);
+            matrix[i] = new double[row.size()];
+            for(int j = 0; j < matrix[i].length; j++){
+                if(!(row.get(j) instanceof Number)){
+                    throw new IllegalArgumentException(name + " have to be numbers");
+                }
+                matrix[i][j] = ((Number) row.get(j)).doubleValue();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Query parameters: time, population, crossing, mutation, start, seed, crossover, fitness-cache, duplicates,
+     * seeding, seeding-strategy, local-search, islands, cluster-size, partition, global-improvement,
+     * max-generations, no-improvement, target
+     */
+    private TSPSolver createSolver(DistanceProvider distances, Map<String, String> query){
+        int time = intParameter(query, "time", 1000);
+        if(time < 1 || time > maxTime){
+            throw new IllegalArgumentException("Time has to be from 1 to " + maxTime + " ms");
+        }
+
+        // job is rejected before it allocates anything, so one request can't exhaust memory of all jobs
+        int population = intParameter(query, "population", 100);
+        if(population < 1 || population > MAX_POPULATION){
+            throw new IllegalArgumentException("Population has to be from 1 to " + MAX_POPULATION);
+        }
+        int islands = intParameter(query, "islands", 1);
+        if(islands < 1 || islands > MAX_ISLANDS){
+            throw new IllegalArgumentException("Islands have to be from 1 to " + MAX_ISLANDS);
+        }
+        int clusterSize = intParameter(query, "cluster-size", 0);
+        if(clusterSize < 0){
+            throw new IllegalArgumentException("Cluster size can't be negative");
+        }
+        // clusters are solved one per thread, the stitched route is one more individual
+        int points = (clusterSize > 0) ? Math.min(clusterSize, distances.size()) : distances.size();
+        int parallelClusters = (clusterSize > 0) ? Runtime.getRuntime().availableProcessors() : 1;
+        long genes = 2L * population * (points + 1) * islands * parallelClusters;
+        if(genes > MAX_GENES){
+            throw new IllegalArgumentException("Population " + population + " of " + islands + " islands with "
+                    + points + " points has " + genes + " genes, max is " + MAX_GENES);
+        }
+
+        TSPSolver solver = new TSPSolver(distances, intParameter(query, "start", 0),
+                population, time, doubleParameter(query, "crossing", 0.5),
+                doubleParameter(query, "mutation", 0.1));
+        // solver threads already use all cores when several jobs run
+        if(concurrency > 1){
+            solver.setEvaluator(new SequentialEvaluator());
+        }
+        if(query.containsKey("seed")){
+            try{
+                solver.setSeed(Long.parseLong(query.get("seed")));
+            }catch (NumberFormatException e){
+                throw new IllegalArgumentException("Incorrect number of seed: " + query.get("seed"));
+            }
+        }
+        solver.setSeedingShare(doubleParameter(query, "seeding", 0));
+        if(query.containsKey("seeding-strategy")){
+            solver.setSeedingStrategy(SeedingStrategy.valueOf(
+                    query.get("seeding-strategy").toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        if(query.containsKey("crossover")){
+            solver.setCrossoverStrategy(CrossoverStrategy.valueOf(
+                    query.get("crossover").toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        int fitnessCache = intParameter(query, "fitness-cache", 0);
+        if(fitnessCache > MAX_FITNESS_CACHE){
+            throw new IllegalArgumentException("Fitness cache size can't be bigger than " + MAX_FITNESS_CACHE);
+        }
+        solver.setFitnessCacheSize(fitnessCache);
+        if(query.containsKey("duplicates")){
+            solver.setDuplicatePolicy(DuplicatePolicy.valueOf(
+                    query.get("duplicates").toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        solver.setLocalSearchShare(doubleParameter(query, "local-search", 0));
+        solver.setIslandCount(islands);
+        solver.setClusterSize(clusterSize);
+        if(query.containsKey("partition")){
+            solver.setPartitionStrategy(PartitionStrategy.valueOf(
+                    query.get("partition").toUpperCase(Locale.ROOT).replace('-', '_')));
+        }
+        solver.setGlobalImprovement(Boolean.parseBoolean(query.get("global-improvement")));
+
+        StopCriterion criterion = StopCriterion.timeLimit(time);
+        if(query.containsKey("max-generations")){
+            criterion = criterion.or(StopCriterion.maxGenerations(intParameter(query, "max-generations", 0)));
+        }
+        if(query.containsKey("no-improvement")){
+            criterion = criterion.or(StopCriterion.noImprovementGenerations(intParameter(query, "no-improvement", 0)));
+        }
+        if(query.containsKey("target")){
+            criterion = criterion.or(StopCriterion.targetLength(doubleParameter(query, "target", 0)));
+        }
+        solver.setStopCriterion(criterion);
+
+        return solver;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue){
+        try{
+            return query.containsKey(name) ? Integer.parseInt(query.get(name)) : defaultValue;
+        }catch (NumberFormatException e){
+            throw new IllegalArgumentException("Incorrect number of " + name + ": " + query.get(name));
+        }
+    }
+
+    private static double doubleParameter(Map<String, String> query, String name, double defaultValue){
+        try{
+            return query.containsKey(name) ? Double.parseDouble(query.get(name)) : defaultValue;
+        }catch (NumberFormatException e){
+            throw new IllegalArgumentException("Incorrect number of " + name + ": " + query.get(name));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange){
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if(raw == null){
+            return query;
+        }
+
+        for(String pair : raw.split("&")){
+            if(pair.isEmpty()){
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = (equals < 0) ? pair : pair.substring(0, equals);
+            String value = (equals < 0) ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * @return body, null if it's larger than max request size
+     */
+    private byte[] readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while((read = input.read(buffer)) != -1){
+            if(body.size() + read > maxRequestSize){
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, Map.of("error", String.valueOf(message)));
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object json) throws IOException {
+        byte[] bytes = Json.write(json).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream output = exchange.getResponseBody()){
+            output.write(bytes);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix){
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
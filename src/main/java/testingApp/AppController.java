@@ -1,13 +1,32 @@
 package testingApp;
 
+import algorithm.CoordinateDistances;
+import algorithm.ImprovementEvent;
+import algorithm.Individual;
+import algorithm.SolveHandle;
 import algorithm.TSPSolver;
+import io.TsplibReader;
 
+import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
 
 import static java.util.Arrays.stream;
 
 public class AppController {
 
+    // max distance in pixels from click to removed point
+    private static final double REMOVE_DISTANCE = 10;
+    // distance in pixels of random and loaded points from edges of canvas
+    private static final double POINTS_MARGIN = 10;
+
     private final MainFrame mainFrame;
     private final CanvaFrame canvaFrame;
     private final TSPSolver tspSolver;
@@ -31,6 +50,8 @@ public class AppController {
         mainFrame.getSetButton().addActionListener(e -> this.setData());
         mainFrame.getRunButton().addActionListener(e -> this.runAlgorithm());
         canvaFrame.getSetButton().addActionListener(e -> this.setPoints());
+        canvaFrame.getRandomButton().addActionListener(e -> this.randomPoints());
+        canvaFrame.getLoadButton().addActionListener(e -> this.loadPoints());
     }
 
     public void drawPoints() {
@@ -50,20 +71,158 @@ public class AppController {
     }
 
     public void setPoints() {
-        double[][] distances = canva.getEuclideanDistances();
-
-        tspSolver.setDistances(distances);
+        tspSolver.setDistances(canva.getCoordinateDistances());
         mainFrame.exposeSettings();
         canvaFrame.getSetButton().setEnabled(false);
+        canvaFrame.getRandomButton().setEnabled(false);
+        canvaFrame.getLoadButton().setEnabled(false);
         stream(canva.getMouseListeners()).forEach(canva::removeMouseListener);
+
+        // points can still be changed, running solver repairs its routes instead of starting again
+        canva.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if(SwingUtilities.isRightMouseButton(e)){
+                    removePoint(e.getPoint());
+                }else{
+                    addPoint(e.getPoint());
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces points by given amount of uniformly random points inside the canvas
+     */
+    public void randomPoints() {
+        int amount = (Integer) canvaFrame.getRandomPointsSpinner().getValue();
+        double width = Math.max(1, canva.getWidth() - 2 * POINTS_MARGIN);
+        double height = Math.max(1, canva.getHeight() - 2 * POINTS_MARGIN);
+        Random random = new Random();
+
+        List<Point2D> points = new ArrayList<>(amount);
+        for(int i = 0; i < amount; i++){
+            points.add(new Point2D.Double(POINTS_MARGIN + random.nextDouble() * width,
+                    POINTS_MARGIN + random.nextDouble() * height));
+        }
+
+        canva.setPoints(points);
+    }
+
+    /**
+     * Replaces points by coordinates of TSPLIB instance scaled into the canvas
+     * Solver uses euclidean distances of scaled points, so lengths are in pixels
+     */
+    public void loadPoints() {
+        JFileChooser chooser = new JFileChooser();
+        if(chooser.showOpenDialog(canvaFrame) != JFileChooser.APPROVE_OPTION){
+            return;
+        }
+
+        CoordinateDistances coordinates;
+        try{
+            coordinates = TsplibReader.read(chooser.getSelectedFile().toPath()).getCoordinates();
+        }catch (IOException | IllegalArgumentException e){
+            JOptionPane.showMessageDialog(canvaFrame, e.getMessage(), "Can't load instance", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if(coordinates == null){
+            JOptionPane.showMessageDialog(canvaFrame, "Instance has no coordinates", "Can't load instance",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        canva.setPoints(scaleToCanva(coordinates));
     }
 
+    /**
+     * Keeps proportions of instance, y axis is flipped because TSPLIB y grows upwards
+     */
+    private List<Point2D> scaleToCanva(CoordinateDistances coordinates) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < coordinates.size(); i++){
+            minX = Math.min(minX, coordinates.getX(i));
+            minY = Math.min(minY, coordinates.getY(i));
+            maxX = Math.max(maxX, coordinates.getX(i));
+            maxY = Math.max(maxY, coordinates.getY(i));
+        }
+
+        double width = Math.max(1, canva.getWidth() - 2 * POINTS_MARGIN);
+        double height = Math.max(1, canva.getHeight() - 2 * POINTS_MARGIN);
+        double scale = Math.min(width / Math.max(maxX - minX, 1e-9), height / Math.max(maxY - minY, 1e-9));
+
+        List<Point2D> points = new ArrayList<>(coordinates.size());
+        for(int i = 0; i < coordinates.size(); i++){
+            points.add(new Point2D.Double(POINTS_MARGIN + (coordinates.getX(i) - minX) * scale,
+                    POINTS_MARGIN + (maxY - coordinates.getY(i)) * scale));
+        }
+
+        return points;
+    }
+
+    private void addPoint(Point point) {
+        canva.addPoint(point);
+        tspSolver.addPoints(canva.getCoordinateDistances());
+    }
+
+    /**
+     * Removes point nearest to click, the start point and the last 3 points stay
+     */
+    private void removePoint(Point point) {
+        int index = canva.getNearestPoint(point, REMOVE_DISTANCE);
+        if(index == -1 || canva.getPoints().size() <= 3){
+            return;
+        }
+
+        Point2D removed = canva.removePoint(index);
+        try{
+            tspSolver.removePoints(canva.getCoordinateDistances(), index);
+        }catch (IllegalArgumentException e){
+            canva.addPoint(index, removed);
+            Toolkit.getDefaultToolkit().beep();
+        }
+    }
+
+    /**
+     * Runs algorithm off the event thread, every improvement replaces route of the renderer
+     * which draws the last one at a capped frame rate, so the event thread isn't flooded for big instances
+     */
     public void runAlgorithm() {
         canva.clearLines();
-        tspSolver.run();
-
-        EventQueue.invokeLater(() -> {
-            canva.drawLine(tspSolver.getBestIndividual().getGenes());
+        mainFrame.getRunButton().setEnabled(false);
+
+        SolveHandle handle = tspSolver.solveAsync();
+        handle.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ImprovementEvent improvement) {
+                canva.drawLine(improvement.getIndividual().getGenes(), improvement.getLength());
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                EventQueue.invokeLater(() -> mainFrame.getRunButton().setEnabled(true));
+            }
+
+            @Override
+            public void onComplete() {
+                Individual best = handle.getBestIndividual();
+                if(best != null){
+                    canva.drawLine(best.getGenes(), best.getLength());
+                }
+                EventQueue.invokeLater(() -> mainFrame.getRunButton().setEnabled(true));
+            }
         });
     }
 }
@@ -1,33 +1,37 @@
 package testingApp;
 
+import algorithm.CoordinateDistances;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
-import static java.lang.Math.pow;
-import static java.lang.Math.sqrt;
-
+/**
+ * Points and route are rasterized by TourRenderer off the event thread, painting only draws its last frame
+ */
 public class Canva extends JPanel {
 
     private static final long serialVersionUID = 1L;
 
-    private ArrayList<Point> points;
-    private ArrayList<Line2D> lines;
+    private final ArrayList<Point2D> points;
+    private final transient TourRenderer renderer;
 
     public Canva(){
         points = new ArrayList<>();
-        lines = new ArrayList<>();
+        renderer = new TourRenderer(this, TourRenderer.DEFAULT_MAX_FPS);
 
         setBackground(Color.WHITE);
 
         addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
-                points.add(new Point(e.getX(), e.getY()));
-                repaint();
+                addPoint(e.getPoint());
             }
         });
     }
@@ -35,66 +39,100 @@ public class Canva extends JPanel {
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setColor(Color.black);
-
-        for(int i = 0; i < points.size(); i++){
-            Point point = points.get(i);
-            g2.drawString(String.valueOf(i),(int) point.getX(),(int) point.getY()-5);
-            g2.fillOval((int) point.getX(), (int) point.getY(), 5, 5);
+        BufferedImage frame = renderer.getFrame();
+        if (frame != null) {
+            synchronized (frame) {
+                g.drawImage(frame, 0, 0, null);
+            }
         }
     }
 
-    public void drawLine(int[] points) {
-        Graphics2D g2d = (Graphics2D) this.getGraphics();
-        Point firstPoint;
-        Point secondPoint;
-
-        for(int i = 0;i < points.length-1; i++){
-            firstPoint = this.points.get(points[i]);
-            secondPoint = this.points.get(points[i + 1]);
-            Line2D line = new Line2D.Double(firstPoint.getX(),firstPoint.getY(),
-                    secondPoint.getX(),secondPoint.getY());
-            lines.add(line);
-        }
-
-        lines.forEach(g2d::draw);
+    /**
+     * Draws route, can be called from any thread, frames are refreshed at most DEFAULT_MAX_FPS times per second
+     * Route of other amount of points ( found before the last change of points ) is skipped
+     */
+    public void drawLine(int[] points, double length) {
+        renderer.setRoute(points, length);
     }
 
     public void clearLines(){
-        lines = new ArrayList<>();
-        repaint();
+        renderer.setRoute(null, 0.0);
     }
 
-    public double[][] getEuclideanDistances() {
-        double[][] distances = new double[points.size()][points.size()];
-        double distance;
-        double x1;
-        double x2;
+    public void addPoint(Point2D point) {
+        points.add(point);
+        pointsChanged();
+    }
 
-        double y1;
-        double y2;
+    public void addPoint(int index, Point2D point) {
+        points.add(index, point);
+        pointsChanged();
+    }
 
-        for (int i = 0; i < points.size() - 1; i++) {
-            distances[i][i] = 0;
-            for (int j = i + 1; j < points.size(); j++) {
-                x1 = points.get(i).getX();
-                y1 = points.get(i).getY();
+    public Point2D removePoint(int index) {
+        Point2D removed = points.remove(index);
+        pointsChanged();
+        return removed;
+    }
+
+    /**
+     * Replaces all points, removes drawn route
+     */
+    public void setPoints(List<? extends Point2D> points) {
+        this.points.clear();
+        this.points.addAll(points);
+        pointsChanged();
+    }
 
-                x2 = points.get(j).getX();
-                y2 = points.get(j).getY();
+    private void pointsChanged() {
+        double[] x = new double[points.size()];
+        double[] y = new double[points.size()];
+
+        for (int i = 0; i < points.size(); i++) {
+            x[i] = points.get(i).getX();
+            y[i] = points.get(i).getY();
+        }
+
+        renderer.setPoints(x, y);
+    }
+
+    /**
+     * @return distances computed on demand from coordinates of drawn points
+     */
+    public CoordinateDistances getCoordinateDistances() {
+        double[] x = new double[points.size()];
+        double[] y = new double[points.size()];
+
+        for (int i = 0; i < points.size(); i++) {
+            x[i] = points.get(i).getX();
+            y[i] = points.get(i).getY();
+        }
+
+        return new CoordinateDistances(x, y);
+    }
 
-                distance = sqrt(pow((x2 - x1), 2) + pow((y2 - y1), 2));
-                distances[i][j] = distance;
-                distances[j][i] = distance;
+    /**
+     * @return index of drawn point nearest to given one, -1 if no point is closer than maxDistance
+     */
+    public int getNearestPoint(Point2D point, double maxDistance) {
+        int nearest = -1;
+        double nearestDistance = maxDistance;
+
+        for (int i = 0; i < points.size(); i++) {
+            double distance = points.get(i).distance(point);
+            if (distance <= nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
             }
         }
 
-        return distances;
+        return nearest;
     }
 
-    public ArrayList<Point> getPoints() {
-        return points;
+    /**
+     * @return read-only view of drawn points, changed by addPoint(), removePoint() and setPoints()
+     */
+    public List<Point2D> getPoints() {
+        return Collections.unmodifiableList(points);
     }
 }
@@ -7,6 +7,9 @@ public class CanvaFrame extends JFrame {
 
     private final Canva canva;
     private JButton setButton;
+    private JSpinner randomPointsSpinner;
+    private JButton randomButton;
+    private JButton loadButton;
 
     public CanvaFrame(){
         JPanel navPanel = createNavPanel();
@@ -23,7 +26,13 @@ public class CanvaFrame extends JFrame {
         JPanel navPanel = new JPanel();
 
         setButton = new JButton("Set");
+        randomPointsSpinner = new JSpinner(new SpinnerNumberModel(10000, 3, 1000000, 1000));
+        randomButton = new JButton("Random");
+        loadButton = new JButton("Load TSPLIB");
 
+        navPanel.add(randomPointsSpinner);
+        navPanel.add(randomButton);
+        navPanel.add(loadButton);
         navPanel.add(setButton);
         navPanel.setBackground(new Color(66, 62, 68));
 
@@ -34,6 +43,18 @@ public class CanvaFrame extends JFrame {
         return setButton;
     }
 
+    public JSpinner getRandomPointsSpinner() {
+        return randomPointsSpinner;
+    }
+
+    public JButton getRandomButton() {
+        return randomButton;
+    }
+
+    public JButton getLoadButton() {
+        return loadButton;
+    }
+
     public Canva getCanva() {
         return canva;
     }
@@ -0,0 +1,219 @@
+package testingApp;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rasterizes points and route into a back-buffer image on its own thread
+ * Changes are coalesced and at most maxFps frames per second are rendered, event thread only draws the last frame
+ * Large instances get less detail: labels and point markers are skipped, points are single pixels
+ * and following route points falling into the same pixel are merged into one polyline vertex
+ */
+public class TourRenderer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_FPS = 30;
+
+    private static final int LABEL_LIMIT = 200;
+    private static final int MARKER_LIMIT = 5000;
+    private static final int ANTIALIASING_LIMIT = 2000;
+    private static final int POINT_PIXEL = 0xD03030;
+
+    private final Component component;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AtomicReference<Scene> scene =
+            new AtomicReference<>(new Scene(new double[0], new double[0], null, 0.0));
+    private volatile BufferedImage frame;
+    private volatile long lastRenderTime;
+
+    // used only by render thread
+    private BufferedImage back;
+    private int[] polylineX = new int[0];
+    private int[] polylineY = new int[0];
+
+    /**
+     * @param component component repainted after every new frame, its size is the size of frames
+     */
+    public TourRenderer(Component component, int maxFps) {
+        if(maxFps < 1){
+            throw new IllegalArgumentException("Frame rate has to be positive");
+        }
+
+        this.component = component;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tour-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::renderIfChanged, 0, 1_000_000_000L / maxFps, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets drawn points and removes route, arrays can't be changed later
+     */
+    public void setPoints(double[] x, double[] y) {
+        scene.set(new Scene(x, y, null, 0.0));
+        dirty.set(true);
+    }
+
+    /**
+     * Sets drawn route, can be called from any thread and as often as routes are found
+     * Route of other amount of points ( found before the last change of points ) isn't drawn
+     * @param route genes of route, first and last gene is the start point, null = no route
+     */
+    public void setRoute(int[] route, double length) {
+        // points set at the same time aren't lost
+        scene.updateAndGet(current -> new Scene(current.x, current.y, route, length));
+        dirty.set(true);
+    }
+
+    /**
+     * @return the last finished frame, null before the first one, has to be read synchronized on the image
+     */
+    public BufferedImage getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return time of rendering the last frame in nanoseconds
+     */
+    public long getLastRenderTime() {
+        return lastRenderTime;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void renderIfChanged(){
+        int width = component.getWidth();
+        int height = component.getHeight();
+        if(width <= 0 || height <= 0){
+            return;
+        }
+
+        BufferedImage current = frame;
+        boolean resized = current == null || current.getWidth() != width || current.getHeight() != height;
+        if(!dirty.getAndSet(false) && !resized){
+            return;
+        }
+
+        if(back == null || back.getWidth() != width || back.getHeight() != height){
+            back = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+
+        long start = System.nanoTime();
+        synchronized (back){
+            render(scene.get(), back);
+        }
+        lastRenderTime = System.nanoTime() - start;
+
+        // previous frame becomes the back buffer, event thread reads it only while holding its lock
+        frame = back;
+        back = current;
+        component.repaint();
+    }
+
+    private void render(Scene scene, BufferedImage image){
+        int points = scene.x.length;
+        Graphics2D g2 = image.createGraphics();
+        try{
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+            if(points <= ANTIALIASING_LIMIT){
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            }
+            g2.setColor(Color.black);
+
+            if(scene.route != null && scene.route.length == points + 1){
+                drawRoute(g2, scene);
+            }
+
+            if(points <= MARKER_LIMIT){
+                for(int i = 0; i < points; i++){
+                    int x = (int) scene.x[i];
+                    int y = (int) scene.y[i];
+                    if(points <= LABEL_LIMIT){
+                        g2.drawString(String.valueOf(i), x, y - 5);
+                    }
+                    g2.fillOval(x, y, 5, 5);
+                }
+            }else{
+                drawPixels(image, scene);
+            }
+
+            if(scene.route != null && scene.route.length == points + 1){
+                g2.setColor(Color.DARK_GRAY);
+                g2.drawString(String.format("%d points, length %.1f", points, scene.length), 5, 15);
+            }
+        }finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Draws route as one polyline, following points in the same pixel are one vertex
+     */
+    private void drawRoute(Graphics2D g2, Scene scene){
+        int[] route = scene.route;
+        if(polylineX.length < route.length){
+            polylineX = new int[route.length];
+            polylineY = new int[route.length];
+        }
+
+        int vertices = 0;
+        for(int gene : route){
+            // points are drawn from their corner, route goes through their middle
+            int x = (int) scene.x[gene] + 2;
+            int y = (int) scene.y[gene] + 2;
+            if(vertices == 0 || x != polylineX[vertices - 1] || y != polylineY[vertices - 1]){
+                polylineX[vertices] = x;
+                polylineY[vertices] = y;
+                vertices++;
+            }
+        }
+
+        g2.drawPolyline(polylineX, polylineY, vertices);
+    }
+
+    /**
+     * Sets one pixel of every point straight in the image raster
+     */
+    private void drawPixels(BufferedImage image, Scene scene){
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        for(int i = 0; i < scene.x.length; i++){
+            int x = (int) scene.x[i] + 2;
+            int y = (int) scene.y[i] + 2;
+            if(x >= 0 && x < width && y >= 0 && y < height){
+                pixels[y * width + x] = POINT_PIXEL;
+            }
+        }
+    }
+
+    /**
+     * Points and route drawn in one frame, replaced as a whole so they always match
+     */
+    private static final class Scene {
+        final double[] x;
+        final double[] y;
+        final int[] route;
+        final double length;
+
+        Scene(double[] x, double[] y, int[] route, double length) {
+            this.x = x;
+            this.y = y;
+            this.route = route;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Islands return a route even when stop criterion is met before the first migration
+ * and count only generations they really did
+ */
+class IslandModelTest {
+
+    private static final int POINTS = 50;
+
+    @Test
+    void metCriterionReturnsInitialRoute() {
+        TSPSolver solver = solver(0);
+        solver.setStopCriterion(StopCriterion.maxGenerations(0));
+
+        solver.run();
+
+        assertRoute(solver);
+        assertEquals(0, solver.getProgress().getGeneration());
+    }
+
+    @Test
+    void zeroTimeLimitReturnsInitialRoute() {
+        TSPSolver solver = solver(0);
+
+        solver.run();
+
+        assertRoute(solver);
+    }
+
+    @Test
+    void generationsStopAtMaxGenerations() {
+        TSPSolver solver = solver(0);
+        solver.setMigrationInterval(10);
+        solver.setStopCriterion(StopCriterion.maxGenerations(30));
+
+        solver.run();
+
+        assertRoute(solver);
+        assertEquals(30, solver.getProgress().getGeneration());
+    }
+
+    @Test
+    void deadlineInEpochCountsDoneGenerations() {
+        TSPSolver solver = solver(50);
+        solver.setMigrationInterval(Integer.MAX_VALUE);
+
+        solver.run();
+
+        assertRoute(solver);
+        assertTrue(solver.getProgress().getGeneration() < Integer.MAX_VALUE);
+    }
+
+    private static TSPSolver solver(int stopCondition){
+        Random random = new Random(1);
+        double[] x = new double[POINTS];
+        double[] y = new double[POINTS];
+        for(int i = 0; i < POINTS; i++){
+            x[i] = random.nextDouble() * 100;
+            y[i] = random.nextDouble() * 100;
+        }
+
+        TSPSolver solver = new TSPSolver(new CoordinateDistances(x, y), 0, 20, stopCondition, 0.5, 0.1);
+        solver.setSeed(1);
+        solver.setIslandCount(2);
+        return solver;
+    }
+
+    private static void assertRoute(TSPSolver solver){
+        Individual best = solver.getBestIndividual();
+        assertNotNull(best);
+        assertEquals(POINTS + 1, best.getGenes().length);
+    }
+}
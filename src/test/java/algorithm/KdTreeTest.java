@@ -0,0 +1,162 @@
+package algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Neighbours found by KdTree have to be as near as neighbours found by checking all points,
+ * integer coordinates make many ties, so distances are compared instead of point numbers
+ */
+class KdTreeTest {
+
+    private static final int POINTS = 2000;
+    private static final int GRID = 150;
+    private static final int COUNT = 10;
+    private static final int QUERIES = 500;
+
+    @Test
+    void candidateNeighboursMatchBruteForce() {
+        double[] x = new double[POINTS];
+        double[] y = new double[POINTS];
+        randomPoints(x, y, new Random(1));
+        CoordinateDistances coordinates = new CoordinateDistances(x, y);
+
+        CandidateNeighbours tree = CandidateNeighbours.nearest(coordinates, COUNT, 0);
+        CandidateNeighbours bruteForce = CandidateNeighbours.nearest((DistanceProvider) coordinates, COUNT);
+
+        assertEquals(COUNT, tree.getCount());
+        for(int point = 0; point < POINTS; point++){
+            for(int i = 0; i < COUNT; i++){
+                assertEquals(squaredDistance(x, y, point, bruteForce.get(point, i)),
+                        squaredDistance(x, y, point, tree.get(point, i)), "Neighbour " + i + " of point " + point);
+            }
+        }
+    }
+
+    @Test
+    void nearestInQuadrantMatchesBruteForce() {
+        double[] x = new double[POINTS];
+        double[] y = new double[POINTS];
+        Random random = new Random(2);
+        randomPoints(x, y, random);
+        KdTree tree = new KdTree(x, y);
+        int[] found = new int[COUNT];
+
+        for(int query = 0; query < QUERIES; query++){
+            double qx = random.nextInt(GRID);
+            double qy = random.nextInt(GRID);
+            int excluded = random.nextInt(POINTS);
+
+            for(int quadrant = -1; quadrant < 4; quadrant++){
+                double[] expected = nearestDistances(x, y, qx, qy, quadrant, excluded);
+                int count = tree.nearest(qx, qy, quadrant, excluded, found);
+
+                double[] actual = new double[count];
+                for(int i = 0; i < count; i++){
+                    assertNotEquals(excluded, found[i]);
+                    assertTrue(inQuadrant(x[found[i]] - qx, y[found[i]] - qy, quadrant));
+                    actual[i] = (x[found[i]] - qx) * (x[found[i]] - qx) + (y[found[i]] - qy) * (y[found[i]] - qy);
+                }
+                assertArrayEquals(expected, actual, "Quadrant " + quadrant + " of " + qx + ", " + qy);
+            }
+        }
+    }
+
+    @Test
+    void quadrantNeighboursAreDistinctAndSorted() {
+        double[] x = new double[POINTS];
+        double[] y = new double[POINTS];
+        randomPoints(x, y, new Random(3));
+
+        CandidateNeighbours neighbours = new KdTree(x, y).candidateNeighbours(COUNT, 2);
+
+        for(int point = 0; point < POINTS; point++){
+            Set<Integer> seen = new HashSet<>();
+            for(int i = 0; i < COUNT; i++){
+                int neighbour = neighbours.get(point, i);
+                assertNotEquals(point, neighbour);
+                assertTrue(seen.add(neighbour), "Repeated neighbour of point " + point);
+                if(i > 0){
+                    assertTrue(squaredDistance(x, y, point, neighbours.get(point, i - 1))
+                            <= squaredDistance(x, y, point, neighbour));
+                }
+            }
+        }
+    }
+
+    @Test
+    void geoNeighboursAreSortedByGeoDistance() {
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        Random random = new Random(4);
+        for(int i = 0; i < POINTS; i++){
+            // DDD.MM values of TSPLIB, high latitudes stretch planar distance of longitudes most
+            latitudes[i] = 40 + random.nextInt(40) + random.nextInt(60) / 100.0;
+            longitudes[i] = random.nextInt(90) + random.nextInt(60) / 100.0;
+        }
+        CoordinateDistances coordinates = new CoordinateDistances(latitudes, longitudes,
+                CoordinateDistances.Metric.GEO);
+
+        CandidateNeighbours neighbours = CandidateNeighbours.nearest(coordinates, COUNT, 0);
+        CandidateNeighbours bruteForce = CandidateNeighbours.nearest((DistanceProvider) coordinates, COUNT);
+
+        for(int point = 0; point < POINTS; point++){
+            for(int i = 0; i < COUNT; i++){
+                assertEquals(coordinates.distance(point, bruteForce.get(point, i)),
+                        coordinates.distance(point, neighbours.get(point, i)),
+                        "Neighbour " + i + " of point " + point);
+            }
+        }
+    }
+
+    private static void randomPoints(double[] x, double[] y, Random random){
+        for(int i = 0; i < x.length; i++){
+            x[i] = random.nextInt(GRID);
+            y[i] = random.nextInt(GRID);
+        }
+    }
+
+    /**
+     * @return squared distances of up to COUNT nearest points in quadrant, sorted
+     */
+    private static double[] nearestDistances(double[] x, double[] y, double qx, double qy, int quadrant,
+                                             int excluded){
+        double[] distances = new double[x.length];
+        int count = 0;
+        for(int point = 0; point < x.length; point++){
+            double dx = x[point] - qx;
+            double dy = y[point] - qy;
+            if(point != excluded && inQuadrant(dx, dy, quadrant)){
+                distances[count++] = dx * dx + dy * dy;
+            }
+        }
+
+        Arrays.sort(distances, 0, count);
+        return Arrays.copyOf(distances, Math.min(count, COUNT));
+    }
+
+    private static boolean inQuadrant(double dx, double dy, int quadrant){
+        switch (quadrant){
+            case 0: return dx >= 0 && dy >= 0;
+            case 1: return dx < 0 && dy >= 0;
+            case 2: return dx < 0 && dy < 0;
+            case 3: return dx >= 0 && dy < 0;
+            default: return true;
+        }
+    }
+
+    private static double squaredDistance(double[] x, double[] y, int first, int second){
+        double dx = x[first] - x[second];
+        double dy = y[first] - y[second];
+        return dx * dx + dy * dy;
+    }
+}
@@ -0,0 +1,111 @@
+package algorithm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Routes skipped by fitness cache or duplicate policy take length of route with the same hash,
+ * so for asymmetric distances reversed route must not share the hash
+ */
+class TourHashTest {
+
+    private static final int POINTS = 7;
+    private static final int RUNS = 200;
+    private static final int GENERATIONS = 200;
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void undirectedHashIgnoresDirection() {
+        TourHash tourHash = new TourHash(POINTS, false);
+
+        assertEquals(tourHash.of(route(), 0, POINTS + 1), tourHash.of(reversed(route()), 0, POINTS + 1));
+    }
+
+    @Test
+    void directedHashDependsOnDirection() {
+        TourHash tourHash = new TourHash(POINTS, true);
+
+        assertNotEquals(tourHash.of(route(), 0, POINTS + 1), tourHash.of(reversed(route()), 0, POINTS + 1));
+    }
+
+    @Test
+    void swapEdgesUpdateDirectedHash() {
+        TourHash tourHash = new TourHash(POINTS, true);
+        int[] genes = route();
+        long hash = tourHash.of(genes, 0, genes.length);
+
+        for(int second = 2; second < POINTS; second++){
+            hash -= tourHash.swapEdges(genes, 1, second);
+            int temp = genes[1];
+            genes[1] = genes[second];
+            genes[second] = temp;
+            hash += tourHash.swapEdges(genes, 1, second);
+
+            assertEquals(tourHash.of(genes, 0, genes.length), hash);
+        }
+    }
+
+    @Test
+    void fitnessCacheKeepsExactLengthsOfAsymmetricRoutes() {
+        for(int run = 0; run < RUNS; run++){
+            TSPSolver solver = solver(run);
+            solver.setFitnessCacheSize(1024);
+
+            assertExactLength(solver);
+        }
+    }
+
+    @Test
+    void skippedClonesKeepExactLengthsOfAsymmetricRoutes() {
+        for(int run = 0; run < RUNS; run++){
+            TSPSolver solver = solver(run);
+            solver.setDuplicatePolicy(DuplicatePolicy.SKIP);
+
+            assertExactLength(solver);
+        }
+    }
+
+    private static TSPSolver solver(long seed){
+        Random random = new Random(seed);
+        double[][] distances = new double[POINTS][POINTS];
+        for(int i = 0; i < POINTS; i++){
+            for(int j = 0; j < POINTS; j++){
+                distances[i][j] = (i == j) ? 0 : 1 + random.nextInt(100);
+            }
+        }
+
+        TSPSolver solver = new TSPSolver(distances, 0, 20, 0, 0.5, 0.5);
+        solver.setSeed(seed);
+        solver.setStopCriterion(StopCriterion.maxGenerations(GENERATIONS));
+        return solver;
+    }
+
+    private static void assertExactLength(TSPSolver solver){
+        solver.run();
+        Individual best = solver.getBestIndividual();
+        int[] genes = best.getGenes();
+
+        assertEquals(FitnessEvaluator.routeLength(solver.getDistances(), genes, 0, genes.length),
+                best.getLength(), EPSILON);
+    }
+
+    private static int[] route(){
+        int[] genes = new int[POINTS + 1];
+        for(int i = 0; i < POINTS; i++){
+            genes[i] = i;
+        }
+        return genes;
+    }
+
+    private static int[] reversed(int[] genes){
+        int[] reversed = new int[genes.length];
+        for(int i = 0; i < genes.length; i++){
+            reversed[i] = genes[genes.length - 1 - i];
+        }
+        return reversed;
+    }
+}